@@ -0,0 +1,16 @@
+-- Async claim scoring: claims.scoring_status plus a durable queue of claims awaiting the ML score
+-- JPA ddl-auto also creates these from the Claim / ScoringTask entities.
+
+ALTER TABLE claims ADD COLUMN scoring_status VARCHAR(16) NULL;
+
+CREATE TABLE IF NOT EXISTS scoring_tasks (
+  claim_id VARCHAR(36) NOT NULL PRIMARY KEY,
+  attempts INT NOT NULL DEFAULT 0,
+  available_at DATETIME(6) NOT NULL,
+  locked_by VARCHAR(36),
+  locked_until DATETIME(6),
+  last_error TEXT,
+  created_at DATETIME(6),
+  KEY idx_scoring_tasks_available (available_at),
+  KEY idx_scoring_tasks_locked_by (locked_by)
+);
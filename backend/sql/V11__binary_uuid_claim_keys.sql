@@ -0,0 +1,48 @@
+-- BINARY(16) UUID keys for claims and the columns referencing them (ai_logs, claim_features, scoring_tasks,
+-- invoices.claim_id). Each CHAR(36) id becomes the same 16 bytes (hex without dashes), so ids in the API, exports,
+-- keyset cursors and rescore_jobs.cursor_id do not change. New rows get time-ordered UUIDv7 ids from the application.
+-- ddl-auto cannot change column types: run this once, with the application stopped, before deploying the version
+-- that maps these columns as BINARY(16). Works on MySQL 5.7 / Aurora 2 (no UUID_TO_BIN needed).
+
+-- 0. Every value converted below must be a UUID; fix or delete the rows these return before continuing.
+SELECT id FROM claims WHERE id NOT REGEXP '^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$';
+SELECT id, claim_id FROM ai_logs
+ WHERE id NOT REGEXP '^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$'
+    OR claim_id NOT REGEXP '^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$';
+SELECT claim_id FROM claim_features WHERE claim_id NOT REGEXP '^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$';
+SELECT claim_id FROM scoring_tasks WHERE claim_id NOT REGEXP '^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$';
+
+-- 1. claims.id (primary key and the keyset indexes that contain it)
+ALTER TABLE claims ADD COLUMN id_bin BINARY(16) NULL;
+UPDATE claims SET id_bin = UNHEX(REPLACE(id, '-', ''));
+ALTER TABLE claims DROP INDEX idx_claims_created_id, DROP INDEX idx_claims_hospital_created_id, DROP PRIMARY KEY, DROP COLUMN id;
+ALTER TABLE claims CHANGE COLUMN id_bin id BINARY(16) NOT NULL FIRST, ADD PRIMARY KEY (id),
+  ADD INDEX idx_claims_created_id (created_at, id),
+  ADD INDEX idx_claims_hospital_created_id (hospital_id, created_at, id);
+
+-- 2. ai_logs.id and ai_logs.claim_id
+ALTER TABLE ai_logs ADD COLUMN id_bin BINARY(16) NULL, ADD COLUMN claim_id_bin BINARY(16) NULL;
+UPDATE ai_logs SET id_bin = UNHEX(REPLACE(id, '-', '')), claim_id_bin = UNHEX(REPLACE(claim_id, '-', ''));
+ALTER TABLE ai_logs DROP PRIMARY KEY, DROP COLUMN id, DROP COLUMN claim_id;
+ALTER TABLE ai_logs CHANGE COLUMN id_bin id BINARY(16) NOT NULL FIRST,
+  CHANGE COLUMN claim_id_bin claim_id BINARY(16) NOT NULL AFTER id, ADD PRIMARY KEY (id);
+
+-- 3. claim_features.claim_id (unique)
+ALTER TABLE claim_features ADD COLUMN claim_id_bin BINARY(16) NULL;
+UPDATE claim_features SET claim_id_bin = UNHEX(REPLACE(claim_id, '-', ''));
+ALTER TABLE claim_features DROP COLUMN claim_id;
+ALTER TABLE claim_features CHANGE COLUMN claim_id_bin claim_id BINARY(16) NOT NULL AFTER id,
+  ADD UNIQUE KEY uk_claim_features_claim (claim_id);
+
+-- 4. scoring_tasks.claim_id (primary key)
+ALTER TABLE scoring_tasks ADD COLUMN claim_id_bin BINARY(16) NULL;
+UPDATE scoring_tasks SET claim_id_bin = UNHEX(REPLACE(claim_id, '-', ''));
+ALTER TABLE scoring_tasks DROP PRIMARY KEY, DROP COLUMN claim_id;
+ALTER TABLE scoring_tasks CHANGE COLUMN claim_id_bin claim_id BINARY(16) NOT NULL FIRST, ADD PRIMARY KEY (claim_id);
+
+-- 5. invoices.claim_id (optional; blank or malformed references become NULL)
+ALTER TABLE invoices ADD COLUMN claim_id_bin BINARY(16) NULL;
+UPDATE invoices SET claim_id_bin = UNHEX(REPLACE(claim_id, '-', ''))
+ WHERE claim_id REGEXP '^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$';
+ALTER TABLE invoices DROP COLUMN claim_id;
+ALTER TABLE invoices CHANGE COLUMN claim_id_bin claim_id BINARY(16) NULL AFTER patient_id;
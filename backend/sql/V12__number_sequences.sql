@@ -0,0 +1,10 @@
+-- Block-allocated claim / invoice numbers: one counter row per number kind and hospital (name = 'CLM:<hospital id>')
+-- JPA ddl-auto also creates this from the NumberSequence entity. Existing numbers keep their old format.
+
+CREATE TABLE IF NOT EXISTS number_sequences (
+  id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  name VARCHAR(64) NOT NULL,
+  next_value BIGINT NOT NULL,
+  updated_at DATETIME(6),
+  UNIQUE KEY uk_number_sequences_name (name)
+);
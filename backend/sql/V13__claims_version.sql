@@ -0,0 +1,4 @@
+-- Optimistic locking for claim adjudication: claims.version, bumped on every update
+-- JPA ddl-auto also adds this from the Claim entity; existing rows start at 0.
+
+ALTER TABLE claims ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,4 @@
+-- Near-duplicate detection at submission: the earlier claim a new one matched (flag mode)
+-- JPA ddl-auto also adds this from the Claim entity.
+
+ALTER TABLE claims ADD COLUMN duplicate_of BINARY(16) NULL;
@@ -0,0 +1,13 @@
+-- Per-hospital running KPI counters for /api/dashboard/kpis
+-- Maintained incrementally by the backend; rebuild with POST /api/dashboard/kpis/rebuild
+
+CREATE TABLE IF NOT EXISTS hospital_kpis (
+  hospital_id VARCHAR(36) NOT NULL PRIMARY KEY,
+  total_claims BIGINT NOT NULL DEFAULT 0,
+  approved_claims BIGINT NOT NULL DEFAULT 0,
+  denied_claims BIGINT NOT NULL DEFAULT 0,
+  revenue_collected DECIMAL(16,2) NOT NULL DEFAULT 0,
+  ai_confidence_sum DECIMAL(16,2) NOT NULL DEFAULT 0,
+  ai_confidence_count BIGINT NOT NULL DEFAULT 0,
+  updated_at DATETIME(6)
+);
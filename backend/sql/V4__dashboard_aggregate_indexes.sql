@@ -0,0 +1,9 @@
+-- Composite indexes for the grouped dashboard chart queries (weekday, payer, status, PAID revenue by month)
+-- JPA ddl-auto also creates these from the entity @Index declarations.
+
+CREATE INDEX idx_claims_hospital_submitted ON claims (hospital_id, submitted_at);
+CREATE INDEX idx_claims_status_submitted ON claims (status, submitted_at);
+CREATE INDEX idx_claims_provider_submitted ON claims (insurance_provider, submitted_at);
+
+CREATE INDEX idx_invoices_status_created ON invoices (payment_status, created_at);
+CREATE INDEX idx_invoices_hospital_status_created ON invoices (hospital_id, payment_status, created_at);
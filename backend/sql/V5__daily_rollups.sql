@@ -0,0 +1,27 @@
+-- Daily (UTC) rollups for analytics: claims by hospital x payer x status x procedure category, PAID revenue by hospital
+-- Maintained incrementally by the backend; POST /api/rollups/rebuild re-derives them from claims/invoices.
+
+CREATE TABLE IF NOT EXISTS claim_daily_rollups (
+  id VARCHAR(36) NOT NULL PRIMARY KEY,
+  bucket_date DATE NOT NULL,
+  hospital_id VARCHAR(36) NOT NULL,
+  insurance_provider VARCHAR(255) NOT NULL,
+  status VARCHAR(32) NOT NULL,
+  procedure_category VARCHAR(50) NOT NULL,
+  claim_count BIGINT NOT NULL DEFAULT 0,
+  amount_sum DECIMAL(16,2) NOT NULL DEFAULT 0,
+  updated_at DATETIME(6),
+  UNIQUE KEY uk_claim_rollup_bucket (bucket_date, hospital_id, insurance_provider, status, procedure_category),
+  KEY idx_claim_rollup_hospital_date (hospital_id, bucket_date)
+);
+
+CREATE TABLE IF NOT EXISTS revenue_daily_rollups (
+  id VARCHAR(36) NOT NULL PRIMARY KEY,
+  bucket_date DATE NOT NULL,
+  hospital_id VARCHAR(36) NOT NULL,
+  paid_count BIGINT NOT NULL DEFAULT 0,
+  paid_amount DECIMAL(16,2) NOT NULL DEFAULT 0,
+  updated_at DATETIME(6),
+  UNIQUE KEY uk_revenue_rollup_bucket (bucket_date, hospital_id),
+  KEY idx_revenue_rollup_hospital_date (hospital_id, bucket_date)
+);
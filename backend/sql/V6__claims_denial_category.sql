@@ -0,0 +1,7 @@
+-- Denial category assigned when a claim is denied (replaces per-request scanning of ai_explanation)
+-- Existing denied claims are backfilled on startup or via POST /api/claims/denial-categories/backfill
+
+ALTER TABLE claims
+  ADD COLUMN denial_category VARCHAR(32);
+
+CREATE INDEX idx_claims_status_denial_category ON claims (status, denial_category);
@@ -0,0 +1,7 @@
+-- Indexes for the grouped department analytics counts (operations by theatre, lab bookings by department, date ranges)
+-- JPA ddl-auto also creates these from the entity @Index declarations.
+
+CREATE INDEX idx_operations_hospital_scheduled ON operations (hospital_id, scheduled_at);
+CREATE INDEX idx_operations_theatre_scheduled ON operations (operation_theatre_id, scheduled_at);
+
+CREATE INDEX idx_lab_bookings_hospital_scheduled ON lab_test_bookings (hospital_id, scheduled_date);
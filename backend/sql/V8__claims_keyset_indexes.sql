@@ -0,0 +1,5 @@
+-- Keyset pagination for GET /api/claims/page: ORDER BY created_at DESC, id DESC with an optional hospital filter
+-- JPA ddl-auto also creates these from the entity @Index declarations.
+
+CREATE INDEX idx_claims_created_id ON claims (created_at, id);
+CREATE INDEX idx_claims_hospital_created_id ON claims (hospital_id, created_at, id);
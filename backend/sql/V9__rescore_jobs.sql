@@ -0,0 +1,18 @@
+-- Background claim rescoring jobs (POST /api/claims/rescore); the cursor is the last committed (created_at, id)
+-- JPA ddl-auto also creates this table from the RescoreJob entity.
+
+CREATE TABLE IF NOT EXISTS rescore_jobs (
+  id VARCHAR(36) NOT NULL PRIMARY KEY,
+  status VARCHAR(16) NOT NULL,
+  total_claims BIGINT NOT NULL DEFAULT 0,
+  processed BIGINT NOT NULL DEFAULT 0,
+  failed BIGINT NOT NULL DEFAULT 0,
+  cursor_created_at DATETIME(6),
+  cursor_id VARCHAR(36),
+  started_by VARCHAR(36),
+  error TEXT,
+  created_at DATETIME(6),
+  updated_at DATETIME(6),
+  finished_at DATETIME(6),
+  KEY idx_rescore_jobs_status (status)
+);
@@ -0,0 +1,23 @@
+package com.medibots.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler always on, so every result includes allocation rate
+ * (gc.alloc.rate.norm = bytes per operation) next to throughput. Accepts the usual JMH command-line
+ * options, e.g. {@code DashboardAggregation -p size=100000 -rf json}.
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(cli).addProfiler(GCProfiler.class);
+        if (cli.getIncludes().isEmpty()) options.include("com\\.medibots\\.bench\\..*");
+        new Runner(options.build()).run();
+    }
+}
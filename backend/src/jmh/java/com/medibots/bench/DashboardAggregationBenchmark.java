@@ -0,0 +1,171 @@
+package com.medibots.bench;
+
+import com.medibots.entity.AiLog;
+import com.medibots.entity.Claim;
+import com.medibots.entity.Invoice;
+import com.medibots.service.ClaimCube;
+import com.medibots.service.DenialCategoryService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Dashboard aggregations over synthetic claims / invoices / AI logs.
+ * The legacy_* methods are the stream-based controller code as it was before the SQL / counter rewrite
+ * (minus the findAll), kept as the baseline; cube_* run the same questions against {@link ClaimCube}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class DashboardAggregationBenchmark {
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM").withZone(ZoneOffset.UTC);
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    List<Claim> claims;
+    List<Invoice> invoices;
+    List<AiLog> aiLogs;
+    ClaimCube cube;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> hospitals = SyntheticData.hospitals(50);
+        claims = SyntheticData.claims(size, hospitals, 1);
+        invoices = SyntheticData.invoices(size, hospitals, 2);
+        aiLogs = SyntheticData.aiLogs(size / 2, hospitals, 3);
+        cube = new ClaimCube(size);
+        for (Claim c : claims) {
+            String[] v = new String[ClaimCube.Dimension.values().length];
+            v[ClaimCube.Dimension.PAYER.ordinal()] = c.getInsuranceProvider();
+            v[ClaimCube.Dimension.STATUS.ordinal()] = c.getStatus();
+            v[ClaimCube.Dimension.HOSPITAL.ordinal()] = c.getHospitalId();
+            v[ClaimCube.Dimension.MONTH.ordinal()] = MONTH.format(c.getSubmittedAt());
+            v[ClaimCube.Dimension.PROCEDURE_CATEGORY.ordinal()] = c.getProcedureCategory();
+            v[ClaimCube.Dimension.CLAIM_TYPE.ordinal()] = c.getClaimType();
+            v[ClaimCube.Dimension.HOSPITAL_TIER.ordinal()] = c.getHospitalTier();
+            cube.upsert(c.getId(), v, c.getAmount().doubleValue(),
+                    c.getAiRiskScore() != null ? c.getAiRiskScore().doubleValue() : Double.NaN);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> legacy_kpis() {
+        long totalClaims = claims.size();
+        long approved = claims.stream().filter(c -> "APPROVED".equals(c.getStatus())).count();
+        long denied = claims.stream().filter(c -> "DENIED".equals(c.getStatus())).count();
+        double denialRate = totalClaims > 0 ? Math.round((denied * 1000.0) / totalClaims) / 10.0 : 0;
+        double revenueCollected = invoices.stream()
+                .filter(i -> "PAID".equals(i.getPaymentStatus()))
+                .mapToDouble(i -> i.getTotalAmount().doubleValue())
+                .sum();
+        double aiAccuracy = aiLogs.isEmpty() ? 0 : aiLogs.stream()
+                .mapToDouble(l -> l.getConfidence().doubleValue())
+                .average().orElse(0);
+        aiAccuracy = Math.round(aiAccuracy * 10) / 10.0;
+        Map<String, Object> m = new HashMap<>();
+        m.put("totalClaims", totalClaims);
+        m.put("approvedClaims", approved);
+        m.put("denialRate", denialRate);
+        m.put("revenueCollected", revenueCollected);
+        m.put("aiAccuracy", aiAccuracy);
+        return m;
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> legacy_claimsPerDay() {
+        String[] days = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String d : days) counts.put(d, 0L);
+        claims.forEach(c -> {
+            if (c.getSubmittedAt() != null) {
+                int day = c.getSubmittedAt().atZone(ZoneId.systemDefault()).getDayOfWeek().getValue() % 7;
+                String name = days[day];
+                counts.put(name, counts.get(name) + 1);
+            }
+        });
+        return counts.entrySet().stream()
+                .map(e -> Map.<String, Object>of("name", e.getKey(), "value", e.getValue().intValue()))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> legacy_revenueTrend() {
+        var paid = invoices.stream().filter(i -> "PAID".equals(i.getPaymentStatus())).collect(Collectors.toList());
+        Map<String, Double> byMonth = new TreeMap<>();
+        paid.forEach(i -> {
+            if (i.getCreatedAt() != null) {
+                String month = i.getCreatedAt().atZone(ZoneId.systemDefault()).getMonth().toString().substring(0, 3);
+                byMonth.merge(month, i.getTotalAmount().doubleValue(), Double::sum);
+            }
+        });
+        return byMonth.entrySet().stream()
+                .map(e -> (Map<String, Object>) new HashMap<String, Object>(Map.of("name", e.getKey(), "value", e.getValue())))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Map<String, Integer> legacy_denialDistribution() {
+        var denied = claims.stream().filter(c -> "DENIED".equals(c.getStatus())).collect(Collectors.toList());
+        Map<String, Integer> cat = new HashMap<>();
+        for (var c : denied) {
+            String exp = (c.getAiExplanation() != null ? c.getAiExplanation() : "").toLowerCase();
+            if (exp.contains("coding") || exp.contains("mismatch")) cat.merge("Coding Issues", 1, Integer::sum);
+            else if (exp.contains("auth") || exp.contains("incomplete")) cat.merge("Missing Auth", 1, Integer::sum);
+            else if (exp.contains("high risk") || exp.contains("flagged")) cat.merge("High Risk", 1, Integer::sum);
+            else cat.merge("Other", 1, Integer::sum);
+        }
+        return cat;
+    }
+
+    /** Write-time classification cost: what claim denial now pays once per claim instead of per request. */
+    @Benchmark
+    public int[] classifyDenials() {
+        int[] counts = new int[DenialCategoryService.Category.values().length];
+        for (Claim c : claims) {
+            if ("DENIED".equals(c.getStatus())) counts[DenialCategoryService.classify(c.getAiExplanation()).ordinal()]++;
+        }
+        return counts;
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> legacy_claimsByPayer() {
+        Map<String, Long> byProvider = claims.stream().collect(Collectors.groupingBy(
+                c -> c.getInsuranceProvider() != null ? c.getInsuranceProvider() : "Unknown", Collectors.counting()));
+        return byProvider.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
+                .limit(5)
+                .map(e -> (Map<String, Object>) new HashMap<String, Object>(Map.of("name", e.getKey(), "value", e.getValue().intValue())))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<ClaimCube.Group> cube_claimsByPayer() {
+        List<ClaimCube.Group> groups = cube.query(List.of(ClaimCube.Dimension.PAYER), Map.of());
+        return groups.subList(0, Math.min(5, groups.size()));
+    }
+
+    @Benchmark
+    public List<ClaimCube.Group> cube_claimsByStatus() {
+        return cube.query(List.of(ClaimCube.Dimension.STATUS), Map.of());
+    }
+
+    @Benchmark
+    public List<ClaimCube.Group> cube_deniedByHospitalMonth() {
+        return cube.query(List.of(ClaimCube.Dimension.HOSPITAL, ClaimCube.Dimension.MONTH),
+                Map.of(ClaimCube.Dimension.STATUS, "DENIED"));
+    }
+
+    @Benchmark
+    public List<ClaimCube.Group> cube_payerTierCategory() {
+        return cube.query(List.of(ClaimCube.Dimension.PAYER, ClaimCube.Dimension.HOSPITAL_TIER, ClaimCube.Dimension.PROCEDURE_CATEGORY), Map.of());
+    }
+}
@@ -0,0 +1,95 @@
+package com.medibots.bench;
+
+import com.medibots.service.DuplicateClaimIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Near-duplicate check for one new claim against {@code claims} recent claims (3-day window, half the probes are
+ * resubmissions). legacy_scan compares the new claim with every recent claim, the shape of the unindexed
+ * {@code patient_id / cpt_code / amount / submitted_at} query; indexed_register goes through
+ * {@link DuplicateClaimIndex} and takes the entry back out so the index size stays fixed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DuplicateClaimBenchmark {
+    private static final int POOL = 1024;
+    private static final long WINDOW_MILLIS = Duration.ofDays(3).toMillis();
+    private static final String[] CPT_CODES = {"99213", "99214", "99285", "71046", "80053", "85025", "93000",
+            "36415", "97110", "99232", "45378", "66984", "27447", "29881", "43239", "59400"};
+
+    record Row(String patientId, String cptCode, BigDecimal amount, Instant submittedAt) {}
+
+    @Param({"10000", "100000"})
+    public int claims;
+
+    DuplicateClaimIndex index;
+    List<Row> recent;
+    List<Row> probes;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom r = new SplittableRandom(7);
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+        List<String> patients = new ArrayList<>();
+        for (int i = 0; i < claims / 4; i++) patients.add(new UUID(r.nextLong(), r.nextLong()).toString());
+        index = new DuplicateClaimIndex(WINDOW_MILLIS, BigDecimal.ONE);
+        recent = new ArrayList<>(claims);
+        for (int i = 0; i < claims; i++) {
+            Row row = new Row(patients.get(r.nextInt(patients.size())), CPT_CODES[r.nextInt(CPT_CODES.length)],
+                    BigDecimal.valueOf(r.nextInt(500, 500_000), 2), now.minusMillis(r.nextLong(WINDOW_MILLIS)));
+            recent.add(row);
+            index.register(row.patientId(), row.cptCode(), row.amount(), row.submittedAt(),
+                    new UUID(r.nextLong(), r.nextLong()).toString(), "CLM-1-" + i);
+        }
+        probes = new ArrayList<>(POOL);
+        for (int i = 0; i < POOL; i++) {
+            Row probe = i % 2 == 0
+                    ? recent.get(r.nextInt(claims))
+                    : new Row(patients.get(r.nextInt(patients.size())), CPT_CODES[r.nextInt(CPT_CODES.length)],
+                            BigDecimal.valueOf(r.nextInt(500, 500_000), 2), now);
+            probes.add(new Row(probe.patientId(), probe.cptCode(), probe.amount(), now));
+        }
+    }
+
+    private Row nextProbe() {
+        return probes.get(next = (next + 1) & (POOL - 1));
+    }
+
+    @Benchmark
+    public int legacy_scan() {
+        Row p = nextProbe();
+        long amount = p.amount().movePointRight(2).longValue() / 100;
+        int matches = 0;
+        for (Row row : recent) {
+            if (row.patientId().equals(p.patientId()) && row.cptCode().equals(p.cptCode())
+                    && row.amount().movePointRight(2).longValue() / 100 == amount
+                    && Math.abs(row.submittedAt().toEpochMilli() - p.submittedAt().toEpochMilli()) <= WINDOW_MILLIS) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int indexed_register() {
+        Row p = nextProbe();
+        DuplicateClaimIndex.Registration reg = index.register(p.patientId(), p.cptCode(), p.amount(), p.submittedAt(),
+                null, null);
+        index.remove(reg.entry());
+        return reg.duplicates().size();
+    }
+}
@@ -0,0 +1,140 @@
+package com.medibots.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medibots.entity.Claim;
+import com.medibots.service.ClaimFeatureVector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building and serialising one denial-model request body. legacy_* is the map-based path MlPredictionService used
+ * before the typed feature records (claim → raw feature map → payload map with fillDefaults → ObjectMapper),
+ * kept as the baseline; typed_* go through {@link ClaimFeatureVector}, from the same request map or straight from
+ * the entity. Run with {@code -prof gc} to compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeaturePayloadBenchmark {
+    private static final int POOL = 1024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    List<Claim> claims;
+    List<Map<String, Object>> requests;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        claims = SyntheticData.claims(POOL, SyntheticData.hospitals(10), 5);
+        requests = new ArrayList<>(POOL);
+        for (Claim c : claims) requests.add(legacyClaimFeatures(c));
+    }
+
+    private int nextIndex() {
+        return next = (next + 1) & (POOL - 1);
+    }
+
+    @Benchmark
+    public byte[] legacy_fromRequestMap() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(legacyClaimPayload(requests.get(nextIndex())));
+    }
+
+    @Benchmark
+    public byte[] legacy_fromClaim() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(legacyClaimPayload(legacyClaimFeatures(claims.get(nextIndex()))));
+    }
+
+    @Benchmark
+    public byte[] typed_fromRequestMap() {
+        return ClaimFeatureVector.from(requests.get(nextIndex())).toJson();
+    }
+
+    @Benchmark
+    public byte[] typed_fromClaim() {
+        return ClaimFeatureVector.of(claims.get(nextIndex())).toJson();
+    }
+
+    static Map<String, Object> legacyClaimFeatures(Claim c) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("amount", c.getAmount());
+        m.put("coverage_limit", c.getCoverageLimit());
+        m.put("deductible_amount", c.getDeductibleAmount());
+        m.put("insurance_provider", c.getInsuranceProvider());
+        m.put("policy_type", c.getPolicyType());
+        m.put("preauthorization_required", c.getPreauthorizationRequired());
+        m.put("preauthorization_obtained", c.getPreauthorizationObtained());
+        m.put("primary_icd_code", c.getPrimaryIcdCode());
+        m.put("secondary_icd_code", c.getSecondaryIcdCode());
+        m.put("cpt_code", c.getCptCode());
+        m.put("procedure_category", c.getProcedureCategory());
+        m.put("medical_necessity_score", c.getMedicalNecessityScore());
+        m.put("prior_denial_count", c.getPriorDenialCount());
+        m.put("resubmission_count", c.getResubmissionCount());
+        m.put("days_to_submission", c.getDaysToSubmission());
+        m.put("documentation_complete", c.getDocumentationComplete());
+        m.put("claim_type", c.getClaimType());
+        m.put("patient_age", c.getPatientAge());
+        m.put("patient_gender", c.getPatientGender());
+        m.put("chronic_condition_flag", c.getChronicConditionFlag());
+        m.put("doctor_specialization", c.getDoctorSpecialization());
+        m.put("hospital_tier", c.getHospitalTier());
+        m.put("hospital_claim_success_rate", c.getHospitalClaimSuccessRate());
+        return m;
+    }
+
+    static Map<String, Object> legacyClaimPayload(Map<String, Object> features) {
+        Map<String, Object> m = new HashMap<>();
+        put(m, "claim_amount", features.get("amount"));
+        put(m, "coverage_limit", features.get("coverage_limit"));
+        put(m, "deductible_amount", features.get("deductible_amount"));
+        put(m, "insurance_provider", features.get("insurance_provider"));
+        put(m, "policy_type", features.get("policy_type"));
+        put(m, "preauthorization_required", features.get("preauthorization_required"));
+        put(m, "preauthorization_obtained", features.get("preauthorization_obtained"));
+        put(m, "primary_icd_code", features.get("primary_icd_code"));
+        put(m, "secondary_icd_code", features.get("secondary_icd_code"));
+        put(m, "cpt_code", features.get("cpt_code"));
+        put(m, "procedure_category", features.get("procedure_category"));
+        put(m, "medical_necessity_score", features.get("medical_necessity_score"));
+        put(m, "prior_denial_count", features.get("prior_denial_count"));
+        put(m, "resubmission_count", features.get("resubmission_count"));
+        put(m, "days_to_submission", features.get("days_to_submission"));
+        put(m, "documentation_complete", features.get("documentation_complete"));
+        put(m, "claim_type", features.get("claim_type"));
+        put(m, "patient_age", features.get("patient_age"));
+        put(m, "patient_gender", features.get("patient_gender"));
+        put(m, "chronic_condition_flag", features.get("chronic_condition_flag"));
+        put(m, "doctor_specialization", features.get("doctor_specialization"));
+        put(m, "hospital_tier", features.get("hospital_tier"));
+        put(m, "hospital_claim_success_rate", features.get("hospital_claim_success_rate"));
+        if (!m.containsKey("claim_amount")) m.put("claim_amount", features.get("amount") != null ? features.get("amount") : 5000);
+        fillDefaults(m, "primary_icd_code", "J06.9", "secondary_icd_code", "", "cpt_code", "99213",
+            "procedure_category", "Outpatient", "claim_type", "OUTPATIENT", "policy_type", "PPO",
+            "insurance_provider", "Unknown", "patient_gender", "MALE", "hospital_tier", "TIER2",
+            "coverage_limit", 50000, "deductible_amount", 500, "prior_denial_count", 0, "resubmission_count", 0,
+            "days_to_submission", 30, "medical_necessity_score", 70, "documentation_complete", true,
+            "preauthorization_required", false, "chronic_condition_flag", false, "patient_age", 40,
+            "hospital_claim_success_rate", 0.8);
+        return m;
+    }
+
+    private static void put(Map<String, Object> m, String key, Object val) {
+        if (val != null) m.put(key, val);
+    }
+
+    private static void fillDefaults(Map<String, Object> m, Object... kv) {
+        for (int i = 0; i < kv.length; i += 2) {
+            String k = (String) kv[i];
+            if (!m.containsKey(k)) m.put(k, kv[i + 1]);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.medibots.bench;
+
+import com.medibots.entity.Ids;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batched inserts into a claims-shaped InnoDB table keyed by random UUIDv4 text (the old ids), UUIDv7 text and
+ * UUIDv7 BINARY(16). The table is preloaded with {@code preload} rows so random keys land on cold, full pages; one
+ * operation inserts and commits {@code batch} rows. On teardown the data / index sizes from information_schema are
+ * printed, since page splits show up as a larger, emptier tree as well as slower inserts.
+ * Needs a MySQL server: {@code -Dbench.jdbc.url=...} (default: local medibot_bench, root/root, like application.yml),
+ * {@code -Dbench.jdbc.user}, {@code -Dbench.jdbc.password}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class IdInsertBenchmark {
+    @Param({"v4_text", "v7_text", "v7_binary"})
+    public String keys;
+
+    @Param({"500000"})
+    public int preload;
+
+    @Param({"1000"})
+    public int batch;
+
+    List<String> hospitals;
+    Connection conn;
+    PreparedStatement insert;
+    String table;
+    long seq;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conn = DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", "jdbc:mysql://localhost:3306/medibot_bench"
+                        + "?createDatabaseIfNotExist=true&useSSL=false&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true"),
+                System.getProperty("bench.jdbc.user", "root"), System.getProperty("bench.jdbc.password", "root"));
+        hospitals = SyntheticData.hospitals(50);
+        table = "bench_ids_" + keys;
+        String idType = keys.equals("v7_binary") ? "BINARY(16)" : "VARCHAR(36)";
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS " + table);
+            st.execute("CREATE TABLE " + table + " (id " + idType + " NOT NULL PRIMARY KEY, hospital_id VARCHAR(36), "
+                    + "status VARCHAR(32), amount DECIMAL(12,2), created_at DATETIME(6), payload VARCHAR(255), "
+                    + "KEY idx_hospital_created (hospital_id, created_at)) ENGINE=InnoDB");
+        }
+        insert = conn.prepareStatement("INSERT INTO " + table
+                + " (id, hospital_id, status, amount, created_at, payload) VALUES (?, ?, ?, ?, ?, ?)");
+        conn.setAutoCommit(false);
+        for (int done = 0; done < preload; done += batch) insertBatch(Math.min(batch, preload - done));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("ANALYZE TABLE " + table);
+            try (ResultSet rs = st.executeQuery("SELECT table_rows, data_length, index_length, data_free "
+                    + "FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = '" + table + "'")) {
+                if (rs.next()) {
+                    System.out.printf("%n%s: ~%d rows, data %d MB, secondary indexes %d MB, free %d MB%n", table,
+                            rs.getLong(1), rs.getLong(2) >> 20, rs.getLong(3) >> 20, rs.getLong(4) >> 20);
+                }
+            }
+            st.execute("DROP TABLE " + table);
+        } finally {
+            conn.close();
+        }
+    }
+
+    @Benchmark
+    public int insert() throws SQLException {
+        return insertBatch(batch);
+    }
+
+    private int insertBatch(int rows) throws SQLException {
+        Timestamp now = Timestamp.from(Instant.now());
+        for (int i = 0; i < rows; i++) {
+            long n = seq++;
+            switch (keys) {
+                case "v4_text" -> insert.setString(1, UUID.randomUUID().toString());
+                case "v7_text" -> insert.setString(1, Ids.newId());
+                default -> insert.setBytes(1, Ids.toBytes(Ids.newId()));
+            }
+            insert.setString(2, hospitals.get((int) (n % hospitals.size())));
+            insert.setString(3, SyntheticData.CLAIM_STATUSES[(int) (n % SyntheticData.CLAIM_STATUSES.length)]);
+            insert.setLong(4, 1000 + n % 250_000);
+            insert.setTimestamp(5, now);
+            insert.setString(6, "synthetic claim payload " + n);
+            insert.addBatch();
+        }
+        int written = insert.executeBatch().length;
+        conn.commit();
+        return written;
+    }
+}
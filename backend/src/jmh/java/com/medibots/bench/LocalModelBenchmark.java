@@ -0,0 +1,158 @@
+package com.medibots.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.medibots.config.MlHttpProperties;
+import com.medibots.entity.Claim;
+import com.medibots.service.ClaimFeatureVector;
+import com.medibots.service.LocalModel;
+import com.medibots.service.LocalModelScorer;
+import com.medibots.service.MlGateway;
+import com.medibots.service.MlPredictionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One denial prediction through MlPredictionService (cache off). remote posts it to {@link StubMlServer} with no
+ * added latency, the floor of an HTTP round-trip on loopback; local scores it with {@link LocalModelScorer} in
+ * primary mode. The model is a synthetic export shaped like the trained one: {@code trees} trees grown by splitting
+ * 320 samples down to single-sample leaves, over the denial columns with standard scaling and one-hot categories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocalModelBenchmark {
+    private static final int POOL = 256;
+    private static final String[] NUMERIC = {"claim_amount", "coverage_limit", "deductible_amount",
+            "medical_necessity_score", "prior_denial_count", "resubmission_count", "days_to_submission",
+            "patient_age", "hospital_claim_success_rate", "documentation_complete", "preauthorization_required",
+            "chronic_condition_flag"};
+    private static final String[][] CATEGORICAL = {
+            {"insurance_provider", "BlueCross", "Aetna", "Cigna", "UnitedHealthcare", "Medicare", "Medicaid", "Unknown"},
+            {"policy_type", "HMO", "PPO", "EPO", "INDEMNITY", "Medicaid"},
+            {"procedure_category", "Lab", "Inpatient", "Outpatient", "Surgery", "Imaging", "Diagnostics"},
+            {"claim_type", "INPATIENT", "OUTPATIENT", "EMERGENCY", "DAYCARE"},
+            {"patient_gender", "MALE", "FEMALE"},
+            {"hospital_tier", "TIER1", "TIER2", "TIER3", "TIER_1", "TIER_2", "TIER_3"},
+            {"primary_icd_code", "M54.5", "I10", "E11.9", "J06.9", "K21.9", "R51"}};
+
+    @Param({"100"})
+    public int trees;
+
+    StubMlServer stub;
+    Path dir;
+    MlPredictionService remote;
+    MlPredictionService local;
+    List<ClaimFeatureVector> features;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stub = new StubMlServer(0, 0);
+        dir = Files.createTempDirectory("local-model-bench");
+        new ObjectMapper().writeValue(dir.resolve("denial.json").toFile(), export(trees, new SplittableRandom(11)));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MlGateway gateway = new MlGateway(stub.baseUrl(), new MlHttpProperties(), registry);
+        remote = new MlPredictionService(gateway, new LocalModelScorer("off", dir.toString(), registry),
+                200, 0, 0, false, 600000, 120000, 30000);
+        LocalModelScorer scorer = new LocalModelScorer("primary", dir.toString(), registry);
+        scorer.load();
+        local = new MlPredictionService(gateway, scorer, 200, 0, 0, false, 600000, 120000, 30000);
+        features = new ArrayList<>(POOL);
+        for (Claim c : SyntheticData.claims(POOL, SyntheticData.hospitals(10), 9)) features.add(ClaimFeatureVector.of(c));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        stub.close();
+        Files.deleteIfExists(dir.resolve("denial.json"));
+        Files.deleteIfExists(dir);
+    }
+
+    private ClaimFeatureVector nextFeatures() {
+        return features.get(next = (next + 1) & (POOL - 1));
+    }
+
+    @Benchmark
+    public MlPredictionService.PredictionResult remote() {
+        return remote.predictDenial(nextFeatures());
+    }
+
+    @Benchmark
+    public MlPredictionService.PredictionResult local() {
+        return local.predictDenial(nextFeatures());
+    }
+
+    /** A document in the format ml-service/export.py writes. */
+    static ObjectNode export(int trees, SplittableRandom r) {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode doc = mapper.createObjectNode();
+        doc.put("format", LocalModel.FORMAT);
+        doc.put("model", "denial");
+        doc.put("version", "bench");
+        doc.putArray("classes").add(0).add(1);
+        ArrayNode numeric = doc.putArray("numeric");
+        for (String name : NUMERIC) {
+            numeric.addObject().put("name", name).put("median", 10).put("mean", 10 + r.nextDouble() * 1000)
+                    .put("scale", 1 + r.nextDouble() * 5000);
+        }
+        int width = NUMERIC.length;
+        ArrayNode categorical = doc.putArray("categorical");
+        for (String[] column : CATEGORICAL) {
+            ObjectNode c = categorical.addObject().put("name", column[0]);
+            ArrayNode values = c.putArray("categories");
+            for (int i = 1; i < column.length; i++) values.add(column[i]);
+            width += column.length - 1;
+        }
+        ObjectNode estimator = doc.putObject("estimator");
+        estimator.put("type", "forest");
+        ArrayNode forest = estimator.putArray("trees");
+        for (int t = 0; t < trees; t++) forest.add(tree(mapper, width, r));
+        return doc;
+    }
+
+    private static ObjectNode tree(ObjectMapper mapper, int width, SplittableRandom r) {
+        List<int[]> nodes = new ArrayList<>();
+        List<double[]> splits = new ArrayList<>();
+        grow(nodes, splits, 320, width, r);
+        ObjectNode t = mapper.createObjectNode();
+        ArrayNode left = t.putArray("left"), right = t.putArray("right"), feature = t.putArray("feature");
+        ArrayNode threshold = t.putArray("threshold"), value = t.putArray("value");
+        for (int i = 0; i < nodes.size(); i++) {
+            left.add(nodes.get(i)[0]);
+            right.add(nodes.get(i)[1]);
+            feature.add(nodes.get(i)[2]);
+            threshold.add(splits.get(i)[0]);
+            value.addArray().add(1 - splits.get(i)[1]).add(splits.get(i)[1]);
+        }
+        return t;
+    }
+
+    /** Appends a subtree for {@code samples} samples in sklearn's depth-first numbering; returns its root index. */
+    private static int grow(List<int[]> nodes, List<double[]> splits, int samples, int width, SplittableRandom r) {
+        int id = nodes.size();
+        int[] node = {-1, -1, -2};
+        double[] split = {-2, r.nextInt(2)};
+        nodes.add(node);
+        splits.add(split);
+        if (samples <= 1) return id;
+        node[2] = r.nextInt(width);
+        split[0] = r.nextDouble(-1.5, 1.5);
+        int k = r.nextInt(1, samples);
+        node[0] = grow(nodes, splits, k, width, r);
+        node[1] = grow(nodes, splits, samples - k, width, r);
+        return id;
+    }
+}
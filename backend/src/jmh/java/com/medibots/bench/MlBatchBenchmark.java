@@ -0,0 +1,68 @@
+package com.medibots.bench;
+
+import com.medibots.config.MlHttpProperties;
+import com.medibots.entity.Claim;
+import com.medibots.service.ClaimFeatureVector;
+import com.medibots.service.LocalModelScorer;
+import com.medibots.service.MlGateway;
+import com.medibots.service.MlPredictionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring {@code records} claims against {@link StubMlServer}: perRecord is one POST per claim (the rescoring loop
+ * before the batch API), batch goes through predictDenialBatch with the default batch size of 200. The prediction cache is off so every
+ * iteration reaches the stub.
+ * {@code latencyMs} is the simulated per-request overhead of the real service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MlBatchBenchmark {
+    @Param({"1000"})
+    public int records;
+
+    @Param({"0", "2"})
+    public long latencyMs;
+
+    StubMlServer stub;
+    MlPredictionService ml;
+    List<ClaimFeatureVector> features;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stub = new StubMlServer(0, latencyMs);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ml = new MlPredictionService(new MlGateway(stub.baseUrl(), new MlHttpProperties(), registry),
+                new LocalModelScorer("off", "", registry), 200, 0, 0, true, 600000, 120000, 30000);
+        features = new ArrayList<>(records);
+        for (Claim c : SyntheticData.claims(records, SyntheticData.hospitals(10), 4)) {
+            features.add(ClaimFeatureVector.of(c));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stub.close();
+    }
+
+    @Benchmark
+    public List<MlPredictionService.PredictionResult> perRecord() {
+        List<MlPredictionService.PredictionResult> out = new ArrayList<>(features.size());
+        for (ClaimFeatureVector f : features) out.add(ml.predictDenial(f));
+        return out;
+    }
+
+    @Benchmark
+    public List<MlPredictionService.PredictionResult> batch() {
+        return ml.predictDenialBatch(features);
+    }
+}
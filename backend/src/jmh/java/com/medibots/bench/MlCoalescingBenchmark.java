@@ -0,0 +1,77 @@
+package com.medibots.bench;
+
+import com.medibots.config.MlHttpProperties;
+import com.medibots.entity.Claim;
+import com.medibots.service.ClaimFeatureVector;
+import com.medibots.service.LocalModelScorer;
+import com.medibots.service.MlGateway;
+import com.medibots.service.MlPredictionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A burst of identical predictions: 64 threads score the same {@code hot} claims against {@link StubMlServer}
+ * ({@code latencyMs} per request), as when a dashboard refresh fans out or several people open the same claim. The
+ * prediction cache is off, so only in-flight coalescing ({@code app.ml.coalesce}) can save requests; the bulkhead is
+ * wide enough that neither variant is rejected. The stub requests per prediction are printed at the end of the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+public class MlCoalescingBenchmark {
+    @Param({"8"})
+    public int hot;
+
+    @Param({"20"})
+    public long latencyMs;
+
+    @Param({"false", "true"})
+    public boolean coalesce;
+
+    StubMlServer stub;
+    MlPredictionService ml;
+    List<ClaimFeatureVector> features;
+    final LongAdder predictions = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stub = new StubMlServer(0, latencyMs);
+        MlHttpProperties props = new MlHttpProperties();
+        props.setMaxInFlight(128);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ml = new MlPredictionService(new MlGateway(stub.baseUrl(), props, registry),
+                new LocalModelScorer("off", "", registry), 200, 0, 0, coalesce, 600000, 120000, 30000);
+        features = new ArrayList<>(hot);
+        for (Claim c : SyntheticData.claims(hot, SyntheticData.hospitals(2), 8)) {
+            features.add(ClaimFeatureVector.of(c));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n%d predictions, %d stub requests (%.3f per prediction)%n", predictions.sum(),
+                stub.requests(), stub.requests() / (double) Math.max(1, predictions.sum()));
+        stub.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public MlPredictionService.PredictionResult predict(Cursor cursor) {
+        predictions.increment();
+        return ml.predictDenial(features.get(cursor.next = (cursor.next + 1) % hot));
+    }
+}
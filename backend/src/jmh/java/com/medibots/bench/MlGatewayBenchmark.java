@@ -0,0 +1,97 @@
+package com.medibots.bench;
+
+import com.medibots.config.MlHttpProperties;
+import com.medibots.entity.Claim;
+import com.medibots.service.ClaimFeatureVector;
+import com.medibots.service.MlGateway;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 64 threads calling /predict/denial on {@link StubMlServer} ({@code latencyMs} per request; with slowEvery &gt; 0
+ * every slowEvery-th request stalls for {@code slowMs}). legacy_restTemplate is the client MlPredictionService used
+ * before {@link MlGateway}: a plain RestTemplate without pooling settings or timeouts, so callers wait out every
+ * stall. gateway runs with a 250 ms read / 400 ms overall deadline and 32 calls in flight; calls it cuts off or
+ * refuses return null. Sample mode, so the score table shows the p99 / p99.9 each client lets through.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+public class MlGatewayBenchmark {
+    private static final int POOL = 256;
+
+    @Param({"5"})
+    public long latencyMs;
+
+    @Param({"0", "50"})
+    public int slowEvery;
+
+    @Param({"2000"})
+    public long slowMs;
+
+    StubMlServer stub;
+    RestTemplate restTemplate;
+    MlGateway gateway;
+    List<byte[]> bodies;
+    String url;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stub = new StubMlServer(0, latencyMs, slowEvery, slowMs);
+        url = stub.baseUrl() + "/predict/denial";
+        restTemplate = new RestTemplate();
+        MlHttpProperties props = new MlHttpProperties();
+        props.setMaxInFlight(32);
+        props.setPredict(new MlHttpProperties.Deadline(250, 400));
+        gateway = new MlGateway(stub.baseUrl(), props, new SimpleMeterRegistry());
+        bodies = new ArrayList<>(POOL);
+        for (Claim c : SyntheticData.claims(POOL, SyntheticData.hospitals(10), 6)) {
+            bodies.add(ClaimFeatureVector.of(c).toJson());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stub.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    private byte[] nextBody(Cursor cursor) {
+        return bodies.get(cursor.next = (cursor.next + 1) % POOL);
+    }
+
+    @Benchmark
+    public Map<?, ?> legacy_restTemplate(Cursor cursor) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return restTemplate.postForObject(url, new HttpEntity<>(nextBody(cursor), headers), Map.class);
+    }
+
+    @Benchmark
+    public byte[] gateway(Cursor cursor) {
+        byte[] body = nextBody(cursor);
+        try {
+            return gateway.post(MlGateway.Endpoint.PREDICT, "/predict/denial", body, 0, body.length);
+        } catch (MlGateway.MlCallException e) {
+            return null;
+        }
+    }
+}
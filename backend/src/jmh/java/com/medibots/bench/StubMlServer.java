@@ -0,0 +1,119 @@
+package com.medibots.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the FastAPI ML service: /predict/{denial,payment-delay,no-show} and their /batch variants,
+ * answering with a deterministic score derived from the payload instead of a model. A fixed delay per request
+ * stands in for network + serving overhead, so per-record and batch round-trips can be compared without Python;
+ * every {@code slowEvery}-th request can instead take {@code slowMs}, a pod that stalls now and then.
+ * Runs standalone as well ({@code StubMlServer [port] [latencyMs] [slowEvery] [slowMs]}) for pointing a local
+ * backend at it.
+ */
+public class StubMlServer implements AutoCloseable {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static {
+        // without TCP_NODELAY, Nagle + delayed ACK add ~40 ms to every small request / response pair
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMs;
+    private final int slowEvery;
+    private final long slowMs;
+    private final AtomicLong requests = new AtomicLong();
+
+    public StubMlServer(int port, long latencyMs) throws IOException {
+        this(port, latencyMs, 0, 0);
+    }
+
+    public StubMlServer(int port, long latencyMs, int slowEvery, long slowMs) throws IOException {
+        this.latencyMs = latencyMs;
+        this.slowEvery = slowEvery;
+        this.slowMs = slowMs;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        // stalled requests must not hold up the others
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/predict/", this::handle);
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /** HTTP requests served so far. */
+    public long requests() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long n = requests.incrementAndGet();
+        try (exchange) {
+            JsonNode body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = MAPPER.readTree(in);
+            }
+            long delay = slowEvery > 0 && n % slowEvery == 0 ? slowMs : latencyMs;
+            if (delay > 0) Thread.sleep(delay);
+            JsonNode out;
+            if (exchange.getRequestURI().getPath().endsWith("/batch")) {
+                ObjectNode envelope = MAPPER.createObjectNode();
+                ArrayNode predictions = envelope.putArray("predictions");
+                for (JsonNode row : body) predictions.add(score(row));
+                out = envelope;
+            } else {
+                out = score(body);
+            }
+            byte[] bytes = MAPPER.writeValueAsBytes(out);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Probability grows with the claim / invoice amount; enough variety to exercise the write paths. */
+    private static ObjectNode score(JsonNode row) {
+        double amount = row.path("claim_amount").asDouble(row.path("total_amount").asDouble(0));
+        double probability = Math.min(0.95, 0.1 + amount / 250_000);
+        ObjectNode n = MAPPER.createObjectNode();
+        n.put("prediction", probability >= 0.5 ? 1 : 0);
+        n.put("probability", probability);
+        return n;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8000;
+        long latency = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        int slowEvery = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        long slowMs = args.length > 3 ? Long.parseLong(args[3]) : 0;
+        StubMlServer stub = new StubMlServer(port, latency, slowEvery, slowMs);
+        System.out.println("Stub ML service listening on " + stub.baseUrl());
+    }
+}
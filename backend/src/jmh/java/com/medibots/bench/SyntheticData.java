@@ -0,0 +1,138 @@
+package com.medibots.bench;
+
+import com.medibots.entity.AiLog;
+import com.medibots.entity.Claim;
+import com.medibots.entity.Department;
+import com.medibots.entity.Invoice;
+import com.medibots.entity.Operation;
+import com.medibots.entity.OperationTheatre;
+import com.medibots.entity.ServiceCatalog;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Deterministic synthetic datasets for the benchmarks. Same seed, same data, so runs are comparable.
+ * Claims and invoices spread over the last two years across a fixed set of hospitals, payers and categories.
+ */
+public final class SyntheticData {
+    public static final String[] PAYERS = {"Star Health", "HDFC Ergo", "ICICI Lombard", "Niva Bupa", "Care Health",
+            "Bajaj Allianz", "Tata AIG", "New India Assurance"};
+    public static final String[] CLAIM_STATUSES = {"PENDING", "APPROVED", "APPROVED", "DENIED"};
+    public static final String[] CATEGORIES = {"Surgery", "Diagnostics", "Consultation", "Pharmacy", "Emergency", "Maternity"};
+    public static final String[] CLAIM_TYPES = {"INPATIENT", "OUTPATIENT", "DAYCARE"};
+    public static final String[] TIERS = {"TIER_1", "TIER_2", "TIER_3"};
+    public static final String[] PAYMENT_STATUSES = {"PAID", "PAID", "UNPAID", "PARTIAL", "OVERDUE"};
+    private static final String[] EXPLANATIONS = {"Coding mismatch between ICD and CPT", "Prior auth missing",
+            "Documentation incomplete", "Flagged by payer rules", "High risk profile", "Amount exceeds policy limit", null};
+    private static final long TWO_YEARS_SECONDS = 2 * 365 * 24 * 3600L;
+
+    private SyntheticData() {}
+
+    public static List<String> hospitals(int n) {
+        List<String> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) out.add(new UUID(0x4d4544L, i).toString());
+        return out;
+    }
+
+    public static List<Claim> claims(int n, List<String> hospitals, long seed) {
+        SplittableRandom r = new SplittableRandom(seed);
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+        List<Claim> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Claim c = new Claim();
+            c.setId(new UUID(r.nextLong(), r.nextLong()).toString());
+            c.setHospitalId(hospitals.get(r.nextInt(hospitals.size())));
+            c.setInsuranceProvider(PAYERS[r.nextInt(PAYERS.length)]);
+            c.setStatus(CLAIM_STATUSES[r.nextInt(CLAIM_STATUSES.length)]);
+            c.setProcedureCategory(CATEGORIES[r.nextInt(CATEGORIES.length)]);
+            c.setClaimType(CLAIM_TYPES[r.nextInt(CLAIM_TYPES.length)]);
+            c.setHospitalTier(TIERS[r.nextInt(TIERS.length)]);
+            c.setAmount(BigDecimal.valueOf(r.nextInt(500, 500_000), 2));
+            c.setAiRiskScore(r.nextInt(10) == 0 ? null : BigDecimal.valueOf(r.nextInt(0, 10_000), 2));
+            if ("DENIED".equals(c.getStatus())) c.setAiExplanation(EXPLANATIONS[r.nextInt(EXPLANATIONS.length)]);
+            Instant submitted = now.minusSeconds(r.nextLong(TWO_YEARS_SECONDS));
+            c.setSubmittedAt(submitted);
+            c.setCreatedAt(submitted);
+            out.add(c);
+        }
+        return out;
+    }
+
+    public static List<Invoice> invoices(int n, List<String> hospitals, long seed) {
+        SplittableRandom r = new SplittableRandom(seed);
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+        List<Invoice> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Invoice inv = new Invoice();
+            inv.setId(new UUID(r.nextLong(), r.nextLong()).toString());
+            inv.setHospitalId(hospitals.get(r.nextInt(hospitals.size())));
+            inv.setPaymentStatus(PAYMENT_STATUSES[r.nextInt(PAYMENT_STATUSES.length)]);
+            inv.setTotalAmount(BigDecimal.valueOf(r.nextInt(500, 300_000), 2));
+            inv.setCreatedAt(now.minusSeconds(r.nextLong(TWO_YEARS_SECONDS)));
+            out.add(inv);
+        }
+        return out;
+    }
+
+    public static List<AiLog> aiLogs(int n, List<String> hospitals, long seed) {
+        SplittableRandom r = new SplittableRandom(seed);
+        List<AiLog> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            AiLog l = new AiLog();
+            l.setId(new UUID(r.nextLong(), r.nextLong()).toString());
+            l.setHospitalId(hospitals.get(r.nextInt(hospitals.size())));
+            l.setConfidence(BigDecimal.valueOf(r.nextInt(5_000, 10_000), 2));
+            out.add(l);
+        }
+        return out;
+    }
+
+    /** Departments, theatres, catalog services and operations for one hospital. */
+    public record Hospital(List<Department> departments, List<OperationTheatre> theatres,
+                           List<ServiceCatalog> services, List<Operation> operations) {}
+
+    public static Hospital hospital(int departments, int theatres, int services, int operations, long seed) {
+        SplittableRandom r = new SplittableRandom(seed);
+        String hid = hospitals(1).get(0);
+        List<Department> depts = new ArrayList<>(departments);
+        for (int i = 0; i < departments; i++) {
+            Department d = new Department();
+            d.setId(new UUID(1, i).toString());
+            d.setHospitalId(hid);
+            depts.add(d);
+        }
+        List<OperationTheatre> ots = new ArrayList<>(theatres);
+        for (int i = 0; i < theatres; i++) {
+            OperationTheatre t = new OperationTheatre();
+            t.setId(new UUID(2, i).toString());
+            t.setHospitalId(hid);
+            t.setDepartmentId(depts.get(r.nextInt(departments)).getId());
+            ots.add(t);
+        }
+        List<ServiceCatalog> catalog = new ArrayList<>(services);
+        for (int i = 0; i < services; i++) {
+            ServiceCatalog s = new ServiceCatalog();
+            s.setId(new UUID(3, i).toString());
+            s.setHospitalId(hid);
+            s.setDepartmentId(depts.get(r.nextInt(departments)).getId());
+            catalog.add(s);
+        }
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+        List<Operation> ops = new ArrayList<>(operations);
+        for (int i = 0; i < operations; i++) {
+            Operation o = new Operation();
+            o.setId(new UUID(4, i).toString());
+            o.setHospitalId(hid);
+            o.setOperationTheatreId(ots.get(r.nextInt(theatres)).getId());
+            o.setScheduledAt(now.minus(r.nextInt(730), ChronoUnit.DAYS));
+            ops.add(o);
+        }
+        return new Hospital(depts, ots, catalog, ops);
+    }
+}
@@ -0,0 +1,45 @@
+package com.medibots.config;
+
+import com.medibots.service.MlPredictionService;
+import com.medibots.service.PredictionCache;
+import com.medibots.service.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the ML prediction caches to Micrometer (/actuator/metrics/cache.gets etc.), using the same meter names
+ * as Spring's cache metrics: cache.gets{result=hit|miss}, cache.evictions and cache.size, tagged by cache name.
+ * Misses that shared an identical in-flight call instead of making their own are counted as ml.client.coalesced.
+ */
+@Component
+public class MlCacheMetrics implements MeterBinder {
+    private final MlPredictionService mlService;
+
+    public MlCacheMetrics(MlPredictionService mlService) {
+        this.mlService = mlService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "ml.predictions", mlService.predictionCache(), mlService.predictionFlights());
+        bind(registry, "ml.insights", mlService.insightsCache(), mlService.insightsFlights());
+    }
+
+    private static void bind(MeterRegistry registry, String name, PredictionCache<?> cache, SingleFlight<?> flights) {
+        FunctionCounter.builder("cache.gets", cache, PredictionCache::hits)
+                .tags("cache", name, "result", "hit").register(registry);
+        FunctionCounter.builder("cache.gets", cache, PredictionCache::misses)
+                .tags("cache", name, "result", "miss").register(registry);
+        FunctionCounter.builder("cache.evictions", cache, PredictionCache::evictions)
+                .tags("cache", name).register(registry);
+        Gauge.builder("cache.size", cache, PredictionCache::size)
+                .tags("cache", name).register(registry);
+        if (flights != null) {
+            FunctionCounter.builder("ml.client.coalesced", flights, SingleFlight::coalesced)
+                    .tags("cache", name).register(registry);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.medibots.config;
+
+import com.medibots.service.MlGateway;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * /actuator/mlcircuits: circuit breaker state per ML endpoint path (state, window failure / slow rates, calls
+ * refused, time until the next half-open probe). Paths appear after their first call.
+ */
+@Component
+@Endpoint(id = "mlcircuits")
+public class MlCircuitEndpoint {
+    private final MlGateway gateway;
+
+    public MlCircuitEndpoint(MlGateway gateway) {
+        this.gateway = gateway;
+    }
+
+    @ReadOperation
+    public Map<String, Object> circuits() {
+        return gateway.circuits();
+    }
+}
@@ -0,0 +1,94 @@
+package com.medibots.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * HTTP limits for calls to the ML service (app.ml.http): bulkhead size, connection settings, a read / overall
+ * deadline and slow-call threshold per endpoint group and the per-endpoint circuit breaker. Read is the wait for
+ * response headers, overall covers the whole exchange.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.ml.http")
+public class MlHttpProperties {
+    private int maxInFlight = 32;
+    private long acquireTimeoutMs = 100;
+    private long connectTimeoutMs = 1000;
+    private long keepAliveMs = 30000;
+    private Deadline predict = new Deadline(2000, 3000, 1500);
+    private Deadline batch = new Deadline(15000, 20000, 12000);
+    private Deadline insights = new Deadline(8000, 10000, 7000);
+    private Deadline stats = new Deadline(3000, 5000, 2500);
+    private Circuit circuit = new Circuit();
+
+    /** slow-call-ms is what the circuit breaker counts as slow for the group; 0 means three quarters of read-ms. */
+    public static class Deadline {
+        private long readMs;
+        private long overallMs;
+        private long slowCallMs;
+
+        public Deadline() {}
+
+        public Deadline(long readMs, long overallMs) {
+            this(readMs, overallMs, 0);
+        }
+
+        public Deadline(long readMs, long overallMs, long slowCallMs) {
+            this.readMs = readMs;
+            this.overallMs = overallMs;
+            this.slowCallMs = slowCallMs;
+        }
+
+        public long getReadMs() { return readMs; }
+        public void setReadMs(long readMs) { this.readMs = readMs; }
+        public long getOverallMs() { return overallMs; }
+        public void setOverallMs(long overallMs) { this.overallMs = overallMs; }
+        public long getSlowCallMs() { return slowCallMs > 0 ? slowCallMs : readMs * 3 / 4; }
+        public void setSlowCallMs(long slowCallMs) { this.slowCallMs = slowCallMs; }
+    }
+
+    /** Sliding window of the last window-size calls; rates in percent. Slow calls are set per {@link Deadline}. */
+    public static class Circuit {
+        private boolean enabled = true;
+        private int windowSize = 50;
+        private int minimumCalls = 20;
+        private int failureRateThreshold = 50;
+        private int slowRateThreshold = 80;
+        private long openMs = 15000;
+        private int halfOpenProbes = 3;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getWindowSize() { return windowSize; }
+        public void setWindowSize(int windowSize) { this.windowSize = windowSize; }
+        public int getMinimumCalls() { return minimumCalls; }
+        public void setMinimumCalls(int minimumCalls) { this.minimumCalls = minimumCalls; }
+        public int getFailureRateThreshold() { return failureRateThreshold; }
+        public void setFailureRateThreshold(int failureRateThreshold) { this.failureRateThreshold = failureRateThreshold; }
+        public int getSlowRateThreshold() { return slowRateThreshold; }
+        public void setSlowRateThreshold(int slowRateThreshold) { this.slowRateThreshold = slowRateThreshold; }
+        public long getOpenMs() { return openMs; }
+        public void setOpenMs(long openMs) { this.openMs = openMs; }
+        public int getHalfOpenProbes() { return halfOpenProbes; }
+        public void setHalfOpenProbes(int halfOpenProbes) { this.halfOpenProbes = halfOpenProbes; }
+    }
+
+    public int getMaxInFlight() { return maxInFlight; }
+    public void setMaxInFlight(int maxInFlight) { this.maxInFlight = maxInFlight; }
+    public long getAcquireTimeoutMs() { return acquireTimeoutMs; }
+    public void setAcquireTimeoutMs(long acquireTimeoutMs) { this.acquireTimeoutMs = acquireTimeoutMs; }
+    public long getConnectTimeoutMs() { return connectTimeoutMs; }
+    public void setConnectTimeoutMs(long connectTimeoutMs) { this.connectTimeoutMs = connectTimeoutMs; }
+    public long getKeepAliveMs() { return keepAliveMs; }
+    public void setKeepAliveMs(long keepAliveMs) { this.keepAliveMs = keepAliveMs; }
+    public Deadline getPredict() { return predict; }
+    public void setPredict(Deadline predict) { this.predict = predict; }
+    public Deadline getBatch() { return batch; }
+    public void setBatch(Deadline batch) { this.batch = batch; }
+    public Deadline getInsights() { return insights; }
+    public void setInsights(Deadline insights) { this.insights = insights; }
+    public Deadline getStats() { return stats; }
+    public void setStats(Deadline stats) { this.stats = stats; }
+    public Circuit getCircuit() { return circuit; }
+    public void setCircuit(Circuit circuit) { this.circuit = circuit; }
+}
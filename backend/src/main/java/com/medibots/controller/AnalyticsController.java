@@ -2,21 +2,25 @@ package com.medibots.controller;
 
 import com.medibots.repository.ClaimRepository;
 import com.medibots.repository.InvoiceRepository;
+import com.medibots.service.ClaimCube;
+import com.medibots.service.ClaimCubeService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 @RestController
 @RequestMapping("/api/analytics")
 public class AnalyticsController {
     private final ClaimRepository claimRepo;
     private final InvoiceRepository invoiceRepo;
+    private final ClaimCubeService cubeService;
 
-    public AnalyticsController(ClaimRepository claimRepo, InvoiceRepository invoiceRepo) {
+    public AnalyticsController(ClaimRepository claimRepo, InvoiceRepository invoiceRepo, ClaimCubeService cubeService) {
         this.claimRepo = claimRepo;
         this.invoiceRepo = invoiceRepo;
+        this.cubeService = cubeService;
     }
 
     @GetMapping
@@ -26,4 +30,60 @@ public class AnalyticsController {
         m.put("totalInvoices", invoiceRepo.count());
         return ResponseEntity.ok(m);
     }
+
+    /**
+     * Ad-hoc claim aggregation from the in-memory cube, e.g. {@code /cube?groupBy=payer,month&status=DENIED}.
+     * groupBy and filters take payer, status, hospital, month (yyyy-MM), procedure_category, claim_type, hospital_tier.
+     * Each group has count, sum and average of amount and ai_risk_score.
+     */
+    @GetMapping("/cube")
+    public ResponseEntity<Map<String, Object>> cube(@RequestParam(required = false) String groupBy,
+                                                    @RequestParam Map<String, String> params) {
+        List<ClaimCube.Dimension> dims = new ArrayList<>();
+        Map<ClaimCube.Dimension, String> filters = new EnumMap<>(ClaimCube.Dimension.class);
+        try {
+            if (groupBy != null && !groupBy.isBlank()) {
+                for (String g : groupBy.split(",")) {
+                    ClaimCube.Dimension d = ClaimCube.Dimension.of(g);
+                    if (!dims.contains(d)) dims.add(d);
+                }
+            }
+            for (ClaimCube.Dimension d : ClaimCube.Dimension.values()) {
+                String v = params.get(d.param());
+                if (v != null && !v.isBlank()) filters.put(d, v);
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown dimension in groupBy: " + groupBy));
+        }
+        long start = System.nanoTime();
+        List<ClaimCube.Group> groups = cubeService.query(dims, filters);
+        if (groups == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "5")
+                    .body(Map.of("error", "Claim cube is still loading"));
+        }
+        List<Map<String, Object>> rows = new ArrayList<>(groups.size());
+        for (ClaimCube.Group g : groups) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            for (int i = 0; i < dims.size(); i++) m.put(dims.get(i).param(), g.keys()[i]);
+            m.put("count", g.count());
+            m.put("amount_sum", g.amountSum());
+            m.put("amount_avg", g.amountAvg());
+            m.put("ai_risk_score_sum", g.riskSum());
+            m.put("ai_risk_score_avg", g.riskAvg());
+            rows.add(m);
+        }
+        Map<String, Object> out = new HashMap<>();
+        out.put("groups", rows);
+        out.put("facts", cubeService.cube().size());
+        out.put("took_ms", (System.nanoTime() - start) / 1_000_000.0);
+        return ResponseEntity.ok(out);
+    }
+
+    /** Reload the cube from the claims table (recovery after drift). */
+    @PostMapping("/cube/reload")
+    public ResponseEntity<Map<String, Object>> reloadCube() {
+        int facts = cubeService.reload();
+        if (facts < 0) return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Reload already running"));
+        return ResponseEntity.ok(Map.of("facts", facts));
+    }
 }
@@ -2,35 +2,69 @@ package com.medibots.controller;
 
 import com.medibots.entity.Claim;
 import com.medibots.entity.ClaimFeatures;
+import com.medibots.entity.Ids;
 import com.medibots.entity.Patient;
+import com.medibots.entity.RescoreJob;
 import com.medibots.repository.ClaimFeaturesRepository;
 import com.medibots.repository.ClaimRepository;
 import com.medibots.repository.PatientRepository;
-import com.medibots.service.MlPredictionService;
+import com.medibots.service.ClaimAdjudicationService;
+import com.medibots.service.ClaimScoringService;
+import com.medibots.service.DenialCategoryService;
+import com.medibots.service.DuplicateClaimIndex;
+import com.medibots.service.DuplicateClaimService;
+import com.medibots.service.RescoreJobService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/claims")
 public class ClaimsController {
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final ClaimRepository claimRepo;
     private final PatientRepository patientRepo;
     private final ClaimFeaturesRepository claimFeaturesRepo;
-    private final MlPredictionService mlService;
+    private final ClaimScoringService claimScoringService;
+    private final DenialCategoryService denialCategoryService;
+    private final RescoreJobService rescoreJobService;
+    private final ClaimAdjudicationService adjudicationService;
+    private final DuplicateClaimService duplicateClaimService;
+
+    @Value("${app.adjudication.max-claims:10000}")
+    private int maxAdjudicationClaims;
 
     public ClaimsController(ClaimRepository claimRepo, PatientRepository patientRepo,
-                            ClaimFeaturesRepository claimFeaturesRepo, MlPredictionService mlService) {
+                            ClaimFeaturesRepository claimFeaturesRepo, ClaimScoringService claimScoringService,
+                            DenialCategoryService denialCategoryService, RescoreJobService rescoreJobService,
+                            ClaimAdjudicationService adjudicationService, DuplicateClaimService duplicateClaimService) {
         this.claimRepo = claimRepo;
         this.patientRepo = patientRepo;
         this.claimFeaturesRepo = claimFeaturesRepo;
-        this.mlService = mlService;
+        this.claimScoringService = claimScoringService;
+        this.denialCategoryService = denialCategoryService;
+        this.rescoreJobService = rescoreJobService;
+        this.adjudicationService = adjudicationService;
+        this.duplicateClaimService = duplicateClaimService;
     }
 
     private String userId(Authentication auth) {
@@ -39,13 +73,50 @@ public class ClaimsController {
 
     @GetMapping
     public ResponseEntity<List<Map<String, Object>>> list(Authentication auth) {
-        List<Claim> claims = claimRepo.findAllByOrderByCreatedAtDesc();
-        List<Map<String, Object>> out = new java.util.ArrayList<>();
-        for (Claim c : claims) {
-            Map<String, Object> m = toMap(c);
-            claimFeaturesRepo.findByClaimId(c.getId()).ifPresent(f -> addPredictionToMap(m, f));
-            out.add(m);
+        return ResponseEntity.ok(toMaps(claimRepo.findAllByOrderByCreatedAtDesc()));
+    }
+
+    /**
+     * Keyset-paginated listing, newest first. Pass the returned next_cursor back as cursor for the following page.
+     * Optional filters: status, payer (insurance provider), hospitalId, from/to (ISO dates on created_at, inclusive).
+     */
+    @GetMapping("/page")
+    public ResponseEntity<Map<String, Object>> page(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "50") int limit,
+                                                    @RequestParam(required = false) String status,
+                                                    @RequestParam(required = false) String payer,
+                                                    @RequestParam(required = false) String hospitalId,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Instant afterCreatedAt = null;
+        String afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+                afterCreatedAt = Instant.parse(parts[0]);
+                afterId = parts[1];
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid cursor"));
+            }
+            if (!Ids.isId(afterId)) return ResponseEntity.badRequest().body(Map.of("error", "Invalid cursor"));
         }
+        List<Claim> claims = claimRepo.findPage(blankToNull(status), blankToNull(payer), blankToNull(hospitalId),
+                from != null ? from.atStartOfDay(ZoneId.systemDefault()).toInstant() : null,
+                to != null ? to.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant() : null,
+                afterCreatedAt, afterId, PageRequest.of(0, size + 1));
+        boolean more = claims.size() > size;
+        if (more) claims = claims.subList(0, size);
+        Map<String, Object> out = new HashMap<>();
+        out.put("items", toMaps(claims));
+        String next = null;
+        if (more) {
+            Claim last = claims.get(claims.size() - 1);
+            next = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((last.getCreatedAt() + "|" + last.getId()).getBytes(StandardCharsets.UTF_8));
+        }
+        out.put("next_cursor", next);
+        out.put("has_more", more);
         return ResponseEntity.ok(out);
     }
 
@@ -55,14 +126,7 @@ public class ClaimsController {
         if (uid == null) return ResponseEntity.status(401).build();
         Patient p = patientRepo.findByUserId(uid).orElse(null);
         if (p == null) return ResponseEntity.ok(List.of());
-        List<Claim> claims = claimRepo.findByPatientIdOrderByCreatedAtDesc(p.getId());
-        List<Map<String, Object>> out = new java.util.ArrayList<>();
-        for (Claim c : claims) {
-            Map<String, Object> m = toMap(c);
-            claimFeaturesRepo.findByClaimId(c.getId()).ifPresent(f -> addPredictionToMap(m, f));
-            out.add(m);
-        }
-        return ResponseEntity.ok(out);
+        return ResponseEntity.ok(toMaps(claimRepo.findByPatientIdOrderByCreatedAtDesc(p.getId())));
     }
 
     @PostMapping
@@ -77,55 +141,163 @@ public class ClaimsController {
         if (body.get("appointment_id") != null) c.setAppointmentId((String) body.get("appointment_id"));
         if (body.get("hospital_id") != null) c.setHospitalId((String) body.get("hospital_id"));
         applyClaimExtras(c, body);
-        c = claimRepo.save(c);
-        Map<String, Object> features = claimToFeaturesMap(c);
-        MlPredictionService.PredictionResult pred = mlService.predictDenial(features);
-        c.setAiRiskScore(java.math.BigDecimal.valueOf(pred.probability() * 100));
-        c = claimRepo.save(c);
-        ClaimFeatures cf = claimFeaturesRepo.findByClaimId(c.getId()).orElse(new ClaimFeatures());
-        cf.setClaimId(c.getId());
-        cf.setRiskScoreNormalized(java.math.BigDecimal.valueOf(pred.probability()));
-        cf.setMlPrediction(pred.prediction());
-        cf.setMlProbability(java.math.BigDecimal.valueOf(pred.probability()));
-        claimFeaturesRepo.save(cf);
-        Map<String, Object> out = toMap(c);
-        addPredictionToMap(out, cf);
-        return ResponseEntity.ok(out);
+        DuplicateClaimIndex.Registration dup = duplicateClaimService.register(c);
+        List<Map<String, Object>> duplicates = dup != null && dup.duplicate() ? duplicatesToMaps(dup) : List.of();
+        if (!duplicates.isEmpty() && !Boolean.TRUE.equals(body.get("allow_duplicate"))) {
+            if (duplicateClaimService.mode() == DuplicateClaimService.Mode.REJECT) {
+                duplicateClaimService.discard(dup);
+                Map<String, Object> err = new HashMap<>();
+                err.put("error", "Possible duplicate claim; resend with allow_duplicate=true to submit anyway");
+                err.put("duplicates", duplicates);
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(err);
+            }
+            c.setDuplicateOf(dup.duplicates().stream().map(DuplicateClaimIndex.Entry::claimId)
+                    .filter(id -> id != null).findFirst().orElse(null));
+        }
+        // scored asynchronously; the response carries scoring=PENDING and a claim_scored SSE event follows
+        try {
+            c = claimScoringService.submit(c);
+        } catch (RuntimeException e) {
+            duplicateClaimService.discard(dup);
+            throw e;
+        }
+        duplicateClaimService.saved(dup, c);
+        Map<String, Object> m = toMap(c);
+        if (!duplicates.isEmpty()) m.put("duplicates", duplicates);
+        return ResponseEntity.ok(m);
     }
 
+    /** Earlier claims a new one matches; a claim_id of null is a matching submission still being saved. */
+    private static List<Map<String, Object>> duplicatesToMaps(DuplicateClaimIndex.Registration dup) {
+        List<Map<String, Object>> out = new ArrayList<>(dup.duplicates().size());
+        for (DuplicateClaimIndex.Entry e : dup.duplicates()) {
+            Map<String, Object> m = new HashMap<>();
+            m.put("claim_id", e.claimId());
+            m.put("claim_number", e.claimNumber());
+            m.put("submitted_at", e.submittedAt());
+            out.add(m);
+        }
+        return out;
+    }
+
+    /** Starts a background rescoring job (202), or returns the job already running (409). */
     @PostMapping("/rescore")
     public ResponseEntity<Map<String, Object>> rescoreAll(Authentication auth) {
-        List<Claim> claims = claimRepo.findAllByOrderByCreatedAtDesc();
-        int updated = 0;
-        for (Claim c : claims) {
-            Map<String, Object> features = claimToFeaturesMap(c);
-            MlPredictionService.PredictionResult pred = mlService.predictDenial(features);
-            BigDecimal newScore = java.math.BigDecimal.valueOf(pred.probability() * 100);
-            c.setAiRiskScore(newScore);
-            claimRepo.save(c);
-            ClaimFeatures cf = claimFeaturesRepo.findByClaimId(c.getId()).orElse(new ClaimFeatures());
-            cf.setClaimId(c.getId());
-            cf.setRiskScoreNormalized(java.math.BigDecimal.valueOf(pred.probability()));
-            cf.setMlPrediction(pred.prediction());
-            cf.setMlProbability(java.math.BigDecimal.valueOf(pred.probability()));
-            claimFeaturesRepo.save(cf);
-            updated++;
-        }
-        return ResponseEntity.ok(Map.of("rescored", updated, "total", claims.size()));
+        RescoreJobService.Started started = rescoreJobService.start(userId(auth));
+        return ResponseEntity.status(started.created() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(rescoreJobToMap(started.job()));
+    }
+
+    @GetMapping("/rescore")
+    public ResponseEntity<List<Map<String, Object>>> rescoreJobs() {
+        return ResponseEntity.ok(rescoreJobService.recent().stream().map(this::rescoreJobToMap).toList());
     }
 
+    @GetMapping("/rescore/{jobId}")
+    public ResponseEntity<Map<String, Object>> rescoreJob(@PathVariable String jobId) {
+        return rescoreJobService.find(jobId).map(j -> ResponseEntity.ok(rescoreJobToMap(j)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/rescore/{jobId}/cancel")
+    public ResponseEntity<Map<String, Object>> cancelRescore(@PathVariable String jobId) {
+        boolean cancelled = rescoreJobService.cancel(jobId);
+        return rescoreJobService.find(jobId)
+                .map(j -> ResponseEntity.status(cancelled ? HttpStatus.OK : HttpStatus.CONFLICT).body(rescoreJobToMap(j)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /** Continues a cancelled or failed job from its last committed chunk. */
+    @PostMapping("/rescore/{jobId}/resume")
+    public ResponseEntity<Map<String, Object>> resumeRescore(@PathVariable String jobId) {
+        boolean resumed = rescoreJobService.resume(jobId);
+        return rescoreJobService.find(jobId)
+                .map(j -> ResponseEntity.status(resumed ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(rescoreJobToMap(j)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Approves or rejects one claim. Pass the {@code version} the reviewer saw to get a 409 instead of overwriting
+     * a decision made meanwhile.
+     */
     @PostMapping("/manage")
     public ResponseEntity<Map<String, Object>> manage(@RequestBody Map<String, String> body, Authentication auth) {
         String claimId = body.get("claim_id");
-        String action = body.get("action");
+        ClaimAdjudicationService.Action action = ClaimAdjudicationService.Action.parse(body.get("action"));
+        if (action == null) return ResponseEntity.badRequest().body(Map.of("error", "action must be approve or reject"));
+        Long version;
+        try {
+            version = body.get("version") != null ? Long.valueOf(body.get("version")) : null;
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid version"));
+        }
+        var outcome = adjudicationService.adjudicate(action,
+                List.of(new ClaimAdjudicationService.Request(claimId, version))).get(0);
+        switch (outcome.outcome()) {
+            case ClaimAdjudicationService.NOT_FOUND -> throw new RuntimeException("Claim not found");
+            case ClaimAdjudicationService.CONFLICT -> {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(outcomeToMap(outcome));
+            }
+            case ClaimAdjudicationService.FAILED -> {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(outcomeToMap(outcome));
+            }
+            default -> { }
+        }
         Claim c = claimRepo.findById(claimId).orElseThrow(() -> new RuntimeException("Claim not found"));
-        if ("approve".equals(action)) c.setStatus("APPROVED");
-        else if ("reject".equals(action)) c.setStatus("DENIED");
-        c.setProcessedAt(Instant.now());
-        c = claimRepo.save(c);
         return ResponseEntity.ok(toMap(c));
     }
 
+    /**
+     * Bulk approve / reject: {@code {"action": "approve"|"reject", "claims": [{"claim_id": ..., "version": ...}]}}
+     * or {@code "claim_ids": [...]} to skip the version check. Returns per-claim outcomes (UPDATED, UNCHANGED,
+     * CONFLICT, NOT_FOUND, FAILED) in request order, plus counts.
+     */
+    @PostMapping("/adjudicate")
+    public ResponseEntity<Map<String, Object>> adjudicate(@RequestBody Map<String, Object> body) {
+        ClaimAdjudicationService.Action action = ClaimAdjudicationService.Action.parse(
+                body.get("action") instanceof String a ? a : null);
+        if (action == null) return ResponseEntity.badRequest().body(Map.of("error", "action must be approve or reject"));
+        List<ClaimAdjudicationService.Request> requests = new ArrayList<>();
+        try {
+            if (body.get("claims") instanceof List<?> claims) {
+                for (Object o : claims) {
+                    if (!(o instanceof Map<?, ?> m)) throw new IllegalArgumentException("claims entries must be objects");
+                    Object version = m.get("version");
+                    requests.add(new ClaimAdjudicationService.Request((String) m.get("claim_id"),
+                            version != null ? Long.valueOf(version.toString()) : null));
+                }
+            }
+            if (body.get("claim_ids") instanceof List<?> ids) {
+                for (Object id : ids) requests.add(new ClaimAdjudicationService.Request((String) id, null));
+            }
+        } catch (ClassCastException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid claims: " + e.getMessage()));
+        }
+        if (requests.isEmpty()) return ResponseEntity.badRequest().body(Map.of("error", "No claims given"));
+        if (requests.size() > maxAdjudicationClaims) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + maxAdjudicationClaims + " claims per request"));
+        }
+        List<ClaimAdjudicationService.Outcome> outcomes = adjudicationService.adjudicate(action, requests);
+        Map<String, Integer> counts = new HashMap<>();
+        List<Map<String, Object>> results = new ArrayList<>(outcomes.size());
+        for (var o : outcomes) {
+            counts.merge(o.outcome().toLowerCase(Locale.ROOT), 1, Integer::sum);
+            results.add(outcomeToMap(o));
+        }
+        Map<String, Object> out = new HashMap<>();
+        out.put("action", action.name().toLowerCase(Locale.ROOT));
+        out.put("status", action.status());
+        out.put("counts", counts);
+        out.put("results", results);
+        return ResponseEntity.ok(out);
+    }
+
+    /** Classify denied claims that predate the denial_category column. */
+    @PostMapping("/denial-categories/backfill")
+    public ResponseEntity<Map<String, Object>> backfillDenialCategories() {
+        return ResponseEntity.ok(Map.of("classified", denialCategoryService.backfill()));
+    }
+
     private void applyClaimExtras(Claim c, Map<String, Object> body) {
         if (body.get("primary_icd_code") != null) c.setPrimaryIcdCode((String) body.get("primary_icd_code"));
         if (body.get("secondary_icd_code") != null) c.setSecondaryIcdCode((String) body.get("secondary_icd_code"));
@@ -156,40 +328,38 @@ public class ClaimsController {
         return Integer.parseInt(o.toString());
     }
 
-    private Map<String, Object> claimToFeaturesMap(Claim c) {
+    private void addPredictionToMap(Map<String, Object> m, ClaimFeatures f) {
+        if (f.getMlPrediction() != null) m.put("ml_denial_prediction", f.getMlPrediction());
+        if (f.getMlProbability() != null) m.put("ml_denial_probability", f.getMlProbability().doubleValue());
+    }
+
+    private static Map<String, Object> outcomeToMap(ClaimAdjudicationService.Outcome o) {
         Map<String, Object> m = new HashMap<>();
-        m.put("amount", c.getAmount());
-        m.put("coverage_limit", c.getCoverageLimit());
-        m.put("deductible_amount", c.getDeductibleAmount());
-        m.put("insurance_provider", c.getInsuranceProvider());
-        m.put("policy_type", c.getPolicyType());
-        m.put("preauthorization_required", c.getPreauthorizationRequired());
-        m.put("preauthorization_obtained", c.getPreauthorizationObtained());
-        m.put("primary_icd_code", c.getPrimaryIcdCode());
-        m.put("secondary_icd_code", c.getSecondaryIcdCode());
-        m.put("cpt_code", c.getCptCode());
-        m.put("procedure_category", c.getProcedureCategory());
-        m.put("medical_necessity_score", c.getMedicalNecessityScore());
-        m.put("prior_denial_count", c.getPriorDenialCount());
-        m.put("resubmission_count", c.getResubmissionCount());
-        m.put("days_to_submission", c.getDaysToSubmission());
-        m.put("documentation_complete", c.getDocumentationComplete());
-        m.put("claim_type", c.getClaimType());
-        m.put("patient_age", c.getPatientAge());
-        m.put("patient_gender", c.getPatientGender());
-        m.put("chronic_condition_flag", c.getChronicConditionFlag());
-        m.put("doctor_specialization", c.getDoctorSpecialization());
-        m.put("hospital_tier", c.getHospitalTier());
-        m.put("hospital_claim_success_rate", c.getHospitalClaimSuccessRate());
+        m.put("claim_id", o.claimId());
+        m.put("outcome", o.outcome());
+        m.put("status", o.status());
+        m.put("version", o.version());
         return m;
     }
 
-    private void addPredictionToMap(Map<String, Object> m, ClaimFeatures f) {
-        if (f.getMlPrediction() != null) m.put("ml_denial_prediction", f.getMlPrediction());
-        if (f.getMlProbability() != null) m.put("ml_denial_probability", f.getMlProbability().doubleValue());
+    private Map<String, Object> rescoreJobToMap(RescoreJob j) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("id", j.getId());
+        m.put("status", j.getStatus());
+        m.put("total", j.getTotalClaims());
+        m.put("processed", j.getProcessed());
+        m.put("failed", j.getFailed());
+        m.put("progress_pct", j.getTotalClaims() > 0
+                ? Math.min(100.0, Math.round(j.getProcessed() * 1000.0 / j.getTotalClaims()) / 10.0) : 100.0);
+        m.put("started_by", j.getStartedBy());
+        m.put("error", j.getError());
+        m.put("created_at", j.getCreatedAt());
+        m.put("updated_at", j.getUpdatedAt());
+        m.put("finished_at", j.getFinishedAt());
+        return m;
     }
 
-    private Map<String, Object> toMap(Claim c) {
+    private Map<String, Object> toBaseMap(Claim c) {
         Map<String, Object> m = new HashMap<>();
         m.put("id", c.getId());
         m.put("claim_number", c.getClaimNumber());
@@ -197,8 +367,12 @@ public class ClaimsController {
         m.put("insurance_provider", c.getInsuranceProvider());
         m.put("amount", c.getAmount());
         m.put("status", c.getStatus());
+        m.put("version", c.getVersion());
         m.put("ai_risk_score", c.getAiRiskScore());
+        m.put("scoring", ClaimScoringService.stateOf(c));
         m.put("ai_explanation", c.getAiExplanation());
+        m.put("denial_category", c.getDenialCategory());
+        m.put("duplicate_of", c.getDuplicateOf());
         m.put("submitted_by", c.getSubmittedBy());
         m.put("submitted_at", c.getSubmittedAt());
         m.put("processed_at", c.getProcessedAt());
@@ -226,9 +400,47 @@ public class ClaimsController {
         m.put("hospital_tier", c.getHospitalTier());
         m.put("hospital_claim_success_rate", c.getHospitalClaimSuccessRate());
         m.put("created_at", c.getCreatedAt());
-        patientRepo.findById(c.getPatientId()).ifPresent(p -> {
-            m.put("patients", Map.of("full_name", p.getFullName() != null ? p.getFullName() : "", "user_id", p.getUserId() != null ? p.getUserId() : ""));
-        });
         return m;
     }
+
+    private Map<String, Object> toMap(Claim c) {
+        Map<String, Object> m = toBaseMap(c);
+        patientRepo.findById(c.getPatientId()).ifPresent(p -> addPatientToMap(m, p.getFullName(), p.getUserId()));
+        return m;
+    }
+
+    /** Maps a list of claims with two batched IN queries (features, patient names) instead of two lookups per claim. */
+    private List<Map<String, Object>> toMaps(List<Claim> claims) {
+        if (claims.isEmpty()) return new ArrayList<>();
+        Set<String> claimIds = new HashSet<>();
+        Set<String> patientIds = new HashSet<>();
+        for (Claim c : claims) {
+            claimIds.add(c.getId());
+            if (c.getPatientId() != null) patientIds.add(c.getPatientId());
+        }
+        Map<String, ClaimFeatures> features = new HashMap<>();
+        for (ClaimFeatures f : claimFeaturesRepo.findByClaimIdIn(claimIds)) features.put(f.getClaimId(), f);
+        Map<String, PatientRepository.PatientName> patients = new HashMap<>();
+        if (!patientIds.isEmpty()) {
+            for (var p : patientRepo.findNamesByIdIn(patientIds)) patients.put(p.getId(), p);
+        }
+        List<Map<String, Object>> out = new ArrayList<>(claims.size());
+        for (Claim c : claims) {
+            Map<String, Object> m = toBaseMap(c);
+            var p = patients.get(c.getPatientId());
+            if (p != null) addPatientToMap(m, p.getFullName(), p.getUserId());
+            ClaimFeatures f = features.get(c.getId());
+            if (f != null) addPredictionToMap(m, f);
+            out.add(m);
+        }
+        return out;
+    }
+
+    private static void addPatientToMap(Map<String, Object> m, String fullName, String userId) {
+        m.put("patients", Map.of("full_name", fullName != null ? fullName : "", "user_id", userId != null ? userId : ""));
+    }
+
+    private static String blankToNull(String s) {
+        return s != null && !s.isBlank() ? s : null;
+    }
 }
@@ -0,0 +1,57 @@
+package com.medibots.controller;
+
+import com.medibots.service.ExportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Streaming bulk export: GET /api/export/{claims|invoices|appointments}?format=ndjson|csv.
+ * Optional hospitalId and from/to (ISO dates, inclusive, on created_at) filters.
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/{dataset}")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable String dataset,
+                                                        @RequestParam(defaultValue = "ndjson") String format,
+                                                        @RequestParam(required = false) String hospitalId,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ExportService.Dataset ds;
+        ExportService.Format fmt;
+        try {
+            ds = ExportService.Dataset.of(dataset);
+            fmt = ExportService.Format.valueOf(format.toUpperCase(java.util.Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String hospital = hospitalId != null && !hospitalId.isBlank() ? hospitalId : null;
+        Instant start = from != null ? from.atStartOfDay(ZoneId.systemDefault()).toInstant() : null;
+        Instant end = to != null ? to.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant() : null;
+        String fileName = ds.fileName() + "-" + LocalDate.now() + (fmt == ExportService.Format.CSV ? ".csv" : ".ndjson");
+        StreamingResponseBody body = out -> exportService.export(ds, fmt, hospital, start, end, out);
+        return ResponseEntity.ok()
+                .contentType(fmt == ExportService.Format.CSV ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .header("X-Accel-Buffering", "no")
+                .body(body);
+    }
+}
@@ -2,6 +2,7 @@ package com.medibots.controller;
 
 import com.medibots.entity.Claim;
 import com.medibots.entity.DoctorRecommendation;
+import com.medibots.entity.Ids;
 import com.medibots.entity.Invoice;
 import com.medibots.entity.InvoiceItem;
 import com.medibots.entity.Patient;
@@ -178,7 +179,10 @@ public class InvoicesController {
     @PostMapping("/generate")
     public ResponseEntity<Map<String, Object>> generate(@RequestBody Map<String, Object> body, Authentication auth) {
         if (auth == null) return ResponseEntity.status(401).build();
-        String claimId = (String) body.get("claim_id");
+        String claimId = body.get("claim_id") instanceof String s && !s.isBlank() ? s : null;
+        if (claimId != null && !Ids.isId(claimId)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid claim_id"));
+        }
         String patientId = (String) body.get("patient_id");
         if (patientId == null && claimId != null) {
             patientId = claimRepo.findById(claimId).map(Claim::getPatientId).orElse(null);
@@ -1,5 +1,7 @@
 package com.medibots.controller;
 
+import com.medibots.service.LocalModelScorer;
+import com.medibots.service.MlGateway;
 import com.medibots.service.MlPredictionService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,9 +16,13 @@ import java.util.Map;
 @RequestMapping("/api/ml")
 public class MlInsightsController {
     private final MlPredictionService mlService;
+    private final MlGateway gateway;
+    private final LocalModelScorer localModels;
 
-    public MlInsightsController(MlPredictionService mlService) {
+    public MlInsightsController(MlPredictionService mlService, MlGateway gateway, LocalModelScorer localModels) {
         this.mlService = mlService;
+        this.gateway = gateway;
+        this.localModels = localModels;
     }
 
     @GetMapping("/stats/claims")
@@ -34,6 +40,24 @@ public class MlInsightsController {
         return ResponseEntity.ok(mlService.fetchAppointmentStats());
     }
 
+    /** Prediction cache hit rates, sizes and the last model version seen. */
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        return ResponseEntity.ok(mlService.cacheStats());
+    }
+
+    /** ML HTTP client: calls in flight, bulkhead rejections and latency percentiles per endpoint and outcome. */
+    @GetMapping("/client")
+    public ResponseEntity<Map<String, Object>> clientStats() {
+        return ResponseEntity.ok(gateway.stats());
+    }
+
+    /** In-process models: mode, loaded versions, scoring time and shadow agreement with the ML service. */
+    @GetMapping("/local")
+    public ResponseEntity<Map<String, Object>> localModelStats() {
+        return ResponseEntity.ok(localModels.stats());
+    }
+
     @PostMapping("/predict/claim")
     public ResponseEntity<Map<String, Object>> predictClaim(@RequestBody Map<String, Object> features) {
         return ResponseEntity.ok(mlService.predictClaimWithInsights(features));
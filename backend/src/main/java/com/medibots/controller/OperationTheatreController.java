@@ -3,6 +3,7 @@ package com.medibots.controller;
 import com.medibots.entity.OperationTheatre;
 import com.medibots.repository.OperationTheatreRepository;
 import com.medibots.repository.ProfileRepository;
+import com.medibots.service.DepartmentAnalyticsService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -15,10 +16,13 @@ import java.util.Map;
 public class OperationTheatreController {
     private final OperationTheatreRepository theatreRepo;
     private final ProfileRepository profileRepo;
+    private final DepartmentAnalyticsService analyticsService;
 
-    public OperationTheatreController(OperationTheatreRepository theatreRepo, ProfileRepository profileRepo) {
+    public OperationTheatreController(OperationTheatreRepository theatreRepo, ProfileRepository profileRepo,
+                                      DepartmentAnalyticsService analyticsService) {
         this.theatreRepo = theatreRepo;
         this.profileRepo = profileRepo;
+        this.analyticsService = analyticsService;
     }
 
     private String hospitalIdFromAuth(Authentication auth, String queryHospitalId) {
@@ -47,7 +51,9 @@ public class OperationTheatreController {
         t.setDescription((String) body.get("description"));
         t.setCapacity(body.get("capacity") != null ? ((Number) body.get("capacity")).intValue() : 1);
         t.setStatus((String) body.getOrDefault("status", "ACTIVE"));
-        return ResponseEntity.ok(theatreRepo.save(t));
+        t = theatreRepo.save(t);
+        analyticsService.invalidateTheatreMap();
+        return ResponseEntity.ok(t);
     }
 
     @PatchMapping("/{id}")
@@ -58,7 +64,9 @@ public class OperationTheatreController {
             if (body.get("description") != null) t.setDescription((String) body.get("description"));
             if (body.get("capacity") != null) t.setCapacity(((Number) body.get("capacity")).intValue());
             if (body.get("status") != null) t.setStatus((String) body.get("status"));
-            return ResponseEntity.ok(theatreRepo.save(t));
+            OperationTheatre saved = theatreRepo.save(t);
+            analyticsService.invalidateTheatreMap();
+            return ResponseEntity.ok(saved);
         }).orElse(ResponseEntity.notFound().build());
     }
 
@@ -66,6 +74,7 @@ public class OperationTheatreController {
     public ResponseEntity<Void> delete(@PathVariable String id) {
         if (theatreRepo.existsById(id)) {
             theatreRepo.deleteById(id);
+            analyticsService.invalidateTheatreMap();
             return ResponseEntity.ok().build();
         }
         return ResponseEntity.notFound().build();
@@ -0,0 +1,107 @@
+package com.medibots.controller;
+
+import com.medibots.repository.ClaimDailyRollupRepository;
+import com.medibots.service.RollupService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Date-range analytics over the daily rollup tables (UTC days, both ends inclusive).
+ * Defaults to the last 365 days. The dashboards bucket in the server zone instead, so near midnight a claim can
+ * fall on a different day (and month) here than there.
+ */
+@RestController
+@RequestMapping("/api/rollups")
+public class RollupsController {
+    private final RollupService rollupService;
+
+    public RollupsController(RollupService rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    @GetMapping("/claims")
+    public ResponseEntity<List<Map<String, Object>>> claims(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                            @RequestParam(required = false) String hospitalId,
+                                                            @RequestParam(required = false) String insuranceProvider,
+                                                            @RequestParam(required = false) String status,
+                                                            @RequestParam(required = false) String procedureCategory) {
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : end.minusDays(364);
+        List<Map<String, Object>> out = rollupService.claimSeries(start, end, blankToNull(hospitalId),
+                        blankToNull(insuranceProvider), blankToNull(status), blankToNull(procedureCategory)).stream()
+                .map(this::toMap)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(out);
+    }
+
+    @GetMapping("/claims/by/{dimension}")
+    public ResponseEntity<?> claimsBreakdown(@PathVariable String dimension,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                             @RequestParam(required = false) String hospitalId) {
+        if (!RollupService.DIMENSIONS.contains(dimension)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unsupported dimension: " + dimension));
+        }
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : end.minusDays(364);
+        List<Map<String, Object>> out = rollupService.claimBreakdown(dimension, start, end, blankToNull(hospitalId)).stream()
+                .map(r -> {
+                    Map<String, Object> m = new HashMap<>();
+                    m.put("name", r.getLabel());
+                    m.put("claims", r.getClaims());
+                    m.put("amount", r.getAmount());
+                    return m;
+                })
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(out);
+    }
+
+    @GetMapping("/revenue")
+    public ResponseEntity<List<Map<String, Object>>> revenue(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                             @RequestParam(required = false) String hospitalId) {
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : end.minusDays(364);
+        List<Map<String, Object>> out = rollupService.revenueSeries(start, end, blankToNull(hospitalId)).stream()
+                .map(r -> {
+                    Map<String, Object> m = new HashMap<>();
+                    m.put("date", r.getDay());
+                    m.put("invoices", r.getInvoices());
+                    m.put("revenue", r.getRevenue());
+                    return m;
+                })
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(out);
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        return ResponseEntity.ok(rollupService.rebuild());
+    }
+
+    @PostMapping("/compact")
+    public ResponseEntity<Map<String, Object>> compact() {
+        return ResponseEntity.ok(rollupService.compact());
+    }
+
+    private Map<String, Object> toMap(ClaimDailyRollupRepository.DayTotals r) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("date", r.getDay());
+        m.put("claims", r.getClaims());
+        m.put("amount", r.getAmount());
+        return m;
+    }
+
+    private static String blankToNull(String s) {
+        return s != null && !s.isBlank() ? s : null;
+    }
+}
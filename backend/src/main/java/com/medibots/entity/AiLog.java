@@ -1,16 +1,25 @@
 package com.medibots.entity;
 
+import com.medibots.event.EntityChangePublisher;
 import jakarta.persistence.*;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.Instant;
 import java.math.BigDecimal;
 
 @Entity
 @Table(name = "ai_logs")
+@EntityListeners(EntityChangePublisher.class)
 public class AiLog {
     @Id
-    @Column(length = 36)
+    @JavaType(UuidBinaryType.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
     private String id;
-    @Column(name = "claim_id", nullable = false, length = 36)
+    @JavaType(UuidBinaryType.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "claim_id", nullable = false, length = 16)
     private String claimId;
     @Column(name = "prediction_score", nullable = false, precision = 5, scale = 2)
     private BigDecimal predictionScore = BigDecimal.ZERO;
@@ -21,10 +30,22 @@ public class AiLog {
     private Instant logTime;
     @Column(name = "hospital_id", length = 36)
     private String hospitalId;
+    @Transient
+    private Snapshot persisted;
+
+    /** Aggregate-relevant columns as last read from or written to the database. */
+    public record Snapshot(String id, String hospitalId, BigDecimal confidence) {}
+
+    public Snapshot snapshot() {
+        return new Snapshot(id, hospitalId, confidence);
+    }
+
+    public Snapshot persisted() { return persisted; }
+    public void persisted(Snapshot persisted) { this.persisted = persisted; }
 
     @PrePersist
     public void prePersist() {
-        if (id == null) id = java.util.UUID.randomUUID().toString();
+        if (id == null) id = Ids.newId();
         if (logTime == null) logTime = Instant.now();
     }
 
@@ -21,7 +21,7 @@ public class AuditLog {
 
     @PrePersist
     public void prePersist() {
-        if (id == null) id = java.util.UUID.randomUUID().toString();
+        if (id == null) id = Ids.newId();
         if (createdAt == null) createdAt = Instant.now();
     }
 
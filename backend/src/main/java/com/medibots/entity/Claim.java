@@ -1,14 +1,29 @@
 package com.medibots.entity;
 
+import com.medibots.event.EntityChangePublisher;
+import com.medibots.service.DocumentNumberListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
-@Table(name = "claims")
+@Table(name = "claims", indexes = {
+        @Index(name = "idx_claims_hospital_submitted", columnList = "hospital_id, submitted_at"),
+        @Index(name = "idx_claims_status_submitted", columnList = "status, submitted_at"),
+        @Index(name = "idx_claims_provider_submitted", columnList = "insurance_provider, submitted_at"),
+        @Index(name = "idx_claims_status_denial_category", columnList = "status, denial_category"),
+        @Index(name = "idx_claims_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_claims_hospital_created_id", columnList = "hospital_id, created_at, id")
+})
+@EntityListeners({EntityChangePublisher.class, DocumentNumberListener.class})
 public class Claim {
     @Id
-    @Column(length = 36)
+    @JavaType(UuidBinaryType.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
     private String id;
     @Column(name = "claim_number", unique = true, nullable = false)
     private String claimNumber;
@@ -22,8 +37,18 @@ public class Claim {
     private String status = "PENDING";
     @Column(name = "ai_risk_score", precision = 5, scale = 2)
     private BigDecimal aiRiskScore;
+    /** PENDING while queued for ML scoring, then SCORED or FAILED; null on claims scored before the queue existed. */
+    @Column(name = "scoring_status", length = 16)
+    private String scoringStatus;
     @Column(name = "ai_explanation", columnDefinition = "TEXT")
     private String aiExplanation;
+    @Column(name = "denial_category", length = 32)
+    private String denialCategory;
+    /** Earlier claim this one was flagged as a near-duplicate of at submission (DuplicateClaimService). */
+    @JavaType(UuidBinaryType.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "duplicate_of", length = 16)
+    private String duplicateOf;
     @Column(name = "submitted_by", nullable = false, length = 36)
     private String submittedBy;
     @Column(name = "submitted_at", nullable = false)
@@ -78,11 +103,40 @@ public class Claim {
     private BigDecimal hospitalClaimSuccessRate;
     private Instant createdAt;
     private Instant updatedAt;
+    /** Optimistic lock: bumped on every JPA update, by ClaimAdjudicationService's set-based updates and by rescore jobs. */
+    @Version
+    @Column(nullable = false)
+    private long version;
+    @Transient
+    private Snapshot persisted;
+
+    /** Aggregate-relevant columns as last read from or written to the database. */
+    public record Snapshot(String id, String hospitalId, String status, String insuranceProvider,
+                           String procedureCategory, BigDecimal amount, Instant submittedAt,
+                           String claimType, String hospitalTier, BigDecimal aiRiskScore) {
+        public Snapshot withAiRiskScore(BigDecimal score) {
+            return new Snapshot(id, hospitalId, status, insuranceProvider, procedureCategory, amount, submittedAt,
+                    claimType, hospitalTier, score);
+        }
+
+        public Snapshot withStatus(String newStatus) {
+            return new Snapshot(id, hospitalId, newStatus, insuranceProvider, procedureCategory, amount, submittedAt,
+                    claimType, hospitalTier, aiRiskScore);
+        }
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(id, hospitalId, status, insuranceProvider, procedureCategory, amount, submittedAt,
+                claimType, hospitalTier, aiRiskScore);
+    }
+
+    public Snapshot persisted() { return persisted; }
+    public void persisted(Snapshot persisted) { this.persisted = persisted; }
 
     @PrePersist
     public void prePersist() {
-        if (id == null) id = java.util.UUID.randomUUID().toString();
-        if (claimNumber == null) claimNumber = "CLM-" + id.substring(0, 8);
+        if (id == null) id = Ids.newId();
+        if (claimNumber == null) claimNumber = "CLM-" + id.substring(28);
         if (submittedAt == null) submittedAt = Instant.now();
         if (createdAt == null) createdAt = Instant.now();
         if (updatedAt == null) updatedAt = Instant.now();
@@ -107,8 +161,14 @@ public class Claim {
     public void setStatus(String status) { this.status = status; }
     public BigDecimal getAiRiskScore() { return aiRiskScore; }
     public void setAiRiskScore(BigDecimal aiRiskScore) { this.aiRiskScore = aiRiskScore; }
+    public String getScoringStatus() { return scoringStatus; }
+    public void setScoringStatus(String scoringStatus) { this.scoringStatus = scoringStatus; }
     public String getAiExplanation() { return aiExplanation; }
     public void setAiExplanation(String aiExplanation) { this.aiExplanation = aiExplanation; }
+    public String getDenialCategory() { return denialCategory; }
+    public void setDenialCategory(String denialCategory) { this.denialCategory = denialCategory; }
+    public String getDuplicateOf() { return duplicateOf; }
+    public void setDuplicateOf(String duplicateOf) { this.duplicateOf = duplicateOf; }
     public String getSubmittedBy() { return submittedBy; }
     public void setSubmittedBy(String submittedBy) { this.submittedBy = submittedBy; }
     public Instant getSubmittedAt() { return submittedAt; }
@@ -165,4 +225,6 @@ public class Claim {
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
     public Instant getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 }
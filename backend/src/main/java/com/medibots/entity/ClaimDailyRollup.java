@@ -0,0 +1,65 @@
+package com.medibots.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * One UTC day of claims for a hospital / payer / status / procedure category combination.
+ * Maintained incrementally by RollupService; missing dimensions are stored as {@link #UNASSIGNED} / {@link #UNKNOWN}.
+ */
+@Entity
+@Table(name = "claim_daily_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_claim_rollup_bucket", columnNames = {"bucket_date", "hospital_id", "insurance_provider", "status", "procedure_category"})
+}, indexes = {
+        @Index(name = "idx_claim_rollup_hospital_date", columnList = "hospital_id, bucket_date")
+})
+public class ClaimDailyRollup {
+    public static final String UNASSIGNED = "UNASSIGNED";
+    public static final String UNKNOWN = "Unknown";
+
+    @Id
+    @Column(length = 36)
+    private String id;
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+    @Column(name = "hospital_id", nullable = false, length = 36)
+    private String hospitalId;
+    @Column(name = "insurance_provider", nullable = false)
+    private String insuranceProvider;
+    @Column(nullable = false, length = 32)
+    private String status;
+    @Column(name = "procedure_category", nullable = false, length = 50)
+    private String procedureCategory;
+    @Column(name = "claim_count", nullable = false)
+    private long claimCount;
+    @Column(name = "amount_sum", nullable = false, precision = 16, scale = 2)
+    private BigDecimal amountSum = BigDecimal.ZERO;
+    private Instant updatedAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (id == null) id = Ids.newId();
+        updatedAt = Instant.now();
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public LocalDate getBucketDate() { return bucketDate; }
+    public void setBucketDate(LocalDate bucketDate) { this.bucketDate = bucketDate; }
+    public String getHospitalId() { return hospitalId; }
+    public void setHospitalId(String hospitalId) { this.hospitalId = hospitalId; }
+    public String getInsuranceProvider() { return insuranceProvider; }
+    public void setInsuranceProvider(String insuranceProvider) { this.insuranceProvider = insuranceProvider; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getProcedureCategory() { return procedureCategory; }
+    public void setProcedureCategory(String procedureCategory) { this.procedureCategory = procedureCategory; }
+    public long getClaimCount() { return claimCount; }
+    public void setClaimCount(long claimCount) { this.claimCount = claimCount; }
+    public BigDecimal getAmountSum() { return amountSum; }
+    public void setAmountSum(BigDecimal amountSum) { this.amountSum = amountSum; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -1,6 +1,9 @@
 package com.medibots.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.math.BigDecimal;
 import java.time.Instant;
 
@@ -14,7 +17,9 @@ public class ClaimFeatures {
     @Id
     @Column(length = 36)
     private String id;
-    @Column(name = "claim_id", nullable = false, unique = true, length = 36)
+    @JavaType(UuidBinaryType.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "claim_id", nullable = false, unique = true, length = 16)
     private String claimId;
     @Column(name = "risk_score_normalized", precision = 5, scale = 4)
     private BigDecimal riskScoreNormalized;
@@ -37,7 +42,7 @@ public class ClaimFeatures {
 
     @PrePersist
     public void prePersist() {
-        if (id == null) id = java.util.UUID.randomUUID().toString();
+        if (id == null) id = Ids.newId();
         if (createdAt == null) createdAt = Instant.now();
         if (updatedAt == null) updatedAt = Instant.now();
     }
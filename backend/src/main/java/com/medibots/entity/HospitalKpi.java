@@ -0,0 +1,55 @@
+package com.medibots.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Running dashboard KPI counters per hospital. Maintained incrementally by KpiService
+ * from claim / invoice / AI log writes; claims without a hospital are kept under {@link #UNASSIGNED}.
+ */
+@Entity
+@Table(name = "hospital_kpis")
+public class HospitalKpi {
+    public static final String UNASSIGNED = "UNASSIGNED";
+
+    @Id
+    @Column(name = "hospital_id", length = 36)
+    private String hospitalId;
+    @Column(name = "total_claims", nullable = false)
+    private long totalClaims;
+    @Column(name = "approved_claims", nullable = false)
+    private long approvedClaims;
+    @Column(name = "denied_claims", nullable = false)
+    private long deniedClaims;
+    @Column(name = "revenue_collected", nullable = false, precision = 16, scale = 2)
+    private BigDecimal revenueCollected = BigDecimal.ZERO;
+    @Column(name = "ai_confidence_sum", nullable = false, precision = 16, scale = 2)
+    private BigDecimal aiConfidenceSum = BigDecimal.ZERO;
+    @Column(name = "ai_confidence_count", nullable = false)
+    private long aiConfidenceCount;
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    public void touch() {
+        updatedAt = Instant.now();
+    }
+
+    public String getHospitalId() { return hospitalId; }
+    public void setHospitalId(String hospitalId) { this.hospitalId = hospitalId; }
+    public long getTotalClaims() { return totalClaims; }
+    public void setTotalClaims(long totalClaims) { this.totalClaims = totalClaims; }
+    public long getApprovedClaims() { return approvedClaims; }
+    public void setApprovedClaims(long approvedClaims) { this.approvedClaims = approvedClaims; }
+    public long getDeniedClaims() { return deniedClaims; }
+    public void setDeniedClaims(long deniedClaims) { this.deniedClaims = deniedClaims; }
+    public BigDecimal getRevenueCollected() { return revenueCollected; }
+    public void setRevenueCollected(BigDecimal revenueCollected) { this.revenueCollected = revenueCollected; }
+    public BigDecimal getAiConfidenceSum() { return aiConfidenceSum; }
+    public void setAiConfidenceSum(BigDecimal aiConfidenceSum) { this.aiConfidenceSum = aiConfidenceSum; }
+    public long getAiConfidenceCount() { return aiConfidenceCount; }
+    public void setAiConfidenceCount(long aiConfidenceCount) { this.aiConfidenceCount = aiConfidenceCount; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,81 @@
+package com.medibots.entity;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Primary key generator shared by all entities: UUIDv7 (RFC 9562), i.e. a 48-bit millisecond timestamp, a 12-bit
+ * sequence and 62 random bits. Keys from one process are strictly increasing, in text as well as in binary form, so
+ * InnoDB appends new rows at the right edge of the clustered index instead of splitting random pages.
+ * Ids stay canonical UUID strings in Java and JSON; {@link UuidBinaryType} stores them as BINARY(16).
+ */
+public final class Ids {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    /** Last issued (millis << 12 | sequence). */
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private Ids() {}
+
+    public static String newId() {
+        return newUuid().toString();
+    }
+
+    public static UUID newUuid() {
+        long now = System.currentTimeMillis();
+        long prev, next;
+        do {
+            prev = LAST.get();
+            // new millisecond: random start in the lower half of the sequence, leaving room to count up;
+            // same (or a clock step back): next sequence value, borrowing from the following millisecond on overflow
+            next = now > prev >>> 12 ? now << 12 | ThreadLocalRandom.current().nextInt(0x800) : prev + 1;
+        } while (!LAST.compareAndSet(prev, next));
+        long msb = (next >>> 12) << 16 | 0x7000L | (next & 0xFFFL);
+        // one nextBytes call: SecureRandom.nextLong() would take the provider lock twice
+        byte[] random = new byte[8];
+        RANDOM.nextBytes(random);
+        long lsb = 0;
+        for (byte b : random) lsb = lsb << 8 | (b & 0xFF);
+        lsb = lsb & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    /** Whether {@code id} is a canonical UUID string, i.e. one {@link #toBytes} accepts. */
+    public static boolean isId(String id) {
+        if (id == null || id.length() != 36) return false;
+        try {
+            UUID.fromString(id);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /** The 16 bytes of a canonical UUID string, in text order. */
+    public static byte[] toBytes(String id) {
+        if (id == null) return null;
+        if (id.length() != 36) throw new IllegalArgumentException("Not a UUID: " + id);
+        UUID u = UUID.fromString(id);
+        byte[] b = new byte[16];
+        long msb = u.getMostSignificantBits();
+        long lsb = u.getLeastSignificantBits();
+        for (int i = 0; i < 8; i++) {
+            b[i] = (byte) (msb >>> (56 - 8 * i));
+            b[8 + i] = (byte) (lsb >>> (56 - 8 * i));
+        }
+        return b;
+    }
+
+    public static String fromBytes(byte[] b) {
+        if (b == null) return null;
+        if (b.length != 16) throw new IllegalArgumentException("Expected 16 bytes, got " + b.length);
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 8; i++) {
+            msb = msb << 8 | (b[i] & 0xFF);
+            lsb = lsb << 8 | (b[8 + i] & 0xFF);
+        }
+        return new UUID(msb, lsb).toString();
+    }
+}
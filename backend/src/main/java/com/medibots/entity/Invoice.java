@@ -1,12 +1,21 @@
 package com.medibots.entity;
 
+import com.medibots.event.EntityChangePublisher;
+import com.medibots.service.DocumentNumberListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+        @Index(name = "idx_invoices_status_created", columnList = "payment_status, created_at"),
+        @Index(name = "idx_invoices_hospital_status_created", columnList = "hospital_id, payment_status, created_at")
+})
+@EntityListeners({EntityChangePublisher.class, DocumentNumberListener.class})
 public class Invoice {
     @Id
     @Column(length = 36)
@@ -15,7 +24,9 @@ public class Invoice {
     private String invoiceNumber;
     @Column(name = "patient_id", nullable = false, length = 36)
     private String patientId;
-    @Column(name = "claim_id", length = 36)
+    @JavaType(UuidBinaryType.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "claim_id", length = 16)
     private String claimId;
     @Column(name = "total_amount", nullable = false, precision = 12, scale = 2)
     private BigDecimal totalAmount = BigDecimal.ZERO;
@@ -47,11 +58,23 @@ public class Invoice {
     private Integer previousLatePayments;
     private Instant createdAt;
     private Instant updatedAt;
+    @Transient
+    private Snapshot persisted;
+
+    /** Aggregate-relevant columns as last read from or written to the database. */
+    public record Snapshot(String id, String hospitalId, String paymentStatus, BigDecimal totalAmount, Instant createdAt) {}
+
+    public Snapshot snapshot() {
+        return new Snapshot(id, hospitalId, paymentStatus, totalAmount, createdAt);
+    }
+
+    public Snapshot persisted() { return persisted; }
+    public void persisted(Snapshot persisted) { this.persisted = persisted; }
 
     @PrePersist
     public void prePersist() {
-        if (id == null) id = java.util.UUID.randomUUID().toString();
-        if (invoiceNumber == null) invoiceNumber = "INV-" + id.substring(0, 8);
+        if (id == null) id = Ids.newId();
+        if (invoiceNumber == null) invoiceNumber = "INV-" + id.substring(28);
         if (dueDate == null) dueDate = LocalDate.now().plusDays(30);
         if (createdAt == null) createdAt = Instant.now();
         if (updatedAt == null) updatedAt = Instant.now();
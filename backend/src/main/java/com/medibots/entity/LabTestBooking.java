@@ -5,7 +5,9 @@ import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
-@Table(name = "lab_test_bookings")
+@Table(name = "lab_test_bookings", indexes = {
+        @Index(name = "idx_lab_bookings_hospital_scheduled", columnList = "hospital_id, scheduled_date")
+})
 public class LabTestBooking {
     @Id
     @Column(length = 36)
@@ -29,7 +31,7 @@ public class LabTestBooking {
 
     @PrePersist
     public void prePersist() {
-        if (id == null) id = java.util.UUID.randomUUID().toString();
+        if (id == null) id = Ids.newId();
         if (createdAt == null) createdAt = Instant.now();
         if (updatedAt == null) updatedAt = Instant.now();
     }
@@ -0,0 +1,35 @@
+package com.medibots.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Counter behind human-readable document numbers, one row per number kind and hospital (e.g. {@code CLM:<hospital id>}).
+ * The auto-increment id doubles as the short scope code embedded in the number, so numbers never collide across
+ * hospitals. DocumentNumberService reserves blocks by advancing next_value; the row is otherwise never touched.
+ */
+@Entity
+@Table(name = "number_sequences", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_number_sequences_name", columnNames = "name")
+})
+public class NumberSequence {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false, length = 64)
+    private String name;
+    /** First number not yet handed out to any instance. */
+    @Column(name = "next_value", nullable = false)
+    private long nextValue = 1;
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public long getNextValue() { return nextValue; }
+    public void setNextValue(long nextValue) { this.nextValue = nextValue; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
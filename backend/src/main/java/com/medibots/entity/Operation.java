@@ -5,7 +5,10 @@ import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
-@Table(name = "operations")
+@Table(name = "operations", indexes = {
+        @Index(name = "idx_operations_hospital_scheduled", columnList = "hospital_id, scheduled_at"),
+        @Index(name = "idx_operations_theatre_scheduled", columnList = "operation_theatre_id, scheduled_at")
+})
 public class Operation {
     @Id
     @Column(length = 36)
@@ -33,7 +36,7 @@ public class Operation {
 
     @PrePersist
     public void prePersist() {
-        if (id == null) id = java.util.UUID.randomUUID().toString();
+        if (id == null) id = Ids.newId();
         if (createdAt == null) createdAt = Instant.now();
         if (updatedAt == null) updatedAt = Instant.now();
     }
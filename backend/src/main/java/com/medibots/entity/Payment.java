@@ -29,7 +29,7 @@ public class Payment {
 
     @PrePersist
     public void prePersist() {
-        if (id == null) id = java.util.UUID.randomUUID().toString();
+        if (id == null) id = Ids.newId();
         if (paymentDate == null) paymentDate = LocalDate.now();
         if (createdAt == null) createdAt = Instant.now();
     }
@@ -0,0 +1,84 @@
+package com.medibots.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Progress of one background claim rescoring run. The (cursor_created_at, cursor_id) keyset position is advanced in the
+ * same transaction as each chunk's writes, so an interrupted or cancelled job resumes right after its last committed chunk.
+ */
+@Entity
+@Table(name = "rescore_jobs", indexes = {
+        @Index(name = "idx_rescore_jobs_status", columnList = "status")
+})
+public class RescoreJob {
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String CANCELLED = "CANCELLED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @Column(length = 36)
+    private String id;
+    @Column(nullable = false, length = 16)
+    private String status = RUNNING;
+    @Column(name = "total_claims", nullable = false)
+    private long totalClaims;
+    @Column(nullable = false)
+    private long processed;
+    @Column(nullable = false)
+    private long failed;
+    @Column(name = "cursor_created_at")
+    private Instant cursorCreatedAt;
+    @Column(name = "cursor_id", length = 36)
+    private String cursorId;
+    @Column(name = "started_by", length = 36)
+    private String startedBy;
+    @Column(columnDefinition = "TEXT")
+    private String error;
+    @Column(name = "created_at")
+    private Instant createdAt;
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (id == null) id = Ids.newId();
+        if (createdAt == null) createdAt = Instant.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = Instant.now();
+    }
+
+    public boolean isRunning() { return RUNNING.equals(status); }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public long getTotalClaims() { return totalClaims; }
+    public void setTotalClaims(long totalClaims) { this.totalClaims = totalClaims; }
+    public long getProcessed() { return processed; }
+    public void setProcessed(long processed) { this.processed = processed; }
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+    public Instant getCursorCreatedAt() { return cursorCreatedAt; }
+    public void setCursorCreatedAt(Instant cursorCreatedAt) { this.cursorCreatedAt = cursorCreatedAt; }
+    public String getCursorId() { return cursorId; }
+    public void setCursorId(String cursorId) { this.cursorId = cursorId; }
+    public String getStartedBy() { return startedBy; }
+    public void setStartedBy(String startedBy) { this.startedBy = startedBy; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+}
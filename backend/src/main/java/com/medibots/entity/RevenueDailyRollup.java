@@ -0,0 +1,49 @@
+package com.medibots.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * PAID invoice revenue for one UTC day (of invoice creation) and hospital. Maintained incrementally by RollupService.
+ */
+@Entity
+@Table(name = "revenue_daily_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_revenue_rollup_bucket", columnNames = {"bucket_date", "hospital_id"})
+}, indexes = {
+        @Index(name = "idx_revenue_rollup_hospital_date", columnList = "hospital_id, bucket_date")
+})
+public class RevenueDailyRollup {
+    @Id
+    @Column(length = 36)
+    private String id;
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+    @Column(name = "hospital_id", nullable = false, length = 36)
+    private String hospitalId;
+    @Column(name = "paid_count", nullable = false)
+    private long paidCount;
+    @Column(name = "paid_amount", nullable = false, precision = 16, scale = 2)
+    private BigDecimal paidAmount = BigDecimal.ZERO;
+    private Instant updatedAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (id == null) id = Ids.newId();
+        updatedAt = Instant.now();
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public LocalDate getBucketDate() { return bucketDate; }
+    public void setBucketDate(LocalDate bucketDate) { this.bucketDate = bucketDate; }
+    public String getHospitalId() { return hospitalId; }
+    public void setHospitalId(String hospitalId) { this.hospitalId = hospitalId; }
+    public long getPaidCount() { return paidCount; }
+    public void setPaidCount(long paidCount) { this.paidCount = paidCount; }
+    public BigDecimal getPaidAmount() { return paidAmount; }
+    public void setPaidAmount(BigDecimal paidAmount) { this.paidAmount = paidAmount; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
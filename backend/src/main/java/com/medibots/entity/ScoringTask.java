@@ -0,0 +1,58 @@
+package com.medibots.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import java.time.Instant;
+
+/**
+ * Durable queue entry for one claim awaiting ML scoring. Inserted in the same transaction as the claim and deleted
+ * when the score is written, so queued work survives restarts. A worker leases a row by stamping locked_by /
+ * locked_until; an expired lease (crashed instance) makes the row claimable again.
+ */
+@Entity
+@Table(name = "scoring_tasks", indexes = {
+        @Index(name = "idx_scoring_tasks_available", columnList = "available_at"),
+        @Index(name = "idx_scoring_tasks_locked_by", columnList = "locked_by")
+})
+public class ScoringTask {
+    @Id
+    @JavaType(UuidBinaryType.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "claim_id", length = 16)
+    private String claimId;
+    @Column(nullable = false)
+    private int attempts;
+    @Column(name = "available_at", nullable = false)
+    private Instant availableAt;
+    @Column(name = "locked_by", length = 36)
+    private String lockedBy;
+    @Column(name = "locked_until")
+    private Instant lockedUntil;
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) createdAt = Instant.now();
+        if (availableAt == null) availableAt = createdAt;
+    }
+
+    public String getClaimId() { return claimId; }
+    public void setClaimId(String claimId) { this.claimId = claimId; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public Instant getAvailableAt() { return availableAt; }
+    public void setAvailableAt(Instant availableAt) { this.availableAt = availableAt; }
+    public String getLockedBy() { return lockedBy; }
+    public void setLockedBy(String lockedBy) { this.lockedBy = lockedBy; }
+    public Instant getLockedUntil() { return lockedUntil; }
+    public void setLockedUntil(Instant lockedUntil) { this.lockedUntil = lockedUntil; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -16,7 +16,7 @@ public class UserRole {
 
     @PrePersist
     public void prePersist() {
-        if (id == null) id = java.util.UUID.randomUUID().toString();
+        if (id == null) id = Ids.newId();
     }
 
     public String getId() { return id; }
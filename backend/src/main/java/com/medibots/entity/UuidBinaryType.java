@@ -0,0 +1,43 @@
+package com.medibots.entity;
+
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.AbstractClassJavaType;
+
+/**
+ * Maps a String UUID attribute to a BINARY(16) column. Use together with {@code @JdbcTypeCode(SqlTypes.BINARY)} and
+ * {@code @Column(length = 16)}; the attribute, query parameters and JSON keep the canonical text form.
+ */
+public class UuidBinaryType extends AbstractClassJavaType<String> {
+    private static final long serialVersionUID = 1L;
+
+    public UuidBinaryType() {
+        super(String.class);
+    }
+
+    @Override
+    public String toString(String value) {
+        return value;
+    }
+
+    @Override
+    public String fromString(CharSequence string) {
+        return string != null ? string.toString() : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <X> X unwrap(String value, Class<X> type, WrapperOptions options) {
+        if (value == null) return null;
+        if (byte[].class.isAssignableFrom(type)) return (X) Ids.toBytes(value);
+        if (String.class.isAssignableFrom(type)) return (X) value;
+        throw unknownUnwrap(type);
+    }
+
+    @Override
+    public <X> String wrap(X value, WrapperOptions options) {
+        if (value == null) return null;
+        if (value instanceof byte[] bytes) return Ids.fromBytes(bytes);
+        if (value instanceof String s) return s;
+        throw unknownWrap(value.getClass());
+    }
+}
@@ -0,0 +1,9 @@
+package com.medibots.event;
+
+import com.medibots.entity.AiLog;
+
+/**
+ * Published after an AI log row is inserted, updated or deleted.
+ * {@code before} is null for inserts, {@code after} is null for deletes.
+ */
+public record AiLogChangedEvent(AiLog.Snapshot before, AiLog.Snapshot after) {}
@@ -0,0 +1,9 @@
+package com.medibots.event;
+
+import com.medibots.entity.Claim;
+
+/**
+ * Published after a claim row is inserted, updated or deleted.
+ * {@code before} is null for inserts, {@code after} is null for deletes.
+ */
+public record ClaimChangedEvent(Claim.Snapshot before, Claim.Snapshot after) {}
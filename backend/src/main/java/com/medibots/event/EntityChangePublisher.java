@@ -0,0 +1,69 @@
+package com.medibots.event;
+
+import com.medibots.entity.AiLog;
+import com.medibots.entity.Claim;
+import com.medibots.entity.Invoice;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener that turns claim / invoice / AI log writes into application events.
+ * Each entity keeps a snapshot of its persisted state (taken on load and after every write),
+ * so listeners receive both the old and new values without re-reading the row.
+ * Instantiated by Hibernate through Spring's bean container.
+ */
+public class EntityChangePublisher {
+    private final ApplicationEventPublisher publisher;
+
+    public EntityChangePublisher(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostLoad
+    public void loaded(Object entity) {
+        if (entity instanceof Claim c) c.persisted(c.snapshot());
+        else if (entity instanceof Invoice i) i.persisted(i.snapshot());
+        else if (entity instanceof AiLog l) l.persisted(l.snapshot());
+    }
+
+    @PostPersist
+    public void inserted(Object entity) {
+        if (entity instanceof Claim c) {
+            c.persisted(c.snapshot());
+            publisher.publishEvent(new ClaimChangedEvent(null, c.persisted()));
+        } else if (entity instanceof Invoice i) {
+            i.persisted(i.snapshot());
+            publisher.publishEvent(new InvoiceChangedEvent(null, i.persisted()));
+        } else if (entity instanceof AiLog l) {
+            l.persisted(l.snapshot());
+            publisher.publishEvent(new AiLogChangedEvent(null, l.persisted()));
+        }
+    }
+
+    @PostUpdate
+    public void updated(Object entity) {
+        if (entity instanceof Claim c) {
+            Claim.Snapshot before = c.persisted();
+            c.persisted(c.snapshot());
+            publisher.publishEvent(new ClaimChangedEvent(before, c.persisted()));
+        } else if (entity instanceof Invoice i) {
+            Invoice.Snapshot before = i.persisted();
+            i.persisted(i.snapshot());
+            publisher.publishEvent(new InvoiceChangedEvent(before, i.persisted()));
+        } else if (entity instanceof AiLog l) {
+            AiLog.Snapshot before = l.persisted();
+            l.persisted(l.snapshot());
+            publisher.publishEvent(new AiLogChangedEvent(before, l.persisted()));
+        }
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        if (entity instanceof Claim c) publisher.publishEvent(new ClaimChangedEvent(c.persisted(), null));
+        else if (entity instanceof Invoice i) publisher.publishEvent(new InvoiceChangedEvent(i.persisted(), null));
+        else if (entity instanceof AiLog l) publisher.publishEvent(new AiLogChangedEvent(l.persisted(), null));
+    }
+}
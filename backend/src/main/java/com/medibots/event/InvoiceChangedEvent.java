@@ -0,0 +1,9 @@
+package com.medibots.event;
+
+import com.medibots.entity.Invoice;
+
+/**
+ * Published after an invoice row is inserted, updated or deleted.
+ * {@code before} is null for inserts, {@code after} is null for deletes.
+ */
+public record InvoiceChangedEvent(Invoice.Snapshot before, Invoice.Snapshot after) {}
@@ -2,8 +2,20 @@ package com.medibots.repository;
 
 import com.medibots.entity.AiLog;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.math.BigDecimal;
 import java.util.List;
 
 public interface AiLogRepository extends JpaRepository<AiLog, String> {
     List<AiLog> findAllByOrderByLogTimeDesc();
+
+    interface HospitalConfidence {
+        String getHospitalId();
+        BigDecimal getConfidenceSum();
+        Long getConfidenceCount();
+    }
+
+    @Query("select l.hospitalId as hospitalId, sum(l.confidence) as confidenceSum, count(l) as confidenceCount "
+            + "from AiLog l group by l.hospitalId")
+    List<HospitalConfidence> sumConfidenceByHospital();
 }
@@ -0,0 +1,99 @@
+package com.medibots.repository;
+
+import com.medibots.entity.ClaimDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ClaimDailyRollupRepository extends JpaRepository<ClaimDailyRollup, String> {
+
+    interface DayTotals {
+        LocalDate getDay();
+        Long getClaims();
+        BigDecimal getAmount();
+    }
+
+    interface DimensionTotals {
+        String getLabel();
+        Long getClaims();
+        BigDecimal getAmount();
+    }
+
+    @Modifying
+    @Query(value = "INSERT INTO claim_daily_rollups (id, bucket_date, hospital_id, insurance_provider, status, "
+            + "procedure_category, claim_count, amount_sum, updated_at) "
+            + "VALUES (UUID(), :day, :hospitalId, :provider, :status, :category, :count, :amount, CURRENT_TIMESTAMP) "
+            + "ON DUPLICATE KEY UPDATE claim_count = claim_count + VALUES(claim_count), "
+            + "amount_sum = amount_sum + VALUES(amount_sum), updated_at = CURRENT_TIMESTAMP", nativeQuery = true)
+    void applyDelta(@Param("day") LocalDate day, @Param("hospitalId") String hospitalId,
+                    @Param("provider") String provider, @Param("status") String status,
+                    @Param("category") String category, @Param("count") long count,
+                    @Param("amount") BigDecimal amount);
+
+    /** Re-derives buckets for claims submitted in [from, to) straight from the claims table. */
+    @Modifying
+    @Query(value = "INSERT INTO claim_daily_rollups (id, bucket_date, hospital_id, insurance_provider, status, "
+            + "procedure_category, claim_count, amount_sum, updated_at) "
+            + "SELECT UUID(), g.bucket_date, g.hospital_id, g.insurance_provider, g.status, g.procedure_category, "
+            + "g.claim_count, g.amount_sum, CURRENT_TIMESTAMP FROM ("
+            + "SELECT DATE(submitted_at) AS bucket_date, COALESCE(NULLIF(hospital_id, ''), 'UNASSIGNED') AS hospital_id, "
+            + "COALESCE(NULLIF(insurance_provider, ''), 'Unknown') AS insurance_provider, status, "
+            + "COALESCE(NULLIF(procedure_category, ''), 'Unknown') AS procedure_category, "
+            + "COUNT(*) AS claim_count, COALESCE(SUM(amount), 0) AS amount_sum FROM claims "
+            + "WHERE submitted_at >= :from AND submitted_at < :to "
+            + "GROUP BY DATE(submitted_at), COALESCE(NULLIF(hospital_id, ''), 'UNASSIGNED'), "
+            + "COALESCE(NULLIF(insurance_provider, ''), 'Unknown'), status, "
+            + "COALESCE(NULLIF(procedure_category, ''), 'Unknown')) g", nativeQuery = true)
+    int insertFromClaims(@Param("from") Instant from, @Param("to") Instant to);
+
+    @Modifying
+    @Query("delete from ClaimDailyRollup r where r.bucketDate >= :from and r.bucketDate < :to")
+    int deleteRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("delete from ClaimDailyRollup r where r.claimCount = 0")
+    int deleteEmpty();
+
+    @Query("select r.bucketDate as day, sum(r.claimCount) as claims, sum(r.amountSum) as amount "
+            + "from ClaimDailyRollup r where r.bucketDate >= :from and r.bucketDate <= :to "
+            + "and (:hospitalId is null or r.hospitalId = :hospitalId) "
+            + "and (:provider is null or r.insuranceProvider = :provider) "
+            + "and (:status is null or r.status = :status) "
+            + "and (:category is null or r.procedureCategory = :category) "
+            + "group by r.bucketDate order by r.bucketDate")
+    List<DayTotals> sumByDay(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                             @Param("hospitalId") String hospitalId, @Param("provider") String provider,
+                             @Param("status") String status, @Param("category") String category);
+
+    @Query("select r.insuranceProvider as label, sum(r.claimCount) as claims, sum(r.amountSum) as amount "
+            + "from ClaimDailyRollup r where r.bucketDate >= :from and r.bucketDate <= :to "
+            + "and (:hospitalId is null or r.hospitalId = :hospitalId) "
+            + "group by r.insuranceProvider order by sum(r.claimCount) desc")
+    List<DimensionTotals> sumByProvider(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                        @Param("hospitalId") String hospitalId);
+
+    @Query("select r.status as label, sum(r.claimCount) as claims, sum(r.amountSum) as amount "
+            + "from ClaimDailyRollup r where r.bucketDate >= :from and r.bucketDate <= :to "
+            + "and (:hospitalId is null or r.hospitalId = :hospitalId) "
+            + "group by r.status order by sum(r.claimCount) desc")
+    List<DimensionTotals> sumByStatus(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                      @Param("hospitalId") String hospitalId);
+
+    @Query("select r.procedureCategory as label, sum(r.claimCount) as claims, sum(r.amountSum) as amount "
+            + "from ClaimDailyRollup r where r.bucketDate >= :from and r.bucketDate <= :to "
+            + "and (:hospitalId is null or r.hospitalId = :hospitalId) "
+            + "group by r.procedureCategory order by sum(r.claimCount) desc")
+    List<DimensionTotals> sumByCategory(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                        @Param("hospitalId") String hospitalId);
+
+    @Query("select r.hospitalId as label, sum(r.claimCount) as claims, sum(r.amountSum) as amount "
+            + "from ClaimDailyRollup r where r.bucketDate >= :from and r.bucketDate <= :to "
+            + "group by r.hospitalId order by sum(r.claimCount) desc")
+    List<DimensionTotals> sumByHospital(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -3,8 +3,11 @@ package com.medibots.repository;
 import com.medibots.entity.ClaimFeatures;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ClaimFeaturesRepository extends JpaRepository<ClaimFeatures, String> {
     Optional<ClaimFeatures> findByClaimId(String claimId);
+    List<ClaimFeatures> findByClaimIdIn(Collection<String> claimIds);
 }
@@ -1,11 +1,144 @@
 package com.medibots.repository;
 
 import com.medibots.entity.Claim;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 public interface ClaimRepository extends JpaRepository<Claim, String> {
     List<Claim> findAllByOrderByCreatedAtDesc();
     List<Claim> findByPatientIdOrderByCreatedAtDesc(String patientId);
     List<Claim> findByHospitalIdOrderByCreatedAtDesc(String hospitalId);
+
+    /**
+     * One keyset page ordered by (created_at, id) descending: rows strictly after the cursor
+     * ({@code afterCreatedAt}, {@code afterId}), or from the top when the cursor is null. Null filters match everything.
+     */
+    @Query("select c from Claim c "
+            + "where (:status is null or c.status = :status) "
+            + "and (:provider is null or c.insuranceProvider = :provider) "
+            + "and (:hospitalId is null or c.hospitalId = :hospitalId) "
+            + "and (:from is null or c.createdAt >= :from) and (:to is null or c.createdAt < :to) "
+            + "and (:afterCreatedAt is null or c.createdAt < :afterCreatedAt "
+            + "     or (c.createdAt = :afterCreatedAt and c.id < :afterId)) "
+            + "order by c.createdAt desc, c.id desc")
+    List<Claim> findPage(@Param("status") String status, @Param("provider") String provider,
+                         @Param("hospitalId") String hospitalId, @Param("from") Instant from, @Param("to") Instant to,
+                         @Param("afterCreatedAt") Instant afterCreatedAt, @Param("afterId") String afterId, Pageable page);
+
+    interface HospitalStatusCounts {
+        String getHospitalId();
+        Long getTotal();
+        Long getApproved();
+        Long getDenied();
+    }
+
+    @Query("select c.hospitalId as hospitalId, count(c) as total, "
+            + "sum(case when c.status = 'APPROVED' then 1 else 0 end) as approved, "
+            + "sum(case when c.status = 'DENIED' then 1 else 0 end) as denied "
+            + "from Claim c group by c.hospitalId")
+    List<HospitalStatusCounts> countStatusByHospital();
+
+    interface BucketCount {
+        Integer getBucket();
+        Long getTotal();
+    }
+
+    interface LabelCount {
+        String getLabel();
+        Long getTotal();
+    }
+
+    interface TimeRange {
+        Instant getFirst();
+        Instant getLast();
+    }
+
+    /**
+     * Claims per day of week (1 = Sunday .. 7 = Saturday) of submitted_at, taken at UTC {@code offset} ("+05:30");
+     * submitted_at is stored in UTC. Native because CONVERT_TZ with a numeric offset needs no time zone tables.
+     */
+    @Query(value = "SELECT DAYOFWEEK(CONVERT_TZ(submitted_at, '+00:00', :offset)) AS bucket, COUNT(*) AS total FROM claims "
+            + "WHERE (:hospitalId IS NULL OR hospital_id = :hospitalId) "
+            + "AND (:from IS NULL OR submitted_at >= :from) AND (:to IS NULL OR submitted_at < :to) "
+            + "GROUP BY bucket", nativeQuery = true)
+    List<BucketCount> countByWeekday(@Param("hospitalId") String hospitalId, @Param("from") Instant from,
+                                     @Param("to") Instant to, @Param("offset") String offset);
+
+    /** Earliest and latest submitted_at, to split an open date range at a zone's offset changes. */
+    @Query("select min(c.submittedAt) as first, max(c.submittedAt) as last from Claim c "
+            + "where (:hospitalId is null or c.hospitalId = :hospitalId)")
+    TimeRange submittedRange(@Param("hospitalId") String hospitalId);
+
+    @Query("select coalesce(c.insuranceProvider, 'Unknown') as label, count(c) as total from Claim c "
+            + "where (:hospitalId is null or c.hospitalId = :hospitalId) "
+            + "and (:from is null or c.submittedAt >= :from) and (:to is null or c.submittedAt < :to) "
+            + "group by coalesce(c.insuranceProvider, 'Unknown') order by count(c) desc")
+    List<LabelCount> countByPayer(@Param("hospitalId") String hospitalId,
+                                  @Param("from") Instant from, @Param("to") Instant to, Pageable page);
+
+    @Query("select c.status as label, count(c) as total from Claim c "
+            + "where (:hospitalId is null or c.hospitalId = :hospitalId) "
+            + "and (:from is null or c.submittedAt >= :from) and (:to is null or c.submittedAt < :to) "
+            + "group by c.status")
+    List<LabelCount> countByStatus(@Param("hospitalId") String hospitalId,
+                                   @Param("from") Instant from, @Param("to") Instant to);
+
+    interface IdText {
+        String getId();
+        String getExplanation();
+    }
+
+    @Query("select coalesce(c.denialCategory, 'OTHER') as label, count(c) as total from Claim c where c.status = 'DENIED' "
+            + "and (:hospitalId is null or c.hospitalId = :hospitalId) "
+            + "and (:from is null or c.submittedAt >= :from) and (:to is null or c.submittedAt < :to) "
+            + "group by c.denialCategory")
+    List<LabelCount> countDeniedByCategory(@Param("hospitalId") String hospitalId,
+                                           @Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("select c.id as id, c.aiExplanation as explanation from Claim c "
+            + "where c.status = 'DENIED' and c.denialCategory is null")
+    List<IdText> findUncategorisedDenials(Pageable page);
+
+    @Modifying
+    @Query("update Claim c set c.denialCategory = :category where c.id in :ids")
+    int updateDenialCategory(@Param("ids") List<String> ids, @Param("category") String category);
+
+    /** Row-locks the claims (SELECT ... FOR UPDATE) so their versions can be checked before a set-based update. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Claim c where c.id in :ids")
+    List<Claim> lockByIdIn(@Param("ids") Collection<String> ids);
+
+    /** Adjudicates locked claims in one statement; bumps the version as a JPA update would. */
+    @Modifying
+    @Query("update Claim c set c.status = :status, c.denialCategory = :category, c.processedAt = :now, "
+            + "c.updatedAt = :now, c.version = c.version + 1 where c.id in :ids")
+    int adjudicate(@Param("ids") Collection<String> ids, @Param("status") String status,
+                   @Param("category") String category, @Param("now") Instant now);
+
+    interface DuplicateKey {
+        String getId();
+        String getClaimNumber();
+        String getPatientId();
+        String getCptCode();
+        BigDecimal getAmount();
+        Instant getSubmittedAt();
+        Instant getCreatedAt();
+    }
+
+    /** Claims created after the keyset cursor, oldest first, for feeding the duplicate index (idx_claims_created_id). */
+    @Query("select c.id as id, c.claimNumber as claimNumber, c.patientId as patientId, c.cptCode as cptCode, "
+            + "c.amount as amount, c.submittedAt as submittedAt, c.createdAt as createdAt from Claim c "
+            + "where c.createdAt > :afterCreatedAt or (c.createdAt = :afterCreatedAt and c.id > :afterId) "
+            + "order by c.createdAt, c.id")
+    List<DuplicateKey> findDuplicateKeysAfter(@Param("afterCreatedAt") Instant afterCreatedAt,
+                                              @Param("afterId") String afterId, Pageable page);
 }
@@ -0,0 +1,44 @@
+package com.medibots.repository;
+
+import com.medibots.entity.HospitalKpi;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+
+public interface HospitalKpiRepository extends JpaRepository<HospitalKpi, String> {
+
+    interface Totals {
+        Long getTotalClaims();
+        Long getApprovedClaims();
+        Long getDeniedClaims();
+        BigDecimal getRevenueCollected();
+        BigDecimal getAiConfidenceSum();
+        Long getAiConfidenceCount();
+    }
+
+    /** Atomic insert-or-increment, so concurrent writers never lose a delta. */
+    @Modifying
+    @Query(value = "INSERT INTO hospital_kpis (hospital_id, total_claims, approved_claims, denied_claims, "
+            + "revenue_collected, ai_confidence_sum, ai_confidence_count, updated_at) "
+            + "VALUES (:hospitalId, :total, :approved, :denied, :revenue, :confidenceSum, :confidenceCount, CURRENT_TIMESTAMP) "
+            + "ON DUPLICATE KEY UPDATE total_claims = total_claims + VALUES(total_claims), "
+            + "approved_claims = approved_claims + VALUES(approved_claims), "
+            + "denied_claims = denied_claims + VALUES(denied_claims), "
+            + "revenue_collected = revenue_collected + VALUES(revenue_collected), "
+            + "ai_confidence_sum = ai_confidence_sum + VALUES(ai_confidence_sum), "
+            + "ai_confidence_count = ai_confidence_count + VALUES(ai_confidence_count), "
+            + "updated_at = CURRENT_TIMESTAMP", nativeQuery = true)
+    void applyDelta(@Param("hospitalId") String hospitalId, @Param("total") long total,
+                    @Param("approved") long approved, @Param("denied") long denied,
+                    @Param("revenue") BigDecimal revenue, @Param("confidenceSum") BigDecimal confidenceSum,
+                    @Param("confidenceCount") long confidenceCount);
+
+    @Query("select sum(k.totalClaims) as totalClaims, sum(k.approvedClaims) as approvedClaims, "
+            + "sum(k.deniedClaims) as deniedClaims, sum(k.revenueCollected) as revenueCollected, "
+            + "sum(k.aiConfidenceSum) as aiConfidenceSum, sum(k.aiConfidenceCount) as aiConfidenceCount "
+            + "from HospitalKpi k")
+    Totals sumAll();
+}
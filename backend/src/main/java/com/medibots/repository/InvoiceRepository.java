@@ -2,9 +2,45 @@ package com.medibots.repository;
 
 import com.medibots.entity.Invoice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 
 public interface InvoiceRepository extends JpaRepository<Invoice, String> {
     List<Invoice> findAllByOrderByCreatedAtDesc();
     List<Invoice> findByPatientIdOrderByCreatedAtDesc(String patientId);
+
+    interface HospitalRevenue {
+        String getHospitalId();
+        BigDecimal getRevenue();
+    }
+
+    @Query("select i.hospitalId as hospitalId, sum(i.totalAmount) as revenue "
+            + "from Invoice i where i.paymentStatus = 'PAID' group by i.hospitalId")
+    List<HospitalRevenue> sumPaidByHospital();
+
+    interface BucketSum {
+        Integer getBucket();
+        BigDecimal getTotal();
+    }
+
+    interface TimeRange {
+        Instant getFirst();
+        Instant getLast();
+    }
+
+    /** PAID revenue per calendar month (1..12) of created_at, taken at UTC {@code offset} ("+05:30"). */
+    @Query(value = "SELECT MONTH(CONVERT_TZ(created_at, '+00:00', :offset)) AS bucket, SUM(total_amount) AS total "
+            + "FROM invoices WHERE payment_status = 'PAID' AND (:hospitalId IS NULL OR hospital_id = :hospitalId) "
+            + "AND (:from IS NULL OR created_at >= :from) AND (:to IS NULL OR created_at < :to) "
+            + "GROUP BY bucket", nativeQuery = true)
+    List<BucketSum> sumPaidByMonth(@Param("hospitalId") String hospitalId, @Param("from") Instant from,
+                                   @Param("to") Instant to, @Param("offset") String offset);
+
+    /** Earliest and latest created_at of PAID invoices. */
+    @Query("select min(i.createdAt) as first, max(i.createdAt) as last from Invoice i "
+            + "where i.paymentStatus = 'PAID' and (:hospitalId is null or i.hospitalId = :hospitalId)")
+    TimeRange paidRange(@Param("hospitalId") String hospitalId);
 }
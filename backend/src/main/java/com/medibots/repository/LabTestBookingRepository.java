@@ -2,9 +2,45 @@ package com.medibots.repository;
 
 import com.medibots.entity.LabTestBooking;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
 import java.util.List;
 
 public interface LabTestBookingRepository extends JpaRepository<LabTestBooking, String> {
     List<LabTestBooking> findByPatientIdOrderByScheduledDateDesc(String patientId);
     List<LabTestBooking> findByHospitalIdOrderByScheduledDateDesc(String hospitalId);
+
+    @Query("select count(b) from LabTestBooking b "
+            + "where (:hospitalId is null or b.hospitalId = :hospitalId) "
+            + "and (:from is null or b.scheduledDate >= :from) and (:to is null or b.scheduledDate < :to)")
+    long countScheduled(@Param("hospitalId") String hospitalId, @Param("from") Instant from, @Param("to") Instant to);
+
+    /** Lab bookings per department of the booked catalog service, scheduled in [from, to). */
+    @Query("select s.departmentId as key, count(b) as total from LabTestBooking b join ServiceCatalog s on s.id = b.serviceCatalogId "
+            + "where s.departmentId is not null and (:hospitalId is null or b.hospitalId = :hospitalId) "
+            + "and (:from is null or b.scheduledDate >= :from) and (:to is null or b.scheduledDate < :to) "
+            + "group by s.departmentId")
+    List<OperationRepository.KeyCount> countByDepartment(@Param("hospitalId") String hospitalId,
+                                                         @Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * Lab bookings per department and month of scheduled_date taken at UTC {@code offset} ("+05:30"); bucket is
+     * yyyyMM. Native because CONVERT_TZ with a numeric offset needs no time zone tables.
+     */
+    @Query(value = "SELECT s.department_id AS `key`, "
+            + "EXTRACT(YEAR_MONTH FROM CONVERT_TZ(b.scheduled_date, '+00:00', :offset)) AS bucket, COUNT(*) AS total "
+            + "FROM lab_test_bookings b JOIN service_catalog s ON s.id = b.service_catalog_id "
+            + "WHERE s.department_id IS NOT NULL AND (:hospitalId IS NULL OR b.hospital_id = :hospitalId) "
+            + "AND (:from IS NULL OR b.scheduled_date >= :from) AND (:to IS NULL OR b.scheduled_date < :to) "
+            + "GROUP BY s.department_id, bucket", nativeQuery = true)
+    List<OperationRepository.KeyBucketCount> countByDepartmentAndMonth(@Param("hospitalId") String hospitalId,
+                                                                       @Param("from") Instant from, @Param("to") Instant to,
+                                                                       @Param("offset") String offset);
+
+    /** Earliest and latest scheduled_date, to split an open date range at a zone's offset changes. */
+    @Query("select min(b.scheduledDate) as first, max(b.scheduledDate) as last from LabTestBooking b "
+            + "where (:hospitalId is null or b.hospitalId = :hospitalId)")
+    OperationRepository.TimeRange scheduledRange(@Param("hospitalId") String hospitalId);
 }
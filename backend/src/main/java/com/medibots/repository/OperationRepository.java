@@ -2,6 +2,10 @@ package com.medibots.repository;
 
 import com.medibots.entity.Operation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
 import java.util.List;
 
 public interface OperationRepository extends JpaRepository<Operation, String> {
@@ -9,4 +13,49 @@ public interface OperationRepository extends JpaRepository<Operation, String> {
     List<Operation> findByPatientIdOrderByScheduledAtDesc(String patientId);
     List<Operation> findByDoctorIdOrderByScheduledAtDesc(String doctorId);
     List<Operation> findByOperationTheatreIdOrderByScheduledAtDesc(String operationTheatreId);
+
+    interface KeyCount {
+        String getKey();
+        Long getTotal();
+    }
+
+    interface KeyBucketCount {
+        String getKey();
+        Integer getBucket();
+        Long getTotal();
+    }
+
+    interface TimeRange {
+        Instant getFirst();
+        Instant getLast();
+    }
+
+    @Query("select count(o) from Operation o "
+            + "where (:hospitalId is null or o.hospitalId = :hospitalId) "
+            + "and (:from is null or o.scheduledAt >= :from) and (:to is null or o.scheduledAt < :to)")
+    long countScheduled(@Param("hospitalId") String hospitalId, @Param("from") Instant from, @Param("to") Instant to);
+
+    /** Operations per theatre scheduled in [from, to). */
+    @Query("select o.operationTheatreId as key, count(o) as total from Operation o "
+            + "where o.operationTheatreId is not null and (:hospitalId is null or o.hospitalId = :hospitalId) "
+            + "and (:from is null or o.scheduledAt >= :from) and (:to is null or o.scheduledAt < :to) "
+            + "group by o.operationTheatreId")
+    List<KeyCount> countByTheatre(@Param("hospitalId") String hospitalId, @Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * Operations per theatre and month of scheduled_at taken at UTC {@code offset} ("+05:30"); bucket is yyyyMM.
+     * Native because CONVERT_TZ with a numeric offset needs no time zone tables.
+     */
+    @Query(value = "SELECT operation_theatre_id AS `key`, "
+            + "EXTRACT(YEAR_MONTH FROM CONVERT_TZ(scheduled_at, '+00:00', :offset)) AS bucket, COUNT(*) AS total "
+            + "FROM operations WHERE operation_theatre_id IS NOT NULL AND (:hospitalId IS NULL OR hospital_id = :hospitalId) "
+            + "AND (:from IS NULL OR scheduled_at >= :from) AND (:to IS NULL OR scheduled_at < :to) "
+            + "GROUP BY operation_theatre_id, bucket", nativeQuery = true)
+    List<KeyBucketCount> countByTheatreAndMonth(@Param("hospitalId") String hospitalId, @Param("from") Instant from,
+                                                @Param("to") Instant to, @Param("offset") String offset);
+
+    /** Earliest and latest scheduled_at, to split an open date range at a zone's offset changes. */
+    @Query("select min(o.scheduledAt) as first, max(o.scheduledAt) as last from Operation o "
+            + "where (:hospitalId is null or o.hospitalId = :hospitalId)")
+    TimeRange scheduledRange(@Param("hospitalId") String hospitalId);
 }
@@ -2,9 +2,21 @@ package com.medibots.repository;
 
 import com.medibots.entity.OperationTheatre;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
 
 public interface OperationTheatreRepository extends JpaRepository<OperationTheatre, String> {
     List<OperationTheatre> findByHospitalIdAndStatusOrderByName(String hospitalId, String status);
     List<OperationTheatre> findByHospitalIdOrderByName(String hospitalId);
+
+    interface TheatreDepartment {
+        String getTheatreId();
+        String getDepartmentId();
+    }
+
+    @Query("select t.id as theatreId, t.departmentId as departmentId from OperationTheatre t "
+            + "where t.departmentId is not null and (:hospitalId is null or t.hospitalId = :hospitalId)")
+    List<TheatreDepartment> findDepartmentMapping(@Param("hospitalId") String hospitalId);
 }
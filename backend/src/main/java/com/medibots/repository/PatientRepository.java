@@ -2,6 +2,10 @@ package com.medibots.repository;
 
 import com.medibots.entity.Patient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,4 +14,13 @@ public interface PatientRepository extends JpaRepository<Patient, String> {
     List<Patient> findAllByOrderByCreatedAtDesc();
     List<Patient> findByHospitalIdOrderByCreatedAtDesc(String hospitalId);
     List<Patient> findByHospitalIdAndOnboardingStatusOrderByCreatedAtDesc(String hospitalId, String onboardingStatus);
+
+    interface PatientName {
+        String getId();
+        String getFullName();
+        String getUserId();
+    }
+
+    @Query("select p.id as id, p.fullName as fullName, p.userId as userId from Patient p where p.id in :ids")
+    List<PatientName> findNamesByIdIn(@Param("ids") Collection<String> ids);
 }
@@ -0,0 +1,36 @@
+package com.medibots.repository;
+
+import com.medibots.entity.RescoreJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface RescoreJobRepository extends JpaRepository<RescoreJob, String> {
+    List<RescoreJob> findByStatus(String status);
+    List<RescoreJob> findTop20ByOrderByCreatedAtDesc();
+
+    /**
+     * Moves the cursor past a committed chunk. Only matches while the job is still RUNNING and nobody else has
+     * advanced it since {@code expectedProcessed} was read, so a cancel or a second runner makes this return 0.
+     */
+    @Modifying
+    @Query("update RescoreJob j set j.cursorCreatedAt = :cursorCreatedAt, j.cursorId = :cursorId, "
+            + "j.processed = j.processed + :processed, j.failed = j.failed + :failed, j.updatedAt = :now "
+            + "where j.id = :id and j.status = 'RUNNING' and j.processed = :expectedProcessed")
+    int advance(@Param("id") String id, @Param("cursorCreatedAt") Instant cursorCreatedAt, @Param("cursorId") String cursorId,
+                @Param("processed") long processed, @Param("failed") long failed,
+                @Param("expectedProcessed") long expectedProcessed, @Param("now") Instant now);
+
+    /** Status change guarded on the current status; returns 0 when the job is not in one of {@code from}. */
+    @Modifying
+    @Query("update RescoreJob j set j.status = :status, j.error = :error, j.updatedAt = :now, "
+            + "j.finishedAt = :finishedAt "
+            + "where j.id = :id and j.status in :from")
+    int transition(@Param("id") String id, @Param("from") Collection<String> from, @Param("status") String status,
+                   @Param("error") String error, @Param("finishedAt") Instant finishedAt, @Param("now") Instant now);
+}
@@ -0,0 +1,54 @@
+package com.medibots.repository;
+
+import com.medibots.entity.RevenueDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface RevenueDailyRollupRepository extends JpaRepository<RevenueDailyRollup, String> {
+
+    interface DayTotals {
+        LocalDate getDay();
+        Long getInvoices();
+        BigDecimal getRevenue();
+    }
+
+    @Modifying
+    @Query(value = "INSERT INTO revenue_daily_rollups (id, bucket_date, hospital_id, paid_count, paid_amount, updated_at) "
+            + "VALUES (UUID(), :day, :hospitalId, :count, :amount, CURRENT_TIMESTAMP) "
+            + "ON DUPLICATE KEY UPDATE paid_count = paid_count + VALUES(paid_count), "
+            + "paid_amount = paid_amount + VALUES(paid_amount), updated_at = CURRENT_TIMESTAMP", nativeQuery = true)
+    void applyDelta(@Param("day") LocalDate day, @Param("hospitalId") String hospitalId,
+                    @Param("count") long count, @Param("amount") BigDecimal amount);
+
+    /** Re-derives buckets for PAID invoices created in [from, to) straight from the invoices table. */
+    @Modifying
+    @Query(value = "INSERT INTO revenue_daily_rollups (id, bucket_date, hospital_id, paid_count, paid_amount, updated_at) "
+            + "SELECT UUID(), g.bucket_date, g.hospital_id, g.paid_count, g.paid_amount, CURRENT_TIMESTAMP FROM ("
+            + "SELECT DATE(created_at) AS bucket_date, COALESCE(NULLIF(hospital_id, ''), 'UNASSIGNED') AS hospital_id, "
+            + "COUNT(*) AS paid_count, COALESCE(SUM(total_amount), 0) AS paid_amount FROM invoices "
+            + "WHERE payment_status = 'PAID' AND created_at >= :from AND created_at < :to "
+            + "GROUP BY DATE(created_at), COALESCE(NULLIF(hospital_id, ''), 'UNASSIGNED')) g", nativeQuery = true)
+    int insertFromInvoices(@Param("from") Instant from, @Param("to") Instant to);
+
+    @Modifying
+    @Query("delete from RevenueDailyRollup r where r.bucketDate >= :from and r.bucketDate < :to")
+    int deleteRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("delete from RevenueDailyRollup r where r.paidCount = 0")
+    int deleteEmpty();
+
+    @Query("select r.bucketDate as day, sum(r.paidCount) as invoices, sum(r.paidAmount) as revenue "
+            + "from RevenueDailyRollup r where r.bucketDate >= :from and r.bucketDate <= :to "
+            + "and (:hospitalId is null or r.hospitalId = :hospitalId) "
+            + "group by r.bucketDate order by r.bucketDate")
+    List<DayTotals> sumByDay(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                             @Param("hospitalId") String hospitalId);
+}
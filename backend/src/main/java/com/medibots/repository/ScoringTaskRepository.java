@@ -0,0 +1,48 @@
+package com.medibots.repository;
+
+import com.medibots.entity.ScoringTask;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface ScoringTaskRepository extends JpaRepository<ScoringTask, String> {
+
+    /**
+     * Queues a claim; a claim already queued keeps its row and becomes available now if it was backing off.
+     * Native, so the id is passed in its BINARY(16) form ({@code Ids.toBytes}).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO scoring_tasks (claim_id, attempts, available_at, created_at) VALUES (:claimId, 0, :now, :now) "
+            + "ON DUPLICATE KEY UPDATE available_at = LEAST(available_at, VALUES(available_at))", nativeQuery = true)
+    void enqueue(@Param("claimId") byte[] claimId, @Param("now") Instant now);
+
+    @Query("select t.claimId from ScoringTask t where t.availableAt <= :now "
+            + "and (t.lockedUntil is null or t.lockedUntil < :now) order by t.availableAt")
+    List<String> findClaimable(@Param("now") Instant now, Pageable page);
+
+    /** Leases the given rows unless another worker holds a live lease on them; read back with findByLockedBy. */
+    @Modifying
+    @Query("update ScoringTask t set t.lockedBy = :token, t.lockedUntil = :until "
+            + "where t.claimId in :ids and (t.lockedUntil is null or t.lockedUntil < :now)")
+    int lease(@Param("ids") Collection<String> ids, @Param("token") String token,
+              @Param("until") Instant until, @Param("now") Instant now);
+
+    List<ScoringTask> findByLockedBy(String lockedBy);
+
+    /** Removes the task if this lease still holds it. */
+    @Modifying
+    @Query("delete from ScoringTask t where t.claimId = :claimId and t.lockedBy = :token")
+    int complete(@Param("claimId") String claimId, @Param("token") String token);
+
+    @Modifying
+    @Query("update ScoringTask t set t.attempts = t.attempts + 1, t.availableAt = :availableAt, t.lastError = :error, "
+            + "t.lockedBy = null, t.lockedUntil = null where t.claimId = :claimId and t.lockedBy = :token")
+    int retryLater(@Param("claimId") String claimId, @Param("token") String token,
+                   @Param("availableAt") Instant availableAt, @Param("error") String error);
+}
@@ -2,10 +2,20 @@ package com.medibots.repository;
 
 import com.medibots.entity.ServiceCatalog;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
 
 public interface ServiceCatalogRepository extends JpaRepository<ServiceCatalog, String> {
     List<ServiceCatalog> findByHospitalIdAndStatusOrderByName(String hospitalId, String status);
     List<ServiceCatalog> findByHospitalIdOrderByName(String hospitalId);
     List<ServiceCatalog> findByHospitalIdAndServiceTypeOrderByName(String hospitalId, String serviceType);
+
+    long countByHospitalId(String hospitalId);
+
+    @Query("select s.departmentId as key, count(s) as total from ServiceCatalog s "
+            + "where s.departmentId is not null and s.departmentId <> '' and (:hospitalId is null or s.hospitalId = :hospitalId) "
+            + "group by s.departmentId")
+    List<OperationRepository.KeyCount> countByDepartment(@Param("hospitalId") String hospitalId);
 }
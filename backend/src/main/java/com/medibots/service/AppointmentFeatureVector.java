@@ -0,0 +1,79 @@
+package com.medibots.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static com.medibots.service.FeatureJson.*;
+
+/** No-show model input. */
+public record AppointmentFeatureVector(
+        int bookingLeadTimeDays,
+        String appointmentType,
+        String timeSlot,
+        String weekday,
+        int previousNoShowCount,
+        int reminderCount,
+        boolean smsReminderSent,
+        double distanceFromHospitalKm,
+        int patientAge,
+        String patientGender,
+        double consultationFee,
+        int previousLatePayments) implements FeatureVector {
+
+    private static final SerializableString BOOKING_LEAD_TIME_DAYS = name("booking_lead_time_days");
+    private static final SerializableString APPOINTMENT_TYPE = name("appointment_type");
+    private static final SerializableString TIME_SLOT = name("time_slot");
+    private static final SerializableString WEEKDAY = name("weekday");
+    private static final SerializableString PREVIOUS_NO_SHOW_COUNT = name("previous_no_show_count");
+    private static final SerializableString REMINDER_COUNT = name("reminder_count");
+    private static final SerializableString SMS_REMINDER_SENT = name("sms_reminder_sent");
+    private static final SerializableString DISTANCE_FROM_HOSPITAL_KM = name("distance_from_hospital_km");
+    private static final SerializableString PATIENT_AGE = name("patient_age");
+    private static final SerializableString PATIENT_GENDER = name("patient_gender");
+    private static final SerializableString CONSULTATION_FEE = name("consultation_fee");
+    private static final SerializableString PREVIOUS_LATE_PAYMENTS = name("previous_late_payments");
+
+    public AppointmentFeatureVector {
+        appointmentType = orElse(appointmentType, "CONSULTATION");
+        timeSlot = orElse(timeSlot, "10:00");
+        weekday = orElse(weekday, "Monday");
+        patientGender = orElse(patientGender, "MALE");
+    }
+
+    public static AppointmentFeatureVector from(Map<String, Object> f) {
+        return new AppointmentFeatureVector(
+                integer(f.get("booking_lead_time_days"), 7),
+                str(f.get("appointment_type")),
+                str(f.get("time_slot")),
+                str(f.get("weekday")),
+                integer(f.get("previous_no_show_count"), 0),
+                integer(f.get("reminder_count"), 1),
+                bool(f.get("sms_reminder_sent"), true),
+                num(f.get("distance_from_hospital_km"), 10),
+                integer(f.get("patient_age"), 40),
+                str(f.get("patient_gender")),
+                num(f.get("consultation_fee"), 300),
+                integer(f.get("previous_late_payments"), 0));
+    }
+
+    @Override
+    public void writeTo(JsonGenerator g) throws IOException {
+        g.writeStartObject();
+        field(g, BOOKING_LEAD_TIME_DAYS, bookingLeadTimeDays);
+        field(g, APPOINTMENT_TYPE, appointmentType);
+        field(g, TIME_SLOT, timeSlot);
+        field(g, WEEKDAY, weekday);
+        field(g, PREVIOUS_NO_SHOW_COUNT, previousNoShowCount);
+        field(g, REMINDER_COUNT, reminderCount);
+        field(g, SMS_REMINDER_SENT, smsReminderSent);
+        field(g, DISTANCE_FROM_HOSPITAL_KM, distanceFromHospitalKm);
+        field(g, PATIENT_AGE, patientAge);
+        field(g, PATIENT_GENDER, patientGender);
+        field(g, CONSULTATION_FEE, consultationFee);
+        field(g, PREVIOUS_LATE_PAYMENTS, previousLatePayments);
+        g.writeEndObject();
+    }
+}
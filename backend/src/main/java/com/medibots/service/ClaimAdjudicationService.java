@@ -0,0 +1,147 @@
+package com.medibots.service;
+
+import com.medibots.entity.Claim;
+import com.medibots.entity.Ids;
+import com.medibots.event.ClaimChangedEvent;
+import com.medibots.repository.ClaimRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Approves or denies claims in bulk. Requests are processed in batches of {@code app.adjudication.batch-size}, one
+ * transaction each: the batch is row-locked, every claim's version is compared with the one the reviewer saw, and
+ * the claims that pass are written with one UPDATE per resulting (status, denial category). A claim changed since
+ * the reviewer read it is reported as CONFLICT and left alone, so concurrent reviewers cannot overwrite each other.
+ */
+@Service
+public class ClaimAdjudicationService {
+    private static final Logger log = LoggerFactory.getLogger(ClaimAdjudicationService.class);
+    public static final String UPDATED = "UPDATED";
+    public static final String UNCHANGED = "UNCHANGED";
+    public static final String CONFLICT = "CONFLICT";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    /** The claim's batch could not be committed (e.g. lock wait timeout); nothing in that batch was changed. */
+    public static final String FAILED = "FAILED";
+
+    public enum Action {
+        APPROVE("APPROVED"), REJECT("DENIED");
+
+        private final String status;
+
+        Action(String status) {
+            this.status = status;
+        }
+
+        public String status() { return status; }
+
+        /** "approve" / "reject" (also "deny"); null for anything else. */
+        public static Action parse(String action) {
+            if (action == null) return null;
+            return switch (action.trim().toLowerCase(Locale.ROOT)) {
+                case "approve" -> APPROVE;
+                case "reject", "deny" -> REJECT;
+                default -> null;
+            };
+        }
+    }
+
+    /** A claim to adjudicate; {@code expectedVersion} null skips the conflict check (last writer wins). */
+    public record Request(String claimId, Long expectedVersion) {}
+
+    /** Per-claim result; status and version are the values after the call (null when not found). */
+    public record Outcome(String claimId, String outcome, String status, Long version) {}
+
+    private final ClaimRepository claimRepo;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher publisher;
+    private final int batchSize;
+
+    public ClaimAdjudicationService(ClaimRepository claimRepo, TransactionTemplate tx, ApplicationEventPublisher publisher,
+                                    @Value("${app.adjudication.batch-size:500}") int batchSize) {
+        this.claimRepo = claimRepo;
+        this.tx = tx;
+        this.publisher = publisher;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /** Outcomes in request order; a claim id listed twice is adjudicated once (the first entry wins). */
+    public List<Outcome> adjudicate(Action action, List<Request> requests) {
+        Map<String, Request> unique = new LinkedHashMap<>();
+        for (Request r : requests) {
+            if (r.claimId() != null) unique.putIfAbsent(r.claimId(), r);
+        }
+        List<Request> todo = new ArrayList<>(unique.values());
+        Map<String, Outcome> outcomes = new HashMap<>();
+        for (int from = 0; from < todo.size(); from += batchSize) {
+            List<Request> batch = todo.subList(from, Math.min(todo.size(), from + batchSize));
+            try {
+                outcomes.putAll(tx.execute(s -> adjudicateBatch(action, batch)));
+            } catch (RuntimeException e) {
+                log.warn("Adjudication batch of {} claims failed: {}", batch.size(), e.getMessage());
+                for (Request r : batch) outcomes.put(r.claimId(), new Outcome(r.claimId(), FAILED, null, null));
+            }
+        }
+        List<Outcome> out = new ArrayList<>(todo.size());
+        for (Request r : todo) out.add(outcomes.get(r.claimId()));
+        return out;
+    }
+
+    private Map<String, Outcome> adjudicateBatch(Action action, List<Request> batch) {
+        Map<String, Outcome> outcomes = new HashMap<>();
+        List<String> ids = new ArrayList<>(batch.size());
+        for (Request r : batch) {
+            if (Ids.isId(r.claimId())) ids.add(r.claimId());
+            else outcomes.put(r.claimId(), new Outcome(r.claimId(), NOT_FOUND, null, null));
+        }
+        Map<String, Claim> locked = new HashMap<>();
+        // FOR UPDATE on the primary key locks in key order, so overlapping batches of two reviewers cannot deadlock
+        if (!ids.isEmpty()) {
+            for (Claim c : claimRepo.lockByIdIn(ids)) locked.put(c.getId(), c);
+        }
+        String status = action.status();
+        // one UPDATE per denial category (a single one for approvals)
+        Map<String, List<Claim>> byCategory = new HashMap<>();
+        for (Request r : batch) {
+            String id = r.claimId();
+            if (outcomes.containsKey(id)) continue;
+            Claim c = locked.get(id);
+            Long expected = r.expectedVersion();
+            if (c == null) {
+                outcomes.put(id, new Outcome(id, NOT_FOUND, null, null));
+            } else if (expected != null && expected != c.getVersion()) {
+                outcomes.put(id, new Outcome(id, CONFLICT, c.getStatus(), c.getVersion()));
+            } else if (status.equals(c.getStatus())) {
+                outcomes.put(id, new Outcome(id, UNCHANGED, c.getStatus(), c.getVersion()));
+            } else {
+                String category = action == Action.REJECT
+                        ? DenialCategoryService.classify(c.getAiExplanation()).name() : null;
+                byCategory.computeIfAbsent(category, k -> new ArrayList<>()).add(c);
+                outcomes.put(id, new Outcome(id, UPDATED, status, c.getVersion() + 1));
+            }
+        }
+        if (byCategory.isEmpty()) return outcomes;
+        Instant now = Instant.now();
+        byCategory.forEach((category, claims) ->
+                claimRepo.adjudicate(claims.stream().map(Claim::getId).toList(), status, category, now));
+        // the bulk update bypasses the entity listener; listeners run once the batch commits
+        for (List<Claim> claims : byCategory.values()) {
+            for (Claim c : claims) {
+                Claim.Snapshot before = c.persisted();
+                if (before != null) publisher.publishEvent(new ClaimChangedEvent(before, before.withStatus(status)));
+            }
+        }
+        return outcomes;
+    }
+}
@@ -0,0 +1,374 @@
+package com.medibots.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar in-memory store of claim facts for ad-hoc group-by queries.
+ * Each dimension is a dictionary-encoded int column, measures are primitive double columns, and claim ids are kept
+ * as two long columns behind an open-addressing index so updates land on the existing row. Rows are never moved;
+ * deleted claims are masked out. One writer or many readers at a time.
+ */
+public class ClaimCube {
+    public static final String UNKNOWN = "Unknown";
+    /** Dense aggregation arrays are used while the group key space stays below this size. */
+    private static final int DENSE_LIMIT = 1 << 16;
+    /** Minimum rows per parallel scan range. */
+    private static final int PARALLEL_CHUNK = 1 << 17;
+    /**
+     * Threads for parallel scans, shared by every cube: half the cores, so a burst of large queries cannot take the
+     * whole machine and does not compete with other users of the common ForkJoinPool.
+     */
+    private static final int SCAN_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final ExecutorService SCAN_POOL = Executors.newFixedThreadPool(SCAN_THREADS,
+            Thread.ofPlatform().name("claim-cube-scan-", 0).daemon().factory());
+
+    public enum Dimension {
+        PAYER, STATUS, HOSPITAL, MONTH, PROCEDURE_CATEGORY, CLAIM_TYPE, HOSPITAL_TIER;
+
+        public String param() { return name().toLowerCase(Locale.ROOT); }
+
+        public static Dimension of(String param) {
+            return valueOf(param.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private static final int DIMS = Dimension.values().length;
+
+    /** One aggregated group; {@code keys} follow the requested group-by order. */
+    public record Group(String[] keys, long count, double amountSum, long riskCount, double riskSum) {
+        public double amountAvg() { return count > 0 ? amountSum / count : 0; }
+        public double riskAvg() { return riskCount > 0 ? riskSum / riskCount : 0; }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Dictionary[] dictionaries = new Dictionary[DIMS];
+    private final int[][] codes = new int[DIMS][];
+    private double[] amount;
+    private double[] risk;
+    private long[] idHi;
+    private long[] idLo;
+    private final BitSet removed = new BitSet();
+    private int rows;
+    private int live;
+    private int[] slots;
+
+    public ClaimCube() {
+        this(1024);
+    }
+
+    public ClaimCube(int initialCapacity) {
+        int cap = Math.max(16, initialCapacity);
+        for (int d = 0; d < DIMS; d++) {
+            dictionaries[d] = new Dictionary();
+            codes[d] = new int[cap];
+        }
+        amount = new double[cap];
+        risk = new double[cap];
+        idHi = new long[cap];
+        idLo = new long[cap];
+        slots = new int[Integer.highestOneBit(cap * 2 - 1) << 1];
+    }
+
+    /** Number of live (not deleted) claims. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts or replaces the fact for a claim. {@code values} are indexed by {@link Dimension#ordinal()};
+     * nulls and blanks are stored as {@value #UNKNOWN}. A null risk score is passed as {@code Double.NaN}.
+     */
+    public void upsert(String id, String[] values, double amountValue, double riskScore) {
+        long[] key = key(id);
+        lock.writeLock().lock();
+        try {
+            int row = find(key[0], key[1]);
+            if (row < 0) {
+                ensureCapacity(rows + 1);
+                row = rows++;
+                idHi[row] = key[0];
+                idLo[row] = key[1];
+                index(row);
+                live++;
+            } else if (removed.get(row)) {
+                removed.clear(row);
+                live++;
+            }
+            for (int d = 0; d < DIMS; d++) {
+                String v = values[d];
+                codes[d][row] = dictionaries[d].code(v != null && !v.isBlank() ? v : UNKNOWN);
+            }
+            amount[row] = amountValue;
+            risk[row] = riskScore;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        long[] key = key(id);
+        lock.writeLock().lock();
+        try {
+            int row = find(key[0], key[1]);
+            if (row >= 0 && !removed.get(row)) {
+                removed.set(row);
+                live--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Groups live facts by the given dimensions (none = one grand total) after applying equality filters,
+     * ordered by count descending.
+     */
+    public List<Group> query(List<Dimension> groupBy, Map<Dimension, String> filters) {
+        lock.readLock().lock();
+        try {
+            int[] filterDims = new int[filters.size()];
+            int[] filterCodes = new int[filters.size()];
+            int f = 0;
+            for (var e : filters.entrySet()) {
+                Integer c = dictionaries[e.getKey().ordinal()].lookup(e.getValue());
+                if (c == null) return List.of();
+                filterDims[f] = e.getKey().ordinal();
+                filterCodes[f++] = c;
+            }
+            int k = groupBy.size();
+            int[] g = new int[k];
+            long[] radix = new long[k];
+            long space = 1;
+            for (int i = 0; i < k; i++) {
+                g[i] = groupBy.get(i).ordinal();
+                radix[i] = Math.max(1, dictionaries[g[i]].size());
+                space = space <= Long.MAX_VALUE / radix[i] ? space * radix[i] : Long.MAX_VALUE;
+            }
+            return space <= DENSE_LIMIT
+                    ? dense(g, radix, (int) space, filterDims, filterCodes)
+                    : sparse(g, radix, filterDims, filterCodes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Direct-indexed accumulators over the mixed-radix group key. Large cubes are scanned in parallel
+     * row ranges on the scan pool, each with its own accumulators, merged at the end; the caller scans the first range.
+     */
+    private List<Group> dense(int[] g, long[] radix, int space, int[] filterDims, int[] filterCodes) {
+        int k = g.length;
+        int[][] cols = new int[k][];
+        int[] mult = new int[k];
+        int m = 1;
+        for (int i = k - 1; i >= 0; i--) {
+            cols[i] = codes[g[i]];
+            mult[i] = m;
+            m *= (int) radix[i];
+        }
+        int[][] filterCols = new int[filterDims.length][];
+        for (int i = 0; i < filterDims.length; i++) filterCols[i] = codes[filterDims[i]];
+        int n = rows;
+        int chunks = Math.max(1, Math.min(SCAN_THREADS + 1, n / PARALLEL_CHUNK));
+        int step = (n + chunks - 1) / chunks;
+        List<Future<DenseAcc>> parts = new ArrayList<>(chunks - 1);
+        for (int c = 1; c < chunks; c++) {
+            int from = c * step;
+            int to = Math.min(n, from + step);
+            parts.add(SCAN_POOL.submit(() -> scan(new DenseAcc(space), from, to, cols, mult, filterCols, filterCodes)));
+        }
+        DenseAcc acc = scan(new DenseAcc(space), 0, Math.min(n, step), cols, mult, filterCols, filterCodes);
+        try {
+            for (Future<DenseAcc> part : parts) acc.merge(part.get());
+        } catch (InterruptedException e) {
+            parts.forEach(part -> part.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scanning the claim cube", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Claim cube scan failed", e.getCause());
+        }
+        List<Group> out = new ArrayList<>();
+        for (int s = 0; s < space; s++) {
+            if (acc.count[s] > 0) out.add(new Group(decode(s, g, radix), acc.count[s], acc.amountSum[s], acc.riskCount[s], acc.riskSum[s]));
+        }
+        out.sort(Comparator.comparingLong(Group::count).reversed());
+        return out;
+    }
+
+    private DenseAcc scan(DenseAcc acc, int from, int to, int[][] cols, int[] mult, int[][] filterCols, int[] filterCodes) {
+        double[] amount = this.amount;
+        double[] risk = this.risk;
+        int k = cols.length;
+        rows:
+        for (int r = from; r < to; r++) {
+            for (int i = 0; i < filterCols.length; i++) {
+                if (filterCols[i][r] != filterCodes[i]) continue rows;
+            }
+            if (removed.get(r)) continue;
+            int slot = 0;
+            for (int i = 0; i < k; i++) slot += cols[i][r] * mult[i];
+            acc.count[slot]++;
+            acc.amountSum[slot] += amount[r];
+            double v = risk[r];
+            if (v == v) {
+                acc.riskCount[slot]++;
+                acc.riskSum[slot] += v;
+            }
+        }
+        return acc;
+    }
+
+    private static final class DenseAcc {
+        final long[] count;
+        final double[] amountSum;
+        final long[] riskCount;
+        final double[] riskSum;
+
+        DenseAcc(int space) {
+            count = new long[space];
+            amountSum = new double[space];
+            riskCount = new long[space];
+            riskSum = new double[space];
+        }
+
+        DenseAcc merge(DenseAcc o) {
+            for (int s = 0; s < count.length; s++) {
+                count[s] += o.count[s];
+                amountSum[s] += o.amountSum[s];
+                riskCount[s] += o.riskCount[s];
+                riskSum[s] += o.riskSum[s];
+            }
+            return this;
+        }
+    }
+
+    private List<Group> sparse(int[] g, long[] radix, int[] filterDims, int[] filterCodes) {
+        Map<Long, double[]> acc = new HashMap<>();
+        for (int r = 0; r < rows; r++) {
+            if (!matches(r, filterDims, filterCodes)) continue;
+            double[] a = acc.computeIfAbsent(groupKey(r, g, radix), x -> new double[4]);
+            a[0]++;
+            a[1] += amount[r];
+            double v = risk[r];
+            if (!Double.isNaN(v)) {
+                a[2]++;
+                a[3] += v;
+            }
+        }
+        List<Group> out = new ArrayList<>(acc.size());
+        acc.forEach((key, a) -> out.add(new Group(decode(key, g, radix), (long) a[0], a[1], (long) a[2], a[3])));
+        out.sort(Comparator.comparingLong(Group::count).reversed());
+        return out;
+    }
+
+    private boolean matches(int r, int[] filterDims, int[] filterCodes) {
+        if (removed.get(r)) return false;
+        for (int i = 0; i < filterDims.length; i++) {
+            if (codes[filterDims[i]][r] != filterCodes[i]) return false;
+        }
+        return true;
+    }
+
+    private long groupKey(int r, int[] g, long[] radix) {
+        long key = 0;
+        for (int i = 0; i < g.length; i++) key = key * radix[i] + codes[g[i]][r];
+        return key;
+    }
+
+    private String[] decode(long key, int[] g, long[] radix) {
+        String[] keys = new String[g.length];
+        for (int i = g.length - 1; i >= 0; i--) {
+            keys[i] = dictionaries[g[i]].value((int) (key % radix[i]));
+            key /= radix[i];
+        }
+        return keys;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= amount.length) return;
+        int cap = amount.length * 2;
+        for (int d = 0; d < DIMS; d++) codes[d] = Arrays.copyOf(codes[d], cap);
+        amount = Arrays.copyOf(amount, cap);
+        risk = Arrays.copyOf(risk, cap);
+        idHi = Arrays.copyOf(idHi, cap);
+        idLo = Arrays.copyOf(idLo, cap);
+        if (cap * 2 > slots.length) {
+            slots = new int[slots.length * 2];
+            for (int r = 0; r < rows; r++) index(r);
+        }
+    }
+
+    /** Open addressing over row numbers (stored +1 so 0 means empty). */
+    private void index(int row) {
+        int mask = slots.length - 1;
+        int i = mix(idHi[row], idLo[row]) & mask;
+        while (slots[i] != 0) i = (i + 1) & mask;
+        slots[i] = row + 1;
+    }
+
+    private int find(long hi, long lo) {
+        int mask = slots.length - 1;
+        int i = mix(hi, lo) & mask;
+        int s;
+        while ((s = slots[i]) != 0) {
+            int row = s - 1;
+            if (idHi[row] == hi && idLo[row] == lo) return row;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int mix(long hi, long lo) {
+        long h = hi * 0x9E3779B97F4A7C15L ^ lo;
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16));
+    }
+
+    /** Claim ids are UUID strings; anything else is mapped to a name-based UUID. */
+    private static long[] key(String id) {
+        UUID u;
+        try {
+            u = UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            u = UUID.nameUUIDFromBytes(id.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        }
+        return new long[]{u.getMostSignificantBits(), u.getLeastSignificantBits()};
+    }
+
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int code(String v) {
+            Integer c = codes.get(v);
+            if (c != null) return c;
+            codes.put(v, values.size());
+            values.add(v);
+            return values.size() - 1;
+        }
+
+        Integer lookup(String v) { return codes.get(v); }
+
+        String value(int code) { return values.get(code); }
+
+        int size() { return values.size(); }
+    }
+}
@@ -0,0 +1,137 @@
+package com.medibots.service;
+
+import com.medibots.entity.Claim;
+import com.medibots.entity.Ids;
+import com.medibots.event.ClaimChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the {@link ClaimCube} in step with the claims table: a streamed bulk load at startup (or on demand),
+ * then every committed claim change is applied as an upsert / remove. Changes that arrive while a load is
+ * running are queued and replayed on top of the freshly loaded cube.
+ */
+@Service
+public class ClaimCubeService {
+    private static final Logger log = LoggerFactory.getLogger(ClaimCubeService.class);
+    /** Month of submitted_at in the server zone, the zone the dashboards' date filters use. */
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM").withZone(ZoneId.systemDefault());
+
+    private final JdbcTemplate jdbc;
+    private volatile ClaimCube cube;
+    private boolean loading;
+    private final List<ClaimChangedEvent> pending = new ArrayList<>();
+
+    public ClaimCubeService(DataSource dataSource, @Value("${app.export.fetch-size:500}") int fetchSize) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(fetchSize);
+    }
+
+    /** The loaded cube, or null until the first load has finished. */
+    public ClaimCube cube() {
+        return cube;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("Claim cube load failed: {}", e.getMessage());
+        }
+    }
+
+    /** Rebuilds the cube from the claims table and swaps it in; returns the number of facts loaded. */
+    public int reload() {
+        synchronized (this) {
+            if (loading) return -1;
+            loading = true;
+        }
+        ClaimCube fresh = null;
+        try {
+            Integer count = jdbc.queryForObject("select count(*) from claims", Integer.class);
+            ClaimCube next = new ClaimCube(count != null ? count + count / 4 : 1024);
+            jdbc.query("select id, insurance_provider, status, hospital_id, submitted_at, procedure_category, claim_type, "
+                    + "hospital_tier, amount, ai_risk_score from claims", rs -> {
+                Timestamp submitted = rs.getTimestamp("submitted_at");
+                BigDecimal amount = rs.getBigDecimal("amount");
+                BigDecimal risk = rs.getBigDecimal("ai_risk_score");
+                next.upsert(Ids.fromBytes(rs.getBytes("id")), values(rs.getString("insurance_provider"), rs.getString("status"),
+                                rs.getString("hospital_id"), submitted != null ? submitted.toInstant() : null,
+                                rs.getString("procedure_category"), rs.getString("claim_type"), rs.getString("hospital_tier")),
+                        amount != null ? amount.doubleValue() : 0, risk != null ? risk.doubleValue() : Double.NaN);
+            });
+            fresh = next;
+            return next.size();
+        } finally {
+            synchronized (this) {
+                if (fresh != null) {
+                    for (ClaimChangedEvent e : pending) apply(fresh, e);
+                    cube = fresh;
+                    log.info("Claim cube loaded: {} facts", fresh.size());
+                }
+                pending.clear();
+                loading = false;
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClaimChanged(ClaimChangedEvent e) {
+        synchronized (this) {
+            if (loading) {
+                pending.add(e);
+                return;
+            }
+        }
+        ClaimCube c = cube;
+        if (c != null) apply(c, e);
+    }
+
+    private static void apply(ClaimCube c, ClaimChangedEvent e) {
+        Claim.Snapshot a = e.after();
+        if (a == null) {
+            if (e.before() != null) c.remove(e.before().id());
+            return;
+        }
+        c.upsert(a.id(), values(a.insuranceProvider(), a.status(), a.hospitalId(), a.submittedAt(), a.procedureCategory(),
+                        a.claimType(), a.hospitalTier()),
+                a.amount() != null ? a.amount().doubleValue() : 0,
+                a.aiRiskScore() != null ? a.aiRiskScore().doubleValue() : Double.NaN);
+    }
+
+    private static String[] values(String payer, String status, String hospitalId, Instant submittedAt,
+                                   String procedureCategory, String claimType, String hospitalTier) {
+        String[] v = new String[ClaimCube.Dimension.values().length];
+        v[ClaimCube.Dimension.PAYER.ordinal()] = payer;
+        v[ClaimCube.Dimension.STATUS.ordinal()] = status;
+        v[ClaimCube.Dimension.HOSPITAL.ordinal()] = hospitalId;
+        v[ClaimCube.Dimension.MONTH.ordinal()] = submittedAt != null ? MONTH.format(submittedAt) : null;
+        v[ClaimCube.Dimension.PROCEDURE_CATEGORY.ordinal()] = procedureCategory;
+        v[ClaimCube.Dimension.CLAIM_TYPE.ordinal()] = claimType;
+        v[ClaimCube.Dimension.HOSPITAL_TIER.ordinal()] = hospitalTier;
+        return v;
+    }
+
+    /** Runs a group-by against the current cube; null while the first load is still running. */
+    public List<ClaimCube.Group> query(List<ClaimCube.Dimension> groupBy, Map<ClaimCube.Dimension, String> filters) {
+        ClaimCube c = cube;
+        return c != null ? c.query(groupBy, filters) : null;
+    }
+}
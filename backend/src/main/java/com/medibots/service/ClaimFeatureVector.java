@@ -0,0 +1,175 @@
+package com.medibots.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.medibots.entity.Claim;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static com.medibots.service.FeatureJson.*;
+
+/**
+ * Denial-model input. Missing values take the defaults the model was trained with; {@code preauthorizationObtained}
+ * and {@code doctorSpecialization} have none and are left out when null. {@code patientName} is only sent to the
+ * insights endpoint.
+ */
+public record ClaimFeatureVector(
+        double claimAmount,
+        double coverageLimit,
+        double deductibleAmount,
+        String insuranceProvider,
+        String policyType,
+        boolean preauthorizationRequired,
+        Boolean preauthorizationObtained,
+        String primaryIcdCode,
+        String secondaryIcdCode,
+        String cptCode,
+        String procedureCategory,
+        double medicalNecessityScore,
+        int priorDenialCount,
+        int resubmissionCount,
+        int daysToSubmission,
+        boolean documentationComplete,
+        String claimType,
+        int patientAge,
+        String patientGender,
+        boolean chronicConditionFlag,
+        String doctorSpecialization,
+        String hospitalTier,
+        double hospitalClaimSuccessRate,
+        String patientName) implements FeatureVector {
+
+    private static final SerializableString CLAIM_AMOUNT = name("claim_amount");
+    private static final SerializableString COVERAGE_LIMIT = name("coverage_limit");
+    private static final SerializableString DEDUCTIBLE_AMOUNT = name("deductible_amount");
+    private static final SerializableString INSURANCE_PROVIDER = name("insurance_provider");
+    private static final SerializableString POLICY_TYPE = name("policy_type");
+    private static final SerializableString PREAUTHORIZATION_REQUIRED = name("preauthorization_required");
+    private static final SerializableString PREAUTHORIZATION_OBTAINED = name("preauthorization_obtained");
+    private static final SerializableString PRIMARY_ICD_CODE = name("primary_icd_code");
+    private static final SerializableString SECONDARY_ICD_CODE = name("secondary_icd_code");
+    private static final SerializableString CPT_CODE = name("cpt_code");
+    private static final SerializableString PROCEDURE_CATEGORY = name("procedure_category");
+    private static final SerializableString MEDICAL_NECESSITY_SCORE = name("medical_necessity_score");
+    private static final SerializableString PRIOR_DENIAL_COUNT = name("prior_denial_count");
+    private static final SerializableString RESUBMISSION_COUNT = name("resubmission_count");
+    private static final SerializableString DAYS_TO_SUBMISSION = name("days_to_submission");
+    private static final SerializableString DOCUMENTATION_COMPLETE = name("documentation_complete");
+    private static final SerializableString CLAIM_TYPE = name("claim_type");
+    private static final SerializableString PATIENT_AGE = name("patient_age");
+    private static final SerializableString PATIENT_GENDER = name("patient_gender");
+    private static final SerializableString CHRONIC_CONDITION_FLAG = name("chronic_condition_flag");
+    private static final SerializableString DOCTOR_SPECIALIZATION = name("doctor_specialization");
+    private static final SerializableString HOSPITAL_TIER = name("hospital_tier");
+    private static final SerializableString HOSPITAL_CLAIM_SUCCESS_RATE = name("hospital_claim_success_rate");
+    private static final SerializableString PATIENT_NAME = name("patient_name");
+
+    public ClaimFeatureVector {
+        insuranceProvider = orElse(insuranceProvider, "Unknown");
+        policyType = orElse(policyType, "PPO");
+        primaryIcdCode = orElse(primaryIcdCode, "J06.9");
+        secondaryIcdCode = orElse(secondaryIcdCode, "");
+        cptCode = orElse(cptCode, "99213");
+        procedureCategory = orElse(procedureCategory, "Outpatient");
+        claimType = orElse(claimType, "OUTPATIENT");
+        patientGender = orElse(patientGender, "MALE");
+        hospitalTier = orElse(hospitalTier, "TIER2");
+    }
+
+    /** From a request body keyed like POST /api/claims ({@code amount}, {@code coverage_limit}, ...). */
+    public static ClaimFeatureVector from(Map<String, Object> f) {
+        return new ClaimFeatureVector(
+                num(f.get("amount"), 5000),
+                num(f.get("coverage_limit"), 50000),
+                num(f.get("deductible_amount"), 500),
+                str(f.get("insurance_provider")),
+                str(f.get("policy_type")),
+                bool(f.get("preauthorization_required"), false),
+                bool(f.get("preauthorization_obtained")),
+                str(f.get("primary_icd_code")),
+                str(f.get("secondary_icd_code")),
+                str(f.get("cpt_code")),
+                str(f.get("procedure_category")),
+                num(f.get("medical_necessity_score"), 70),
+                integer(f.get("prior_denial_count"), 0),
+                integer(f.get("resubmission_count"), 0),
+                integer(f.get("days_to_submission"), 30),
+                bool(f.get("documentation_complete"), true),
+                str(f.get("claim_type")),
+                integer(f.get("patient_age"), 40),
+                str(f.get("patient_gender")),
+                bool(f.get("chronic_condition_flag"), false),
+                str(f.get("doctor_specialization")),
+                str(f.get("hospital_tier")),
+                num(f.get("hospital_claim_success_rate"), 0.8),
+                null);
+    }
+
+    /** Denial-model inputs of a stored claim. */
+    public static ClaimFeatureVector of(Claim c) {
+        return new ClaimFeatureVector(
+                num(c.getAmount(), 5000),
+                num(c.getCoverageLimit(), 50000),
+                num(c.getDeductibleAmount(), 500),
+                c.getInsuranceProvider(),
+                c.getPolicyType(),
+                bool(c.getPreauthorizationRequired(), false),
+                c.getPreauthorizationObtained(),
+                c.getPrimaryIcdCode(),
+                c.getSecondaryIcdCode(),
+                c.getCptCode(),
+                c.getProcedureCategory(),
+                c.getMedicalNecessityScore() != null ? c.getMedicalNecessityScore() : 70,
+                c.getPriorDenialCount() != null ? c.getPriorDenialCount() : 0,
+                c.getResubmissionCount() != null ? c.getResubmissionCount() : 0,
+                c.getDaysToSubmission() != null ? c.getDaysToSubmission() : 30,
+                bool(c.getDocumentationComplete(), true),
+                c.getClaimType(),
+                c.getPatientAge() != null ? c.getPatientAge() : 40,
+                c.getPatientGender(),
+                bool(c.getChronicConditionFlag(), false),
+                c.getDoctorSpecialization(),
+                c.getHospitalTier(),
+                num(c.getHospitalClaimSuccessRate(), 0.8),
+                null);
+    }
+
+    public ClaimFeatureVector withPatientName(String name) {
+        return new ClaimFeatureVector(claimAmount, coverageLimit, deductibleAmount, insuranceProvider, policyType,
+                preauthorizationRequired, preauthorizationObtained, primaryIcdCode, secondaryIcdCode, cptCode,
+                procedureCategory, medicalNecessityScore, priorDenialCount, resubmissionCount, daysToSubmission,
+                documentationComplete, claimType, patientAge, patientGender, chronicConditionFlag,
+                doctorSpecialization, hospitalTier, hospitalClaimSuccessRate, name);
+    }
+
+    @Override
+    public void writeTo(JsonGenerator g) throws IOException {
+        g.writeStartObject();
+        field(g, CLAIM_AMOUNT, claimAmount);
+        field(g, COVERAGE_LIMIT, coverageLimit);
+        field(g, DEDUCTIBLE_AMOUNT, deductibleAmount);
+        field(g, INSURANCE_PROVIDER, insuranceProvider);
+        field(g, POLICY_TYPE, policyType);
+        field(g, PREAUTHORIZATION_REQUIRED, preauthorizationRequired);
+        field(g, PREAUTHORIZATION_OBTAINED, preauthorizationObtained);
+        field(g, PRIMARY_ICD_CODE, primaryIcdCode);
+        field(g, SECONDARY_ICD_CODE, secondaryIcdCode);
+        field(g, CPT_CODE, cptCode);
+        field(g, PROCEDURE_CATEGORY, procedureCategory);
+        field(g, MEDICAL_NECESSITY_SCORE, medicalNecessityScore);
+        field(g, PRIOR_DENIAL_COUNT, priorDenialCount);
+        field(g, RESUBMISSION_COUNT, resubmissionCount);
+        field(g, DAYS_TO_SUBMISSION, daysToSubmission);
+        field(g, DOCUMENTATION_COMPLETE, documentationComplete);
+        field(g, CLAIM_TYPE, claimType);
+        field(g, PATIENT_AGE, patientAge);
+        field(g, PATIENT_GENDER, patientGender);
+        field(g, CHRONIC_CONDITION_FLAG, chronicConditionFlag);
+        field(g, DOCTOR_SPECIALIZATION, doctorSpecialization);
+        field(g, HOSPITAL_TIER, hospitalTier);
+        field(g, HOSPITAL_CLAIM_SUCCESS_RATE, hospitalClaimSuccessRate);
+        field(g, PATIENT_NAME, patientName);
+        g.writeEndObject();
+    }
+}
@@ -0,0 +1,239 @@
+package com.medibots.service;
+
+import com.medibots.entity.Claim;
+import com.medibots.entity.ClaimFeatures;
+import com.medibots.entity.Ids;
+import com.medibots.entity.ScoringTask;
+import com.medibots.repository.ClaimFeaturesRepository;
+import com.medibots.repository.ClaimRepository;
+import com.medibots.repository.ScoringTaskRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores new claims off the request path. A claim is saved as PENDING together with a scoring_tasks row; a
+ * dispatcher thread leases queued rows and hands each to a virtual thread, with at most
+ * {@code app.scoring.concurrency} ML calls in flight. The score, the claim_features row and the task delete commit
+ * together, then a {@code claim_scored} SSE event goes to the claim's dashboards. Failures back off and retry; rows
+ * leased by an instance that died become claimable again when the lease expires.
+ */
+@Service
+public class ClaimScoringService {
+    private static final Logger log = LoggerFactory.getLogger(ClaimScoringService.class);
+    public static final String PENDING = "PENDING";
+    public static final String SCORED = "SCORED";
+    public static final String FAILED = "FAILED";
+
+    private final ClaimRepository claimRepo;
+    private final ClaimFeaturesRepository claimFeaturesRepo;
+    private final ScoringTaskRepository taskRepo;
+    private final MlPredictionService mlService;
+    private final DashboardStreamService streamService;
+    private final TransactionTemplate tx;
+    private final Semaphore permits;
+    private final ExecutorService workers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("claim-scoring-", 0).factory());
+    private final Object signal = new Object();
+    private boolean signalled;
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    @Value("${app.scoring.lease-ms:60000}")
+    private long leaseMs;
+    @Value("${app.scoring.poll-ms:1000}")
+    private long pollMs;
+    @Value("${app.scoring.max-attempts:5}")
+    private int maxAttempts;
+
+    public ClaimScoringService(ClaimRepository claimRepo, ClaimFeaturesRepository claimFeaturesRepo,
+                               ScoringTaskRepository taskRepo, MlPredictionService mlService,
+                               DashboardStreamService streamService, TransactionTemplate tx,
+                               @Value("${app.scoring.concurrency:16}") int concurrency) {
+        this.claimRepo = claimRepo;
+        this.claimFeaturesRepo = claimFeaturesRepo;
+        this.taskRepo = taskRepo;
+        this.mlService = mlService;
+        this.streamService = streamService;
+        this.tx = tx;
+        this.permits = new Semaphore(Math.max(1, concurrency));
+    }
+
+    /** Saves a new claim as PENDING and queues it for scoring in the same transaction. */
+    public Claim submit(Claim claim) {
+        claim.setScoringStatus(PENDING);
+        Claim saved = tx.execute(s -> {
+            Claim c = claimRepo.save(claim);
+            taskRepo.enqueue(Ids.toBytes(c.getId()), Instant.now());
+            return c;
+        });
+        wake();
+        return saved;
+    }
+
+    /** Scoring state for API responses; claims scored before the queue existed have no status but a score. */
+    public static String stateOf(Claim c) {
+        if (c.getScoringStatus() != null) return c.getScoringStatus();
+        return c.getAiRiskScore() != null ? SCORED : null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        dispatcher = Thread.ofPlatform().name("claim-scoring-dispatcher").daemon().start(this::dispatch);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (dispatcher != null) dispatcher.interrupt();
+        workers.shutdown();
+        // unfinished tasks keep their rows and are picked up again once the lease runs out
+        if (!workers.awaitTermination(5, TimeUnit.SECONDS)) workers.shutdownNow();
+    }
+
+    private void dispatch() {
+        while (running) {
+            try {
+                permits.acquire();
+                int free = 1 + permits.drainPermits();
+                List<ScoringTask> leased;
+                try {
+                    leased = lease(free);
+                } catch (RuntimeException e) {
+                    permits.release(free);
+                    log.warn("Scoring queue poll failed: {}", e.getMessage());
+                    await();
+                    continue;
+                }
+                permits.release(free - leased.size());
+                if (leased.isEmpty()) {
+                    await();
+                    continue;
+                }
+                for (ScoringTask t : leased) {
+                    workers.execute(() -> {
+                        try {
+                            process(t);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private List<ScoringTask> lease(int max) {
+        String token = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        return tx.execute(s -> {
+            List<String> ids = taskRepo.findClaimable(now, PageRequest.of(0, max));
+            if (ids.isEmpty()) return List.of();
+            taskRepo.lease(ids, token, now.plusMillis(leaseMs), now);
+            return taskRepo.findByLockedBy(token);
+        });
+    }
+
+    private void process(ScoringTask task) {
+        String claimId = task.getClaimId();
+        String token = task.getLockedBy();
+        try {
+            Claim claim = claimRepo.findById(claimId).orElse(null);
+            if (claim == null) {
+                tx.execute(s -> taskRepo.complete(claimId, token));
+                return;
+            }
+            MlPredictionService.PredictionResult pred = mlService.scoreDenial(ClaimFeatureVector.of(claim));
+            // no heuristic score here: an unanswered call backs off and retries, and ends up FAILED
+            if (MlPredictionService.failed(pred)) throw new IllegalStateException("ML service did not score the claim");
+            Map<String, Object> scored = tx.execute(s -> {
+                // lease lost (expired and taken over): the new holder writes the score
+                if (taskRepo.complete(claimId, token) == 0) return null;
+                Claim c = claimRepo.findById(claimId).orElse(null);
+                if (c == null) return null;
+                c.setAiRiskScore(BigDecimal.valueOf(pred.probability() * 100).setScale(2, RoundingMode.HALF_UP));
+                c.setScoringStatus(SCORED);
+                ClaimFeatures cf = claimFeaturesRepo.findByClaimId(claimId).orElseGet(ClaimFeatures::new);
+                cf.setClaimId(claimId);
+                cf.setRiskScoreNormalized(BigDecimal.valueOf(pred.probability()));
+                cf.setMlPrediction(pred.prediction());
+                cf.setMlProbability(BigDecimal.valueOf(pred.probability()));
+                claimFeaturesRepo.save(cf);
+                return toEvent(c, cf);
+            });
+            if (scored != null) streamService.claimScored((String) scored.get("hospital_id"), scored);
+        } catch (Exception e) {
+            retryOrFail(task, e);
+        }
+    }
+
+    /** Exponential backoff from 10 s up to 5 min; after {@code app.scoring.max-attempts} the claim is marked FAILED. */
+    private void retryOrFail(ScoringTask task, Exception e) {
+        String claimId = task.getClaimId();
+        int attempt = task.getAttempts() + 1;
+        log.warn("Scoring claim {} failed (attempt {}): {}", claimId, attempt, e.getMessage());
+        try {
+            tx.executeWithoutResult(s -> {
+                if (attempt >= maxAttempts) {
+                    if (taskRepo.complete(claimId, task.getLockedBy()) > 0) {
+                        claimRepo.findById(claimId).ifPresent(c -> c.setScoringStatus(FAILED));
+                    }
+                } else {
+                    long delaySeconds = Math.min(300, 10L << Math.min(attempt - 1, 5));
+                    taskRepo.retryLater(claimId, task.getLockedBy(), Instant.now().plusSeconds(delaySeconds),
+                            String.valueOf(e.getMessage()));
+                }
+            });
+        } catch (Exception inner) {
+            // the lease expires and the task is retried anyway
+            log.warn("Could not reschedule scoring of claim {}: {}", claimId, inner.getMessage());
+        }
+    }
+
+    private static Map<String, Object> toEvent(Claim c, ClaimFeatures cf) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("id", c.getId());
+        m.put("claim_number", c.getClaimNumber());
+        m.put("hospital_id", c.getHospitalId());
+        m.put("ai_risk_score", c.getAiRiskScore());
+        m.put("scoring", c.getScoringStatus());
+        m.put("ml_denial_prediction", cf.getMlPrediction());
+        m.put("ml_denial_probability", cf.getMlProbability().doubleValue());
+        return m;
+    }
+
+    private void wake() {
+        synchronized (signal) {
+            signalled = true;
+            signal.notifyAll();
+        }
+    }
+
+    private void await() throws InterruptedException {
+        synchronized (signal) {
+            if (!signalled) signal.wait(pollMs);
+            signalled = false;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.medibots.service;
+
+import com.medibots.repository.ClaimRepository;
+import com.medibots.repository.InvoiceRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.Month;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Dashboard chart series ({name, value} lists) built from grouped SQL aggregates.
+ * Shared by the REST chart endpoints and the live SSE channel. Null filters match everything.
+ * Weekday and month buckets are taken in the server zone, like the from / to days of the chart endpoints, not in the
+ * database's UTC: the range is split wherever the zone's offset changes and each part is grouped at its own offset.
+ */
+@Service
+public class DashboardService {
+    private static final String[] DAYS = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
+
+    private final ClaimRepository claimRepo;
+    private final InvoiceRepository invoiceRepo;
+
+    public DashboardService(ClaimRepository claimRepo, InvoiceRepository invoiceRepo) {
+        this.claimRepo = claimRepo;
+        this.invoiceRepo = invoiceRepo;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> claimsPerDay(String hospitalId, Instant from, Instant to) {
+        long[] counts = weekdayCounts(hospitalId, from, to);
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (int i = 0; i < 7; i++) out.add(Map.of("name", DAYS[i], "value", (int) counts[i]));
+        return out;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> revenueTrend(String hospitalId, Instant from, Instant to) {
+        Map<String, Double> byMonth = new TreeMap<>();
+        Supplier<Instant[]> range = () -> {
+            InvoiceRepository.TimeRange r = invoiceRepo.paidRange(hospitalId);
+            return new Instant[]{r.getFirst(), r.getLast()};
+        };
+        for (ZoneSpans.Span span : ZoneSpans.of(from, to, range)) {
+            for (var r : invoiceRepo.sumPaidByMonth(hospitalId, span.from(), span.to(), span.offset())) {
+                if (r.getBucket() == null || r.getTotal() == null) continue;
+                String month = Month.of(r.getBucket()).toString().substring(0, 3);
+                byMonth.merge(month, r.getTotal().doubleValue(), Double::sum);
+            }
+        }
+        return byMonth.entrySet().stream()
+                .map(e -> (Map<String, Object>) new HashMap<String, Object>(Map.of("name", e.getKey(), "value", e.getValue())))
+                .collect(Collectors.toList());
+    }
+
+    /** Claims per day of week of submitted_at in the server zone, Sunday first. */
+    @Transactional(readOnly = true)
+    public long[] weekdayCounts(String hospitalId, Instant from, Instant to) {
+        Supplier<Instant[]> range = () -> {
+            ClaimRepository.TimeRange r = claimRepo.submittedRange(hospitalId);
+            return new Instant[]{r.getFirst(), r.getLast()};
+        };
+        long[] counts = new long[7];
+        for (ZoneSpans.Span span : ZoneSpans.of(from, to, range)) {
+            for (var r : claimRepo.countByWeekday(hospitalId, span.from(), span.to(), span.offset())) {
+                if (r.getBucket() != null) counts[(r.getBucket() - 1) % 7] += r.getTotal();
+            }
+        }
+        return counts;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> denialDistribution(String hospitalId, Instant from, Instant to) {
+        Map<String, Integer> cat = new HashMap<>();
+        for (var r : claimRepo.countDeniedByCategory(hospitalId, from, to)) {
+            cat.merge(DenialCategoryService.Category.labelOf(r.getLabel()), r.getTotal().intValue(), Integer::sum);
+        }
+        List<Map<String, Object>> out = cat.entrySet().stream()
+                .filter(e -> e.getValue() > 0)
+                .map(e -> (Map<String, Object>) new HashMap<String, Object>(Map.of("name", e.getKey(), "value", e.getValue())))
+                .collect(Collectors.toList());
+        if (out.isEmpty()) out.add(Map.of("name", "No Denials", "value", 1));
+        return out;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> claimsByPayer(String hospitalId, Instant from, Instant to) {
+        return claimRepo.countByPayer(hospitalId, from, to, PageRequest.of(0, 5)).stream()
+                .map(r -> (Map<String, Object>) new HashMap<String, Object>(Map.of("name", r.getLabel(), "value", r.getTotal().intValue())))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> claimsByStatus(String hospitalId, Instant from, Instant to) {
+        return claimRepo.countByStatus(hospitalId, from, to).stream()
+                .map(r -> (Map<String, Object>) new HashMap<String, Object>(Map.of("name", r.getLabel(), "value", r.getTotal().intValue())))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,230 @@
+package com.medibots.service;
+
+import com.medibots.entity.Claim;
+import com.medibots.entity.Invoice;
+import com.medibots.event.ClaimChangedEvent;
+import com.medibots.event.InvoiceChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-sent events for live dashboards. Subscribers are grouped into one channel per hospital (plus one for the
+ * all-hospitals view). Claim / invoice changes only mark the affected channels dirty; a short periodic tick then
+ * recomputes each dirty channel once and pushes the sections that actually changed to every subscriber, so N open
+ * dashboards of a hospital cost one aggregation per tick instead of N polling loops. The tick and the heartbeat run
+ * on their own thread, not Spring's task scheduler, so a slow scheduled job elsewhere cannot stall live dashboards.
+ */
+@Service
+public class DashboardStreamService {
+    private static final Logger log = LoggerFactory.getLogger(DashboardStreamService.class);
+    private static final String ALL = "*";
+    private static final int CLAIMS = 1;
+    private static final int REVENUE = 2;
+
+    private final KpiService kpiService;
+    private final DashboardService dashboardService;
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("dashboard-push").daemon().factory());
+
+    @Value("${app.dashboard.sse-timeout-ms:1800000}")
+    private long timeoutMs;
+    @Value("${app.dashboard.push-interval-ms:2000}")
+    private long pushIntervalMs;
+    @Value("${app.dashboard.heartbeat-ms:25000}")
+    private long heartbeatMs;
+
+    public DashboardStreamService(KpiService kpiService, DashboardService dashboardService) {
+        this.kpiService = kpiService;
+        this.dashboardService = dashboardService;
+    }
+
+    /** A task that throws is not run again, so push and heartbeat catch their own failures. */
+    @PostConstruct
+    public void start() {
+        ticker.scheduleWithFixedDelay(this::push, pushIntervalMs, pushIntervalMs, TimeUnit.MILLISECONDS);
+        ticker.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    /** Subscribers of one hospital (null = all hospitals) and the last state pushed to them. */
+    private static final class Channel {
+        final String hospitalId;
+        final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        final AtomicInteger dirty = new AtomicInteger();
+        Map<String, Object> kpis;
+        final Map<String, Object> charts = new HashMap<>();
+
+        Channel(String hospitalId) {
+            this.hospitalId = hospitalId;
+        }
+    }
+
+    /** Opens a stream for the hospital (null = all) and sends the current KPIs and charts straight away. */
+    public SseEmitter subscribe(String hospitalId) {
+        String key = hospitalId != null ? hospitalId : ALL;
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Channel channel = channels.compute(key, (k, c) -> {
+            Channel ch = c != null ? c : new Channel(hospitalId);
+            ch.emitters.add(emitter);
+            return ch;
+        });
+        emitter.onCompletion(() -> unsubscribe(key, emitter));
+        emitter.onTimeout(() -> unsubscribe(key, emitter));
+        emitter.onError(e -> unsubscribe(key, emitter));
+        Map<String, Object> kpis;
+        Map<String, Object> charts;
+        synchronized (channel) {
+            if (channel.kpis == null) refresh(channel, CLAIMS | REVENUE);
+            kpis = channel.kpis;
+            charts = new LinkedHashMap<>(channel.charts);
+        }
+        try {
+            emitter.send(SseEmitter.event().name("kpis").data(kpis));
+            emitter.send(SseEmitter.event().name("charts").data(charts));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onClaimChanged(ClaimChangedEvent e) {
+        if (channels.isEmpty()) return;
+        markDirty(hospitalOf(e.before()), CLAIMS);
+        markDirty(hospitalOf(e.after()), CLAIMS);
+        markDirty(ALL, CLAIMS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onInvoiceChanged(InvoiceChangedEvent e) {
+        if (channels.isEmpty() || !(isPaid(e.before()) || isPaid(e.after()))) return;
+        if (e.before() != null) markDirty(e.before().hospitalId(), REVENUE);
+        if (e.after() != null) markDirty(e.after().hospitalId(), REVENUE);
+        markDirty(ALL, REVENUE);
+    }
+
+    /** Recomputes every dirty channel once and pushes the changed sections to its subscribers. */
+    public void push() {
+        for (Channel channel : channels.values()) {
+            int dirty = channel.dirty.getAndSet(0);
+            if (dirty == 0 || channel.emitters.isEmpty()) continue;
+            try {
+                Map<String, Object> kpis;
+                Map<String, Object> changedCharts;
+                synchronized (channel) {
+                    Map<String, Object> previousKpis = channel.kpis;
+                    Map<String, Object> previousCharts = new HashMap<>(channel.charts);
+                    refresh(channel, dirty);
+                    kpis = Objects.equals(previousKpis, channel.kpis) ? null : channel.kpis;
+                    changedCharts = new LinkedHashMap<>();
+                    channel.charts.forEach((name, series) -> {
+                        if (!Objects.equals(previousCharts.get(name), series)) changedCharts.put(name, series);
+                    });
+                }
+                if (kpis != null) broadcast(channel, "kpis", kpis);
+                if (!changedCharts.isEmpty()) broadcast(channel, "charts", changedCharts);
+            } catch (Exception e) {
+                // keep the sections pending so the next tick retries them
+                channel.dirty.getAndUpdate(d -> d | dirty);
+                log.warn("Dashboard push for {} failed: {}", channel.hospitalId != null ? channel.hospitalId : ALL, e.getMessage());
+            }
+        }
+    }
+
+    /** Pushes a {@code claim_scored} event to the claim's hospital channel and the all-hospitals channel. */
+    public void claimScored(String hospitalId, Map<String, Object> claim) {
+        if (channels.isEmpty()) return;
+        if (hospitalId != null && !hospitalId.isBlank()) {
+            Channel channel = channels.get(hospitalId);
+            if (channel != null) broadcast(channel, "claim_scored", claim);
+        }
+        Channel all = channels.get(ALL);
+        if (all != null) broadcast(all, "claim_scored", claim);
+    }
+
+    /** Comment frame so idle connections are not dropped by proxies. */
+    public void heartbeat() {
+        for (Channel channel : channels.values()) {
+            try {
+                broadcast(channel, null, "ping");
+            } catch (Exception e) {
+                log.warn("Dashboard heartbeat failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void refresh(Channel channel, int sections) {
+        String h = channel.hospitalId;
+        channel.kpis = kpiService.kpis(h);
+        if ((sections & CLAIMS) != 0) {
+            channel.charts.put("claimsPerDay", dashboardService.claimsPerDay(h, null, null));
+            channel.charts.put("denialDistribution", dashboardService.denialDistribution(h, null, null));
+            channel.charts.put("claimsByPayer", dashboardService.claimsByPayer(h, null, null));
+            channel.charts.put("claimsByStatus", dashboardService.claimsByStatus(h, null, null));
+        }
+        if ((sections & REVENUE) != 0) {
+            channel.charts.put("revenueTrend", dashboardService.revenueTrend(h, null, null));
+        }
+    }
+
+    private void broadcast(Channel channel, String name, Object data) {
+        for (SseEmitter emitter : channel.emitters) {
+            try {
+                if (name != null) emitter.send(SseEmitter.event().name(name).data(data));
+                else emitter.send(SseEmitter.event().comment(data.toString()));
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+                unsubscribe(channel.hospitalId != null ? channel.hospitalId : ALL, emitter);
+            }
+        }
+    }
+
+    private void markDirty(String hospitalId, int sections) {
+        if (hospitalId == null || hospitalId.isBlank()) return;
+        Channel channel = channels.get(hospitalId);
+        if (channel != null) channel.dirty.accumulateAndGet(sections, (a, b) -> a | b);
+    }
+
+    private void unsubscribe(String key, SseEmitter emitter) {
+        channels.computeIfPresent(key, (k, c) -> {
+            c.emitters.remove(emitter);
+            return c.emitters.isEmpty() ? null : c;
+        });
+    }
+
+    private static String hospitalOf(Claim.Snapshot s) {
+        return s != null ? s.hospitalId() : null;
+    }
+
+    private static boolean isPaid(Invoice.Snapshot s) {
+        return s != null && "PAID".equals(s.paymentStatus());
+    }
+}
@@ -0,0 +1,124 @@
+package com.medibots.service;
+
+import com.medibots.repository.ClaimRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Classifies denied claims into a reporting category once, when they are denied, and stores it in
+ * claims.denial_category so the denial distribution is an indexed GROUP BY instead of a TEXT scan.
+ */
+@Service
+public class DenialCategoryService {
+    private static final Logger log = LoggerFactory.getLogger(DenialCategoryService.class);
+    private static final int BACKFILL_BATCH = 500;
+
+    /** Declaration order is match priority: the first category with any keyword present wins. */
+    public enum Category {
+        CODING_ISSUES("Coding Issues", "coding", "mismatch"),
+        MISSING_AUTH("Missing Auth", "auth", "incomplete"),
+        HIGH_RISK("High Risk", "high risk", "flagged"),
+        OTHER("Other");
+
+        private final String label;
+        private final String[] keywords;
+
+        Category(String label, String... keywords) {
+            this.label = label;
+            this.keywords = keywords;
+        }
+
+        public String label() { return label; }
+
+        public static String labelOf(String code) {
+            if (code == null) return OTHER.label;
+            try {
+                return valueOf(code).label;
+            } catch (IllegalArgumentException e) {
+                return OTHER.label;
+            }
+        }
+    }
+
+    private static final Pattern KEYWORDS;
+    private static final Map<String, Category> KEYWORD_CATEGORY = new HashMap<>();
+
+    static {
+        List<String> alternatives = new ArrayList<>();
+        for (Category c : Category.values()) {
+            for (String k : c.keywords) {
+                KEYWORD_CATEGORY.put(k, c);
+                alternatives.add(Pattern.quote(k));
+            }
+        }
+        KEYWORDS = Pattern.compile(String.join("|", alternatives), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+
+    private final ClaimRepository claimRepo;
+    private final TransactionTemplate tx;
+
+    public DenialCategoryService(ClaimRepository claimRepo, TransactionTemplate tx) {
+        this.claimRepo = claimRepo;
+        this.tx = tx;
+    }
+
+    /** Single pass over the explanation with one alternation pattern covering every keyword. */
+    public static Category classify(String explanation) {
+        if (explanation == null || explanation.isEmpty()) return Category.OTHER;
+        Category best = Category.OTHER;
+        Matcher m = KEYWORDS.matcher(explanation);
+        while (m.find()) {
+            Category c = KEYWORD_CATEGORY.get(m.group().toLowerCase(Locale.ROOT));
+            if (c != null && c.ordinal() < best.ordinal()) {
+                best = c;
+                if (best.ordinal() == 0) break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Classifies denied claims that have no category yet (rows denied before the column existed),
+     * in batches of {@value #BACKFILL_BATCH}, one transaction per batch.
+     */
+    public int backfill() {
+        int total = 0;
+        while (true) {
+            Integer updated = tx.execute(s -> {
+                var rows = claimRepo.findUncategorisedDenials(PageRequest.of(0, BACKFILL_BATCH));
+                if (rows.isEmpty()) return 0;
+                Map<Category, List<String>> byCategory = new EnumMap<>(Category.class);
+                for (var r : rows) byCategory.computeIfAbsent(classify(r.getExplanation()), k -> new ArrayList<>()).add(r.getId());
+                byCategory.forEach((c, ids) -> claimRepo.updateDenialCategory(ids, c.name()));
+                return rows.size();
+            });
+            if (updated == null || updated == 0) break;
+            total += updated;
+        }
+        if (total > 0) log.info("Backfilled denial category for {} claims", total);
+        return total;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            backfill();
+        } catch (Exception e) {
+            log.warn("Denial category backfill failed: {}", e.getMessage());
+        }
+    }
+}
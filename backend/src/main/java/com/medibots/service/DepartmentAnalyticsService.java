@@ -0,0 +1,155 @@
+package com.medibots.service;
+
+import com.medibots.entity.Department;
+import com.medibots.repository.DepartmentRepository;
+import com.medibots.repository.LabTestBookingRepository;
+import com.medibots.repository.OperationRepository;
+import com.medibots.repository.OperationTheatreRepository;
+import com.medibots.repository.ServiceCatalogRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-department counts (services, theatres, operations, lab bookings) and monthly operation / lab-booking trends.
+ * Everything is a grouped COUNT in SQL; operations are grouped by theatre and folded into departments through a
+ * cached theatre -> department map per hospital. OperationTheatreController invalidates it on every change made
+ * through this instance; changes made through another instance show up once the map is older than
+ * {@code app.analytics.theatre-map-ttl-ms}. Months are taken in the server zone, like the dashboards.
+ */
+@Service
+public class DepartmentAnalyticsService {
+    private static final String ALL = "*";
+
+    private final DepartmentRepository deptRepo;
+    private final ServiceCatalogRepository catalogRepo;
+    private final OperationRepository opRepo;
+    private final OperationTheatreRepository theatreRepo;
+    private final LabTestBookingRepository labBookingRepo;
+    private final Map<String, TheatreMap> theatreMaps = new ConcurrentHashMap<>();
+
+    @Value("${app.analytics.theatre-map-ttl-ms:60000}")
+    private long theatreMapTtlMs;
+
+    /** theatre id -> department id, the resulting theatre count per department, and when it was read. */
+    private record TheatreMap(Map<String, String> departmentOf, Map<String, Integer> theatresPerDepartment,
+                              long loadedAt) {}
+
+    public DepartmentAnalyticsService(DepartmentRepository deptRepo, ServiceCatalogRepository catalogRepo,
+                                      OperationRepository opRepo, OperationTheatreRepository theatreRepo,
+                                      LabTestBookingRepository labBookingRepo) {
+        this.deptRepo = deptRepo;
+        this.catalogRepo = catalogRepo;
+        this.opRepo = opRepo;
+        this.theatreRepo = theatreRepo;
+        this.labBookingRepo = labBookingRepo;
+    }
+
+    /**
+     * Analytics for one hospital (null = all). Operations are filtered on scheduled_at and lab bookings on
+     * scheduled_date within [from, to); null bounds are open.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> analytics(String hospitalId, Instant from, Instant to) {
+        List<Department> depts = hospitalId != null ? deptRepo.findByHospitalIdOrderByName(hospitalId) : deptRepo.findAll();
+        TheatreMap theatres = theatreMap(hospitalId);
+
+        Map<String, Long> servicesByDept = toMap(catalogRepo.countByDepartment(hospitalId));
+        Map<String, Long> labsByDept = toMap(labBookingRepo.countByDepartment(hospitalId, from, to));
+        Map<String, Long> opsByDept = new HashMap<>();
+        for (var r : opRepo.countByTheatre(hospitalId, from, to)) {
+            String deptId = theatres.departmentOf().get(r.getKey());
+            if (deptId != null) opsByDept.merge(deptId, r.getTotal(), Long::sum);
+        }
+
+        Map<String, TreeMap<Integer, long[]>> trendByDept = new HashMap<>();
+        Supplier<Instant[]> opRange = () -> range(opRepo.scheduledRange(hospitalId));
+        for (ZoneSpans.Span span : ZoneSpans.of(from, to, opRange)) {
+            for (var r : opRepo.countByTheatreAndMonth(hospitalId, span.from(), span.to(), span.offset())) {
+                String deptId = theatres.departmentOf().get(r.getKey());
+                if (deptId != null && r.getBucket() != null) bucket(trendByDept, deptId, r.getBucket())[0] += r.getTotal();
+            }
+        }
+        Supplier<Instant[]> labRange = () -> range(labBookingRepo.scheduledRange(hospitalId));
+        for (ZoneSpans.Span span : ZoneSpans.of(from, to, labRange)) {
+            for (var r : labBookingRepo.countByDepartmentAndMonth(hospitalId, span.from(), span.to(), span.offset())) {
+                if (r.getBucket() != null) bucket(trendByDept, r.getKey(), r.getBucket())[1] += r.getTotal();
+            }
+        }
+
+        List<Map<String, Object>> byDepartment = new ArrayList<>();
+        for (var d : depts) {
+            Map<String, Object> m = new HashMap<>();
+            m.put("id", d.getId());
+            m.put("name", d.getName());
+            m.put("description", d.getDescription());
+            m.put("service_count", servicesByDept.getOrDefault(d.getId(), 0L).intValue());
+            m.put("operation_count", opsByDept.getOrDefault(d.getId(), 0L).intValue());
+            m.put("theatre_count", theatres.theatresPerDepartment().getOrDefault(d.getId(), 0).longValue());
+            m.put("lab_booking_count", labsByDept.getOrDefault(d.getId(), 0L).intValue());
+            m.put("trend", trend(trendByDept.get(d.getId())));
+            byDepartment.add(m);
+        }
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("total_departments", depts.size());
+        summary.put("total_services", hospitalId != null ? catalogRepo.countByHospitalId(hospitalId) : catalogRepo.count());
+        summary.put("total_operations", opRepo.countScheduled(hospitalId, from, to));
+        summary.put("total_lab_bookings", labBookingRepo.countScheduled(hospitalId, from, to));
+        Map<String, Object> out = new HashMap<>();
+        out.put("by_department", byDepartment);
+        out.put("summary", summary);
+        return out;
+    }
+
+    /** Drops the cached theatre -> department maps; call after any theatre is created, moved or deleted. */
+    public void invalidateTheatreMap() {
+        theatreMaps.clear();
+    }
+
+    private TheatreMap theatreMap(String hospitalId) {
+        long now = System.nanoTime();
+        return theatreMaps.compute(hospitalId != null ? hospitalId : ALL, (k, cached) -> {
+            if (cached != null && now - cached.loadedAt() < theatreMapTtlMs * 1_000_000L) return cached;
+            Map<String, String> departmentOf = new HashMap<>();
+            Map<String, Integer> perDepartment = new HashMap<>();
+            for (var t : theatreRepo.findDepartmentMapping(hospitalId)) {
+                departmentOf.put(t.getTheatreId(), t.getDepartmentId());
+                perDepartment.merge(t.getDepartmentId(), 1, Integer::sum);
+            }
+            return new TheatreMap(departmentOf, perDepartment, now);
+        });
+    }
+
+    private static Instant[] range(OperationRepository.TimeRange r) {
+        return new Instant[]{r.getFirst(), r.getLast()};
+    }
+
+    private static Map<String, Long> toMap(List<OperationRepository.KeyCount> rows) {
+        Map<String, Long> m = new HashMap<>();
+        for (var r : rows) m.put(r.getKey(), r.getTotal());
+        return m;
+    }
+
+    private static long[] bucket(Map<String, TreeMap<Integer, long[]>> trend, String deptId, int yyyymm) {
+        return trend.computeIfAbsent(deptId, k -> new TreeMap<>()).computeIfAbsent(yyyymm, k -> new long[2]);
+    }
+
+    /** Monthly series, oldest first: [{month: "2024-03", operations, lab_bookings}]. Months without activity are omitted. */
+    private static List<Map<String, Object>> trend(TreeMap<Integer, long[]> months) {
+        if (months == null) return List.of();
+        List<Map<String, Object>> out = new ArrayList<>(months.size());
+        months.forEach((yyyymm, counts) -> {
+            Map<String, Object> m = new HashMap<>();
+            m.put("month", String.format("%04d-%02d", yyyymm / 100, yyyymm % 100));
+            m.put("operations", counts[0]);
+            m.put("lab_bookings", counts[1]);
+            out.add(m);
+        });
+        return out;
+    }
+}
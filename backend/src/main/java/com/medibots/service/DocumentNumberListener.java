@@ -0,0 +1,27 @@
+package com.medibots.service;
+
+import com.medibots.entity.Claim;
+import com.medibots.entity.Invoice;
+import jakarta.persistence.PrePersist;
+
+/**
+ * JPA entity listener that numbers new claims and invoices from {@link DocumentNumberService} unless the caller set a
+ * number. Runs before the entity's own @PrePersist, whose id-based number is then only a fallback for entities
+ * persisted outside Spring. Instantiated by Hibernate through Spring's bean container.
+ */
+public class DocumentNumberListener {
+    private final DocumentNumberService numbers;
+
+    public DocumentNumberListener(DocumentNumberService numbers) {
+        this.numbers = numbers;
+    }
+
+    @PrePersist
+    public void assign(Object entity) {
+        if (entity instanceof Claim c && c.getClaimNumber() == null) {
+            c.setClaimNumber(numbers.nextClaimNumber(c.getHospitalId()));
+        } else if (entity instanceof Invoice i && i.getInvoiceNumber() == null) {
+            i.setInvoiceNumber(numbers.nextInvoiceNumber(i.getHospitalId()));
+        }
+    }
+}
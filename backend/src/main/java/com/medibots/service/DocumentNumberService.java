@@ -0,0 +1,125 @@
+package com.medibots.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out claim and invoice numbers per hospital, e.g. {@code CLM-7-000042}: prefix, the scope code of the
+ * hospital's number_sequences row, and a counter. Numbers are reserved from the table in blocks of
+ * {@code app.numbers.block-size} (hi/lo), so most allocations are an in-memory increment under a per-scope lock and
+ * only one in every block touches the database. Every instance reserves its own blocks, so numbers are unique
+ * across instances; they are increasing but not gapless (a restart skips the rest of the current block).
+ * Blocks are reserved from the JPA @PrePersist listener, while the caller's transaction already holds a pooled
+ * connection, so they go through a small pool of their own ({@code app.numbers.pool-size}): a full application pool
+ * can never leave every thread waiting for a second connection from it.
+ */
+@Service
+public class DocumentNumberService {
+    public static final String CLAIM = "CLM";
+    public static final String INVOICE = "INV";
+
+    private static final String INSERT_IF_ABSENT =
+            "INSERT IGNORE INTO number_sequences (name, next_value, updated_at) VALUES (?, 1, ?)";
+    // LAST_INSERT_ID(expr) stores the new value on the connection, so the increment and the read are one atomic step
+    private static final String RESERVE =
+            "UPDATE number_sequences SET next_value = LAST_INSERT_ID(next_value + ?), updated_at = ? WHERE name = ?";
+    private static final String READ_RESERVED = "SELECT id, LAST_INSERT_ID() FROM number_sequences WHERE name = ?";
+
+    private static final class Block {
+        final ReentrantLock lock = new ReentrantLock();
+        long scope;
+        long next;
+        long end;
+    }
+
+    private final HikariDataSource dataSource;
+    private final int blockSize;
+    private final ConcurrentHashMap<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public DocumentNumberService(DataSourceProperties dataSourceProperties,
+                                @Value("${app.numbers.block-size:50}") int blockSize,
+                                @Value("${app.numbers.pool-size:2}") int poolSize) {
+        this.dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        this.dataSource.setPoolName("document-numbers");
+        this.dataSource.setMaximumPoolSize(Math.max(1, poolSize));
+        // reservations are rare (one per block), so no connection is kept open between them
+        this.dataSource.setMinimumIdle(0);
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    @PreDestroy
+    public void close() {
+        dataSource.close();
+    }
+
+    public String nextClaimNumber(String hospitalId) {
+        return next(CLAIM, hospitalId);
+    }
+
+    public String nextInvoiceNumber(String hospitalId) {
+        return next(INVOICE, hospitalId);
+    }
+
+    private String next(String prefix, String hospitalId) {
+        String name = prefix + ":" + (hospitalId == null || hospitalId.isBlank() ? "-" : hospitalId);
+        Block b = blocks.computeIfAbsent(name, k -> new Block());
+        long scope;
+        long n;
+        b.lock.lock();
+        try {
+            if (b.next >= b.end) reserve(name, b);
+            scope = b.scope;
+            n = b.next++;
+        } finally {
+            b.lock.unlock();
+        }
+        return String.format("%s-%d-%06d", prefix, scope, n);
+    }
+
+    /**
+     * Takes the next block on a connection from the reservation pool in autocommit mode, outside the caller's
+     * transaction: the row lock lasts one statement instead of until the claim / invoice commits, and a rollback there
+     * cannot hand the same block out twice.
+     */
+    private void reserve(String name, Block b) {
+        Timestamp now = Timestamp.from(Instant.now());
+        try (Connection c = dataSource.getConnection()) {
+            c.setAutoCommit(true);
+            try (PreparedStatement ps = c.prepareStatement(INSERT_IF_ABSENT)) {
+                ps.setString(1, name);
+                ps.setTimestamp(2, now);
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = c.prepareStatement(RESERVE)) {
+                ps.setInt(1, blockSize);
+                ps.setTimestamp(2, now);
+                ps.setString(3, name);
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = c.prepareStatement(READ_RESERVED)) {
+                ps.setString(1, name);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) throw new IllegalStateException("Number sequence " + name + " missing");
+                    long end = rs.getLong(2);
+                    b.scope = rs.getLong(1);
+                    b.next = end - blockSize;
+                    b.end = end;
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not reserve numbers for " + name, e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.medibots.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory index of recent claims keyed by (patient, CPT code, amount bucket, UTC day), for spotting a claim
+ * submitted twice: a lookup is three hash probes (the amount's bucket and its two neighbours) per day the window
+ * touches, never a scan. Two claims are duplicates when patient and CPT code match, their amounts differ by less than
+ * one bucket and their submission times are at most {@code windowMillis} apart; probing the neighbours catches pairs
+ * such as 999.99 and 1000.00 that straddle a bucket edge. Registering a new claim checks and inserts under its own
+ * key atomically, so two concurrent submissions of the same claim cannot both come out clean. Plain data structure;
+ * DuplicateClaimService fills and prunes it.
+ */
+public class DuplicateClaimIndex {
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    private record Key(String patientId, String cptCode, long amountBucket, long day) {}
+
+    /** An indexed claim. Entries registered before their insert get the id once the claim is saved. */
+    public static final class Entry {
+        private volatile String claimId;
+        private volatile String claimNumber;
+        private final long submittedAt;
+        private final long cents;
+        private final Key key;
+
+        Entry(String claimId, String claimNumber, long submittedAt, long cents, Key key) {
+            this.claimId = claimId;
+            this.claimNumber = claimNumber;
+            this.submittedAt = submittedAt;
+            this.cents = cents;
+            this.key = key;
+        }
+
+        public String claimId() { return claimId; }
+        public String claimNumber() { return claimNumber; }
+        public Instant submittedAt() { return Instant.ofEpochMilli(submittedAt); }
+
+        void saved(String id, String number) {
+            claimId = id;
+            claimNumber = number;
+        }
+    }
+
+    /** Result of {@link #register}; {@code entry} is null when the claim was already indexed. */
+    public record Registration(Entry entry, List<Entry> duplicates) {
+        public boolean duplicate() { return !duplicates.isEmpty(); }
+    }
+
+    private static final Entry[] NONE = new Entry[0];
+
+    private final long windowMillis;
+    private final long amountBucketCents;
+    private final ConcurrentHashMap<Key, Entry[]> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    /** {@code amountBucket} in currency units, e.g. 1 matches amounts less than a rupee apart. */
+    public DuplicateClaimIndex(long windowMillis, BigDecimal amountBucket) {
+        this.windowMillis = Math.max(0, windowMillis);
+        this.amountBucketCents = Math.max(1, cents(amountBucket));
+    }
+
+    /**
+     * Adds a claim and returns it together with the indexed claims it duplicates (empty when unique). A claim id that
+     * is already indexed is not added twice; null when the claim cannot be keyed (no patient, CPT code or amount).
+     */
+    public Registration register(String patientId, String cptCode, BigDecimal amount, Instant submittedAt,
+                                 String claimId, String claimNumber) {
+        if (patientId == null || cptCode == null || cptCode.isBlank() || amount == null || submittedAt == null) return null;
+        long t = submittedAt.toEpochMilli();
+        long cents = cents(amount);
+        long bucket = Math.floorDiv(cents, amountBucketCents);
+        long day = Math.floorDiv(t, DAY_MILLIS);
+        List<Entry> duplicates = new ArrayList<>(0);
+        for (long d = Math.floorDiv(t - windowMillis, DAY_MILLIS); d <= Math.floorDiv(t + windowMillis, DAY_MILLIS); d++) {
+            for (long b = bucket - 1; b <= bucket + 1; b++) {
+                if (d != day || b != bucket) collect(buckets.get(new Key(patientId, cptCode, b, d)), t, cents, claimId, duplicates);
+            }
+        }
+        Key key = new Key(patientId, cptCode, bucket, day);
+        Entry entry = new Entry(claimId, claimNumber, t, cents, key);
+        Entry[] added = new Entry[1];
+        buckets.compute(key, (k, entries) -> {
+            Entry[] current = entries != null ? entries : NONE;
+            if (claimId != null) {
+                for (Entry e : current) {
+                    if (claimId.equals(e.claimId)) return current;
+                }
+            }
+            collect(current, t, cents, claimId, duplicates);
+            Entry[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = entry;
+            added[0] = entry;
+            return next;
+        });
+        if (added[0] != null) size.incrementAndGet();
+        return new Registration(added[0], duplicates);
+    }
+
+    /** Fills in the id of an entry registered before its claim was saved. */
+    public void saved(Entry entry, String claimId, String claimNumber) {
+        entry.saved(claimId, claimNumber);
+    }
+
+    /** Takes back an entry whose claim was not saved (rejected or failed insert). */
+    public void remove(Entry entry) {
+        buckets.computeIfPresent(entry.key, (k, current) -> {
+            int i = Arrays.asList(current).indexOf(entry);
+            if (i < 0) return current;
+            size.decrementAndGet();
+            if (current.length == 1) return null;
+            Entry[] next = new Entry[current.length - 1];
+            System.arraycopy(current, 0, next, 0, i);
+            System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+            return next;
+        });
+    }
+
+    /** Drops claims submitted before the UTC day of {@code cutoff}; call with now minus the window. */
+    public int evictBefore(Instant cutoff) {
+        long cutoffDay = Math.floorDiv(cutoff.toEpochMilli(), DAY_MILLIS);
+        int removed = 0;
+        for (var e : buckets.entrySet()) {
+            if (e.getKey().day() < cutoffDay && buckets.remove(e.getKey(), e.getValue())) removed += e.getValue().length;
+        }
+        size.addAndGet(-removed);
+        return removed;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public long windowMillis() {
+        return windowMillis;
+    }
+
+    private void collect(Entry[] entries, long t, long cents, String claimId, List<Entry> out) {
+        if (entries == null) return;
+        for (Entry e : entries) {
+            if (Math.abs(e.submittedAt - t) > windowMillis || Math.abs(e.cents - cents) >= amountBucketCents) continue;
+            String id = e.claimId;
+            if (claimId != null && claimId.equals(id)) continue;
+            out.add(e);
+        }
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+}
@@ -0,0 +1,152 @@
+package com.medibots.service;
+
+import com.medibots.entity.Claim;
+import com.medibots.repository.ClaimRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Near-duplicate check for new claims (same patient, CPT code and amount within {@code app.claims.duplicates.window-days}),
+ * answered from a {@link DuplicateClaimIndex} rather than a query on claims. The index is warmed on startup from the
+ * claims created within the window and then follows claims created by any instance through a keyset read on
+ * (created_at, id) every {@code sync-ms}; claims submitted here are indexed immediately. {@code mode} is off, flag
+ * (save the claim with duplicate_of set) or reject (409 unless the request sets allow_duplicate).
+ * <p>
+ * created_at is stamped by the inserting instance before its transaction commits, so the keyset is not in commit
+ * order. Each sync re-reads the last {@code commit-lag-ms}; a claim whose created_at is older than that when it
+ * commits (a longer transaction, or an instance whose clock is behind by more) is missed by other instances until
+ * their next restart. It is still checked, and indexed, by the instance that submitted it.
+ */
+@Service
+public class DuplicateClaimService {
+    private static final Logger log = LoggerFactory.getLogger(DuplicateClaimService.class);
+    private static final int SYNC_PAGE = 1000;
+    private static final String MIN_ID = "00000000-0000-0000-0000-000000000000";
+
+    public enum Mode { OFF, FLAG, REJECT }
+
+    private final ClaimRepository claimRepo;
+    private final Mode mode;
+    private final DuplicateClaimIndex index;
+    /** Re-read on every sync, for inserts whose created_at is older than a row already seen when they commit. */
+    private final Duration commitLag;
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private Instant syncedUpTo;
+
+    public DuplicateClaimService(ClaimRepository claimRepo,
+                                 @Value("${app.claims.duplicates.mode:flag}") String mode,
+                                 @Value("${app.claims.duplicates.window-days:3}") int windowDays,
+                                 @Value("${app.claims.duplicates.amount-bucket:1}") BigDecimal amountBucket,
+                                 @Value("${app.claims.duplicates.commit-lag-ms:30000}") long commitLagMs) {
+        this.claimRepo = claimRepo;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.index = new DuplicateClaimIndex(Duration.ofDays(windowDays).toMillis(), amountBucket);
+        this.commitLag = Duration.ofMillis(Math.max(0, commitLagMs));
+        this.syncedUpTo = Instant.now().minusMillis(index.windowMillis()).plus(commitLag);
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    /**
+     * Indexes a claim about to be saved and returns the earlier claims it duplicates. Follow up with
+     * {@link #saved} once the insert committed, or {@link #discard} if the claim is not saved. Null when the check is
+     * off or the claim has no CPT code.
+     */
+    public DuplicateClaimIndex.Registration register(Claim c) {
+        if (mode == Mode.OFF) return null;
+        DuplicateClaimIndex.Registration r = index.register(c.getPatientId(), c.getCptCode(), c.getAmount(),
+                c.getSubmittedAt() != null ? c.getSubmittedAt() : Instant.now(), null, null);
+        if (r == null || r.duplicates().size() < 2) return r;
+        // a claim synced from the database while its own submission was in flight shows up twice
+        Set<String> seen = new HashSet<>();
+        List<DuplicateClaimIndex.Entry> unique = new ArrayList<>(r.duplicates().size());
+        for (DuplicateClaimIndex.Entry e : r.duplicates()) {
+            if (e.claimId() == null || seen.add(e.claimId())) unique.add(e);
+        }
+        return new DuplicateClaimIndex.Registration(r.entry(), unique);
+    }
+
+    public void saved(DuplicateClaimIndex.Registration r, Claim saved) {
+        if (r != null && r.entry() != null) index.saved(r.entry(), saved.getId(), saved.getClaimNumber());
+    }
+
+    public void discard(DuplicateClaimIndex.Registration r) {
+        if (r != null && r.entry() != null) index.remove(r.entry());
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /** DB-backed warm-up: indexes every claim created within the window. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (mode == Mode.OFF) return;
+        try {
+            int added = sync();
+            log.info("Duplicate claim index warmed with {} claims", added);
+        } catch (Exception e) {
+            log.warn("Duplicate claim index warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    /** Picks up claims created since the last sync (also by other instances) and drops those out of the window. */
+    @Scheduled(fixedDelayString = "${app.claims.duplicates.sync-ms:5000}",
+            initialDelayString = "${app.claims.duplicates.sync-ms:5000}")
+    public void scheduledSync() {
+        if (mode == Mode.OFF) return;
+        try {
+            sync();
+        } catch (Exception e) {
+            log.warn("Duplicate claim index sync failed: {}", e.getMessage());
+        }
+    }
+
+    private int sync() {
+        if (!syncLock.tryLock()) return 0;
+        try {
+            int added = 0;
+            Instant cursorCreatedAt = syncedUpTo.minus(commitLag);
+            String cursorId = MIN_ID;
+            while (true) {
+                List<ClaimRepository.DuplicateKey> rows =
+                        claimRepo.findDuplicateKeysAfter(cursorCreatedAt, cursorId, PageRequest.of(0, SYNC_PAGE));
+                for (ClaimRepository.DuplicateKey k : rows) {
+                    var r = index.register(k.getPatientId(), k.getCptCode(), k.getAmount(), k.getSubmittedAt(),
+                            k.getId(), k.getClaimNumber());
+                    // claims already indexed (earlier sync, or submitted here) come back with no entry
+                    if (r != null && r.entry() != null) added++;
+                }
+                if (!rows.isEmpty()) {
+                    ClaimRepository.DuplicateKey last = rows.get(rows.size() - 1);
+                    cursorCreatedAt = last.getCreatedAt();
+                    cursorId = last.getId();
+                    if (cursorCreatedAt.isAfter(syncedUpTo)) syncedUpTo = cursorCreatedAt;
+                }
+                if (rows.size() < SYNC_PAGE) break;
+            }
+            index.evictBefore(Instant.now().minusMillis(index.windowMillis()));
+            return added;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.medibots.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.medibots.entity.Ids;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Bulk export of claims, invoices and appointments as NDJSON or CSV.
+ * Rows are read from a forward-only JDBC cursor with a bounded fetch size and written straight to the response
+ * stream, so memory stays flat regardless of row count and the first rows go out before the query is exhausted.
+ * With MySQL a positive fetch size only streams with {@code useCursorFetch=true}, which also makes every prepared
+ * statement server-side, so exports run on a small pool of their own ({@code app.export.pool-size}) with that
+ * property set, whatever {@code SPRING_DATASOURCE_URL} says, and the application pool is left as it is.
+ */
+@Service
+public class ExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    /** Exportable tables with their column lists; keys match the JSON field names of the list endpoints. */
+    public enum Dataset {
+        CLAIMS("claims", "id, claim_number, patient_id, insurance_provider, amount, status, ai_risk_score, ai_explanation, "
+                + "denial_category, submitted_by, submitted_at, processed_at, appointment_id, hospital_id, primary_icd_code, "
+                + "secondary_icd_code, cpt_code, procedure_category, medical_necessity_score, prior_denial_count, "
+                + "resubmission_count, days_to_submission, documentation_complete, claim_type, policy_type, coverage_limit, "
+                + "deductible_amount, preauthorization_required, preauthorization_obtained, patient_age, patient_gender, "
+                + "chronic_condition_flag, doctor_specialization, hospital_tier, hospital_claim_success_rate, created_at"),
+        INVOICES("invoices", "id, invoice_number, patient_id, claim_id, total_amount, due_date, payment_status, hospital_id, "
+                + "days_to_payment, payment_delay_flag, payer_type, invoice_category, reminder_count, installment_plan, "
+                + "historical_avg_payment_delay, patient_age, patient_gender, previous_late_payments, created_at"),
+        APPOINTMENTS("appointments", "id, patient_id, doctor_id, status, appointment_date, reason, consultation_fee, fee_paid, "
+                + "hospital_id, booking_lead_time_days, previous_no_show_count, sms_reminder_sent, reminder_count, "
+                + "appointment_type, distance_from_hospital_km, time_slot, weekday, no_show_flag, patient_age, patient_gender, "
+                + "previous_late_payments, created_at");
+
+        private final String table;
+        private final String columns;
+        private final String[] labels;
+
+        Dataset(String table, String columns) {
+            this.table = table;
+            this.columns = columns;
+            this.labels = columns.split(",\\s*");
+        }
+
+        public String fileName() { return table; }
+
+        public static Dataset of(String name) {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbc;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final int fetchSize;
+
+    public ExportService(DataSourceProperties dataSourceProperties,
+                         @Value("${app.export.fetch-size:500}") int fetchSize,
+                         @Value("${app.export.pool-size:4}") int poolSize) {
+        this.fetchSize = fetchSize;
+        this.dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        this.dataSource.setPoolName("exports");
+        this.dataSource.setMaximumPoolSize(Math.max(1, poolSize));
+        this.dataSource.setMinimumIdle(0);
+        this.dataSource.addDataSourceProperty("useCursorFetch", "true");
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(fetchSize);
+    }
+
+    @PreDestroy
+    public void close() {
+        dataSource.close();
+    }
+
+    /**
+     * Streams the dataset to {@code out}, optionally filtered by hospital and a created_at range ({@code to} exclusive).
+     * The output is flushed after the first row and then every fetch-size rows.
+     */
+    public void export(Dataset dataset, Format format, String hospitalId, Instant from, Instant to, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT ").append(dataset.columns).append(" FROM ").append(dataset.table).append(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (hospitalId != null) {
+            sql.append(" AND hospital_id = ?");
+            args.add(hospitalId);
+        }
+        if (from != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(Timestamp.from(from));
+        }
+        if (to != null) {
+            sql.append(" AND created_at < ?");
+            args.add(Timestamp.from(to));
+        }
+        RowWriter writer = format == Format.CSV
+                ? new CsvRowWriter(dataset.labels, out)
+                : new NdjsonRowWriter(dataset.labels, jsonFactory.createGenerator(out, JsonEncoding.UTF8));
+        writer.header();
+        try {
+            jdbc.query(sql.toString(), rs -> {
+                try {
+                    writer.write(rs);
+                } catch (IOException e) {
+                    // client went away: abort the cursor instead of draining it
+                    throw new UncheckedIOException(e);
+                }
+            }, args.toArray());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.close();
+    }
+
+    private abstract class RowWriter {
+        final String[] labels;
+        int[] types;
+        private long rows;
+
+        RowWriter(String[] labels) {
+            this.labels = labels;
+        }
+
+        void write(ResultSet rs) throws SQLException, IOException {
+            if (types == null) {
+                ResultSetMetaData md = rs.getMetaData();
+                types = new int[labels.length];
+                for (int i = 0; i < labels.length; i++) types[i] = md.getColumnType(i + 1);
+            }
+            row(rs);
+            if (++rows == 1 || rows % fetchSize == 0) flush();
+        }
+
+        abstract void header() throws IOException;
+
+        abstract void row(ResultSet rs) throws SQLException, IOException;
+
+        abstract void flush() throws IOException;
+
+        abstract void close() throws IOException;
+    }
+
+    private class NdjsonRowWriter extends RowWriter {
+        private final JsonGenerator gen;
+
+        NdjsonRowWriter(String[] labels, JsonGenerator gen) {
+            super(labels);
+            this.gen = gen;
+            gen.setRootValueSeparator(null);
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        void header() {}
+
+        @Override
+        void row(ResultSet rs) throws SQLException, IOException {
+            gen.writeStartObject();
+            for (int i = 0; i < labels.length; i++) {
+                Object v = value(rs, i + 1, types[i]);
+                gen.writeFieldName(labels[i]);
+                if (v == null) gen.writeNull();
+                else if (v instanceof BigDecimal d) gen.writeNumber(d);
+                else if (v instanceof Long l) gen.writeNumber(l);
+                else if (v instanceof Integer n) gen.writeNumber(n);
+                else if (v instanceof Number n) gen.writeNumber(n.doubleValue());
+                else if (v instanceof Boolean b) gen.writeBoolean(b);
+                else gen.writeString(v.toString());
+            }
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+        }
+
+        @Override
+        void flush() throws IOException {
+            gen.flush();
+        }
+
+        @Override
+        void close() throws IOException {
+            gen.close();
+        }
+    }
+
+    private class CsvRowWriter extends RowWriter {
+        private final Writer w;
+
+        CsvRowWriter(String[] labels, OutputStream out) {
+            super(labels);
+            this.w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        }
+
+        @Override
+        void header() throws IOException {
+            for (int i = 0; i < labels.length; i++) {
+                if (i > 0) w.write(',');
+                cell(labels[i]);
+            }
+            w.write("\r\n");
+            w.flush();
+        }
+
+        @Override
+        void row(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < labels.length; i++) {
+                if (i > 0) w.write(',');
+                Object v = value(rs, i + 1, types[i]);
+                if (v != null) cell(v instanceof BigDecimal d ? d.toPlainString() : v.toString());
+            }
+            w.write("\r\n");
+        }
+
+        private void cell(String s) throws IOException {
+            if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+                w.write(s);
+                return;
+            }
+            w.write('"');
+            w.write(s.replace("\"", "\"\""));
+            w.write('"');
+        }
+
+        @Override
+        void flush() throws IOException {
+            w.flush();
+        }
+
+        @Override
+        void close() throws IOException {
+            w.flush();
+        }
+    }
+
+    /**
+     * Column value, with DATETIME / TIMESTAMP columns rendered as ISO-8601 instants and BINARY(16) ids as UUID
+     * strings.
+     */
+    private static Object value(ResultSet rs, int col, int type) throws SQLException {
+        if (type == Types.TIMESTAMP || type == Types.TIMESTAMP_WITH_TIMEZONE) {
+            Timestamp t = rs.getTimestamp(col);
+            return t != null ? t.toInstant() : null;
+        }
+        if (type == Types.BINARY) {
+            byte[] b = rs.getBytes(col);
+            return b != null && b.length == 16 ? Ids.fromBytes(b) : b;
+        }
+        return rs.getObject(col);
+    }
+}
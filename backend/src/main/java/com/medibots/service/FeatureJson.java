@@ -0,0 +1,168 @@
+package com.medibots.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Serialisation support for {@link FeatureVector}s: a shared streaming factory, pre-encoded field names, a growable
+ * buffer the request body is written into (and sent from, without copying), and the lenient conversions used to
+ * build feature records from request maps.
+ */
+final class FeatureJson {
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+            .enable(StreamWriteFeature.USE_FAST_DOUBLE_WRITER)
+            .build();
+
+    private FeatureJson() {}
+
+    /** Field name with its quoted UTF-8 form computed once, so writing it is a plain byte copy. */
+    static SerializableString name(String name) {
+        SerializedString s = new SerializedString(name);
+        s.asQuotedUTF8();
+        return s;
+    }
+
+    /**
+     * Generator over {@code out} without a root-value separator, so records written one after another can be
+     * delimited (or cut off again) directly in the buffer.
+     */
+    static JsonGenerator generator(Buffer out) throws IOException {
+        JsonGenerator g = FACTORY.createGenerator(out);
+        g.setRootValueSeparator(null);
+        return g;
+    }
+
+    static Buffer write(FeatureVector v) throws IOException {
+        Buffer out = new Buffer(768);
+        try (JsonGenerator g = generator(out)) {
+            v.writeTo(g);
+        }
+        return out;
+    }
+
+    /** Whole numbers are written as integers ("50000", as the map payloads sent them), which also avoids a String. */
+    static void field(JsonGenerator g, SerializableString name, double value) throws IOException {
+        g.writeFieldName(name);
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) g.writeNumber((long) value);
+        else g.writeNumber(value);
+    }
+
+    static void field(JsonGenerator g, SerializableString name, int value) throws IOException {
+        g.writeFieldName(name);
+        g.writeNumber(value);
+    }
+
+    static void field(JsonGenerator g, SerializableString name, boolean value) throws IOException {
+        g.writeFieldName(name);
+        g.writeBoolean(value);
+    }
+
+    /** Null values are left out, as the map-based payloads did. */
+    static void field(JsonGenerator g, SerializableString name, Boolean value) throws IOException {
+        if (value != null) field(g, name, value.booleanValue());
+    }
+
+    static void field(JsonGenerator g, SerializableString name, Double value) throws IOException {
+        if (value != null) field(g, name, value.doubleValue());
+    }
+
+    static void field(JsonGenerator g, SerializableString name, String value) throws IOException {
+        if (value == null) return;
+        g.writeFieldName(name);
+        g.writeString(value);
+    }
+
+    static Double num(Object v) {
+        if (v instanceof Number n) return n.doubleValue();
+        if (v != null) {
+            try {
+                return Double.parseDouble(v.toString().trim());
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return null;
+    }
+
+    static double num(Object v, double fallback) {
+        Double d = num(v);
+        return d != null ? d : fallback;
+    }
+
+    static int integer(Object v, int fallback) {
+        Double d = num(v);
+        return d != null ? d.intValue() : fallback;
+    }
+
+    static Boolean bool(Object v) {
+        if (v instanceof Boolean b) return b;
+        if (v != null) {
+            String s = v.toString().trim();
+            if ("true".equalsIgnoreCase(s)) return Boolean.TRUE;
+            if ("false".equalsIgnoreCase(s)) return Boolean.FALSE;
+        }
+        return null;
+    }
+
+    static boolean bool(Object v, boolean fallback) {
+        Boolean b = bool(v);
+        return b != null ? b : fallback;
+    }
+
+    static String str(Object v) {
+        return v != null ? v.toString() : null;
+    }
+
+    static String orElse(String v, String fallback) {
+        return v != null ? v : fallback;
+    }
+
+    /** Growable byte buffer exposing its backing array; {@link #truncate} drops bytes written after a mark. */
+    static final class Buffer extends OutputStream {
+        private byte[] bytes;
+        private int size;
+
+        Buffer(int capacity) {
+            bytes = new byte[Math.max(16, capacity)];
+        }
+
+        @Override
+        public void write(int b) {
+            ensure(1);
+            bytes[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensure(len);
+            System.arraycopy(b, off, bytes, size, len);
+            size += len;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] array() {
+            return bytes;
+        }
+
+        void truncate(int newSize) {
+            size = newSize;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+}
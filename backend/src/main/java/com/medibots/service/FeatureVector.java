@@ -0,0 +1,24 @@
+package com.medibots.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * Input row of one ML model. Implementations are immutable records with their defaults already applied, and write
+ * themselves field by field, so a request body is produced without an intermediate map or reflection.
+ */
+public interface FeatureVector {
+
+    /** Writes this row as one JSON object. */
+    void writeTo(JsonGenerator g) throws IOException;
+
+    /** JSON object of this row, as sent to the ML service. */
+    default byte[] toJson() {
+        try {
+            return FeatureJson.write(this).toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
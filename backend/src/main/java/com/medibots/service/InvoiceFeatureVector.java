@@ -0,0 +1,75 @@
+package com.medibots.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static com.medibots.service.FeatureJson.*;
+
+/** Payment-delay model input; {@code totalAmount} has no default and is left out when null. */
+public record InvoiceFeatureVector(
+        Double totalAmount,
+        int daysToPayment,
+        String payerType,
+        String invoiceCategory,
+        int reminderCount,
+        boolean installmentPlan,
+        double historicalAvgPaymentDelay,
+        int patientAge,
+        String patientGender,
+        int previousLatePayments,
+        String paymentStatus) implements FeatureVector {
+
+    private static final SerializableString TOTAL_AMOUNT = name("total_amount");
+    private static final SerializableString DAYS_TO_PAYMENT = name("days_to_payment");
+    private static final SerializableString PAYER_TYPE = name("payer_type");
+    private static final SerializableString INVOICE_CATEGORY = name("invoice_category");
+    private static final SerializableString REMINDER_COUNT = name("reminder_count");
+    private static final SerializableString INSTALLMENT_PLAN = name("installment_plan");
+    private static final SerializableString HISTORICAL_AVG_PAYMENT_DELAY = name("historical_avg_payment_delay");
+    private static final SerializableString PATIENT_AGE = name("patient_age");
+    private static final SerializableString PATIENT_GENDER = name("patient_gender");
+    private static final SerializableString PREVIOUS_LATE_PAYMENTS = name("previous_late_payments");
+    private static final SerializableString PAYMENT_STATUS = name("payment_status");
+
+    public InvoiceFeatureVector {
+        payerType = orElse(payerType, "SELF");
+        invoiceCategory = orElse(invoiceCategory, "CONSULTATION");
+        patientGender = orElse(patientGender, "MALE");
+        paymentStatus = orElse(paymentStatus, "UNPAID");
+    }
+
+    public static InvoiceFeatureVector from(Map<String, Object> f) {
+        return new InvoiceFeatureVector(
+                num(f.get("total_amount")),
+                integer(f.get("days_to_payment"), 0),
+                str(f.get("payer_type")),
+                str(f.get("invoice_category")),
+                integer(f.get("reminder_count"), 0),
+                bool(f.get("installment_plan"), false),
+                num(f.get("historical_avg_payment_delay"), 14),
+                integer(f.get("patient_age"), 40),
+                str(f.get("patient_gender")),
+                integer(f.get("previous_late_payments"), 0),
+                str(f.get("payment_status")));
+    }
+
+    @Override
+    public void writeTo(JsonGenerator g) throws IOException {
+        g.writeStartObject();
+        field(g, TOTAL_AMOUNT, totalAmount);
+        field(g, DAYS_TO_PAYMENT, daysToPayment);
+        field(g, PAYER_TYPE, payerType);
+        field(g, INVOICE_CATEGORY, invoiceCategory);
+        field(g, REMINDER_COUNT, reminderCount);
+        field(g, INSTALLMENT_PLAN, installmentPlan);
+        field(g, HISTORICAL_AVG_PAYMENT_DELAY, historicalAvgPaymentDelay);
+        field(g, PATIENT_AGE, patientAge);
+        field(g, PATIENT_GENDER, patientGender);
+        field(g, PREVIOUS_LATE_PAYMENTS, previousLatePayments);
+        field(g, PAYMENT_STATUS, paymentStatus);
+        g.writeEndObject();
+    }
+}
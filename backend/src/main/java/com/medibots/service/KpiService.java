@@ -0,0 +1,209 @@
+package com.medibots.service;
+
+import com.medibots.entity.AiLog;
+import com.medibots.entity.Claim;
+import com.medibots.entity.HospitalKpi;
+import com.medibots.entity.Invoice;
+import com.medibots.event.AiLogChangedEvent;
+import com.medibots.event.ClaimChangedEvent;
+import com.medibots.event.InvoiceChangedEvent;
+import com.medibots.repository.AiLogRepository;
+import com.medibots.repository.ClaimRepository;
+import com.medibots.repository.HospitalKpiRepository;
+import com.medibots.repository.InvoiceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-hospital dashboard KPIs (claim counts, PAID revenue, AI confidence) kept as running counters
+ * in hospital_kpis. Entity change events are applied as deltas after the writing transaction commits,
+ * so reads are a single-row (or tiny SUM) lookup instead of loading claims, invoices and AI logs.
+ */
+@Service
+public class KpiService {
+    private static final Logger log = LoggerFactory.getLogger(KpiService.class);
+
+    private final HospitalKpiRepository kpiRepo;
+    private final ClaimRepository claimRepo;
+    private final InvoiceRepository invoiceRepo;
+    private final AiLogRepository aiLogRepo;
+    private final TransactionTemplate tx;
+
+    public KpiService(HospitalKpiRepository kpiRepo, ClaimRepository claimRepo,
+                      InvoiceRepository invoiceRepo, AiLogRepository aiLogRepo, TransactionTemplate tx) {
+        this.kpiRepo = kpiRepo;
+        this.claimRepo = claimRepo;
+        this.invoiceRepo = invoiceRepo;
+        this.aiLogRepo = aiLogRepo;
+        this.tx = tx;
+    }
+
+    /** KPI map for one hospital, or across all hospitals when hospitalId is null. */
+    @Transactional(readOnly = true)
+    public Map<String, Object> kpis(String hospitalId) {
+        long total;
+        long approved;
+        long denied;
+        BigDecimal revenue;
+        BigDecimal confidenceSum;
+        long confidenceCount;
+        if (hospitalId != null && !hospitalId.isBlank()) {
+            HospitalKpi k = kpiRepo.findById(hospitalId).orElseGet(HospitalKpi::new);
+            total = k.getTotalClaims();
+            approved = k.getApprovedClaims();
+            denied = k.getDeniedClaims();
+            revenue = k.getRevenueCollected();
+            confidenceSum = k.getAiConfidenceSum();
+            confidenceCount = k.getAiConfidenceCount();
+        } else {
+            HospitalKpiRepository.Totals t = kpiRepo.sumAll();
+            total = orZero(t.getTotalClaims());
+            approved = orZero(t.getApprovedClaims());
+            denied = orZero(t.getDeniedClaims());
+            revenue = t.getRevenueCollected() != null ? t.getRevenueCollected() : BigDecimal.ZERO;
+            confidenceSum = t.getAiConfidenceSum() != null ? t.getAiConfidenceSum() : BigDecimal.ZERO;
+            confidenceCount = orZero(t.getAiConfidenceCount());
+        }
+        double denialRate = total > 0 ? Math.round((denied * 1000.0) / total) / 10.0 : 0;
+        double aiAccuracy = confidenceCount > 0 ? confidenceSum.doubleValue() / confidenceCount : 0;
+        aiAccuracy = Math.round(aiAccuracy * 10) / 10.0;
+        Map<String, Object> m = new HashMap<>();
+        m.put("totalClaims", total);
+        m.put("approvedClaims", approved);
+        m.put("deniedClaims", denied);
+        m.put("denialRate", denialRate);
+        m.put("revenueCollected", revenue.doubleValue());
+        m.put("aiAccuracy", aiAccuracy);
+        return m;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onClaimChanged(ClaimChangedEvent e) {
+        Claim.Snapshot b = e.before();
+        Claim.Snapshot a = e.after();
+        String bh = b != null ? key(b.hospitalId()) : null;
+        String ah = a != null ? key(a.hospitalId()) : null;
+        if (b != null && a != null && bh.equals(ah)) {
+            long approved = flag("APPROVED", a.status()) - flag("APPROVED", b.status());
+            long denied = flag("DENIED", a.status()) - flag("DENIED", b.status());
+            if (approved != 0 || denied != 0)
+                kpiRepo.applyDelta(ah, 0, approved, denied, BigDecimal.ZERO, BigDecimal.ZERO, 0);
+            return;
+        }
+        if (b != null)
+            kpiRepo.applyDelta(bh, -1, -flag("APPROVED", b.status()), -flag("DENIED", b.status()), BigDecimal.ZERO, BigDecimal.ZERO, 0);
+        if (a != null)
+            kpiRepo.applyDelta(ah, 1, flag("APPROVED", a.status()), flag("DENIED", a.status()), BigDecimal.ZERO, BigDecimal.ZERO, 0);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onInvoiceChanged(InvoiceChangedEvent e) {
+        Invoice.Snapshot b = e.before();
+        Invoice.Snapshot a = e.after();
+        BigDecimal was = paidAmount(b);
+        BigDecimal now = paidAmount(a);
+        String bh = b != null ? key(b.hospitalId()) : null;
+        String ah = a != null ? key(a.hospitalId()) : null;
+        if (bh != null && bh.equals(ah)) {
+            BigDecimal delta = now.subtract(was);
+            if (delta.signum() != 0) kpiRepo.applyDelta(ah, 0, 0, 0, delta, BigDecimal.ZERO, 0);
+            return;
+        }
+        if (was.signum() != 0) kpiRepo.applyDelta(bh, 0, 0, 0, was.negate(), BigDecimal.ZERO, 0);
+        if (now.signum() != 0) kpiRepo.applyDelta(ah, 0, 0, 0, now, BigDecimal.ZERO, 0);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onAiLogChanged(AiLogChangedEvent e) {
+        AiLog.Snapshot b = e.before();
+        AiLog.Snapshot a = e.after();
+        if (b != null && a != null && key(b.hospitalId()).equals(key(a.hospitalId()))) {
+            BigDecimal delta = confidence(a).subtract(confidence(b));
+            if (delta.signum() != 0) kpiRepo.applyDelta(key(a.hospitalId()), 0, 0, 0, BigDecimal.ZERO, delta, 0);
+            return;
+        }
+        if (b != null) kpiRepo.applyDelta(key(b.hospitalId()), 0, 0, 0, BigDecimal.ZERO, confidence(b).negate(), -1);
+        if (a != null) kpiRepo.applyDelta(key(a.hospitalId()), 0, 0, 0, BigDecimal.ZERO, confidence(a), 1);
+    }
+
+    /**
+     * Recomputes every hospital's counters from the source tables with grouped queries.
+     * Recovery path for drift (e.g. rows written with the listener disabled); writes that commit
+     * while the rebuild runs may need a second rebuild to be reflected exactly.
+     */
+    @Transactional
+    public int rebuild() {
+        Map<String, HospitalKpi> rows = new HashMap<>();
+        for (var r : claimRepo.countStatusByHospital()) {
+            HospitalKpi k = rows.computeIfAbsent(key(r.getHospitalId()), KpiService::newRow);
+            k.setTotalClaims(k.getTotalClaims() + orZero(r.getTotal()));
+            k.setApprovedClaims(k.getApprovedClaims() + orZero(r.getApproved()));
+            k.setDeniedClaims(k.getDeniedClaims() + orZero(r.getDenied()));
+        }
+        for (var r : invoiceRepo.sumPaidByHospital()) {
+            HospitalKpi k = rows.computeIfAbsent(key(r.getHospitalId()), KpiService::newRow);
+            if (r.getRevenue() != null) k.setRevenueCollected(k.getRevenueCollected().add(r.getRevenue()));
+        }
+        for (var r : aiLogRepo.sumConfidenceByHospital()) {
+            HospitalKpi k = rows.computeIfAbsent(key(r.getHospitalId()), KpiService::newRow);
+            if (r.getConfidenceSum() != null) k.setAiConfidenceSum(k.getAiConfidenceSum().add(r.getConfidenceSum()));
+            k.setAiConfidenceCount(k.getAiConfidenceCount() + orZero(r.getConfidenceCount()));
+        }
+        kpiRepo.deleteAllInBatch();
+        kpiRepo.saveAll(rows.values());
+        log.info("Rebuilt KPI counters for {} hospitals", rows.size());
+        return rows.size();
+    }
+
+    /** First start after upgrade: counters table is empty but source tables are not. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        try {
+            if (kpiRepo.count() == 0 && (claimRepo.count() > 0 || invoiceRepo.count() > 0 || aiLogRepo.count() > 0))
+                tx.executeWithoutResult(s -> rebuild());
+        } catch (Exception e) {
+            log.warn("KPI counter initialisation failed: {}", e.getMessage());
+        }
+    }
+
+    private static HospitalKpi newRow(String hospitalId) {
+        HospitalKpi k = new HospitalKpi();
+        k.setHospitalId(hospitalId);
+        return k;
+    }
+
+    private static String key(String hospitalId) {
+        return hospitalId != null && !hospitalId.isBlank() ? hospitalId : HospitalKpi.UNASSIGNED;
+    }
+
+    private static long flag(String expected, String status) {
+        return expected.equals(status) ? 1 : 0;
+    }
+
+    private static long orZero(Long v) {
+        return v != null ? v : 0L;
+    }
+
+    private static BigDecimal paidAmount(Invoice.Snapshot s) {
+        if (s == null || !"PAID".equals(s.paymentStatus()) || s.totalAmount() == null) return BigDecimal.ZERO;
+        return s.totalAmount();
+    }
+
+    private static BigDecimal confidence(AiLog.Snapshot s) {
+        return s.confidence() != null ? s.confidence() : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,105 @@
+package com.medibots.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Public landing page stats served from an in-memory snapshot.
+ * The snapshot is rebuilt on a fixed schedule (and on demand), so anonymous traffic never reaches the database.
+ */
+@Service
+public class LandingStatsService {
+    private static final Logger log = LoggerFactory.getLogger(LandingStatsService.class);
+    private static final List<Integer> FALLBACK_TREND = List.of(40, 55, 45, 60, 50, 70, 65, 80, 75, 85, 90, 88);
+
+    private final KpiService kpiService;
+    private final DashboardService dashboardService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private volatile Snapshot current;
+
+    @Value("${app.landing.stats-refresh-ms:60000}")
+    private long refreshMs;
+
+    public record Snapshot(Map<String, Object> stats, String etag, Instant computedAt) {}
+
+    public LandingStatsService(KpiService kpiService, DashboardService dashboardService) {
+        this.kpiService = kpiService;
+        this.dashboardService = dashboardService;
+    }
+
+    /** Latest snapshot; computed synchronously only before the first refresh has completed. */
+    public Snapshot current() {
+        Snapshot s = current;
+        if (s != null) return s;
+        synchronized (this) {
+            if (current == null) refresh();
+            return current;
+        }
+    }
+
+    public Duration maxAge() {
+        return Duration.ofMillis(refreshMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${app.landing.stats-refresh-ms:60000}", initialDelayString = "${app.landing.stats-refresh-ms:60000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /** Rebuilds the snapshot; on failure the previous snapshot keeps being served. */
+    public synchronized Snapshot refresh() {
+        try {
+            Map<String, Object> stats = compute();
+            byte[] json = objectMapper.writeValueAsBytes(stats);
+            String etag = "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json), 0, 8) + "\"";
+            current = new Snapshot(stats, etag, Instant.now());
+        } catch (Exception e) {
+            log.warn("Landing stats refresh failed: {}", e.getMessage());
+            if (current == null) current = new Snapshot(Map.of(), "\"empty\"", Instant.now());
+        }
+        return current;
+    }
+
+    private Map<String, Object> compute() {
+        Map<String, Object> kpis = kpiService.kpis(null);
+
+        // Claims per day for trend chart (7 days, then repeat 5 to get 12 bars)
+        long[] raw = dashboardService.weekdayCounts(null, null, null);
+        long maxVal = 0;
+        for (long v : raw) maxVal = Math.max(maxVal, v);
+        double scale = maxVal > 0 ? 100.0 / maxVal : 1;
+        List<Integer> claimsTrendPct = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            claimsTrendPct.add(Math.min(100, (int) Math.round(raw[i % 7] * scale)));
+        }
+        if (claimsTrendPct.stream().allMatch(v -> v == 0))
+            claimsTrendPct = FALLBACK_TREND; // fallback when no data
+
+        return Map.of(
+                "totalClaims", kpis.get("totalClaims"),
+                "denialRate", kpis.get("denialRate"),
+                "revenueCollected", kpis.get("revenueCollected"),
+                "aiAccuracy", Math.min(100, (double) kpis.get("aiAccuracy")),
+                "claimsTrend", claimsTrendPct
+        );
+    }
+}
@@ -0,0 +1,263 @@
+package com.medibots.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One trained model loaded from the JSON written by ml-service/export.py, scored in process. Mirrors the sklearn
+ * pipeline: numeric columns get median imputation and standard scaling, categorical columns are one-hot encoded
+ * (missing values as "MISSING", unknown categories ignored), and the estimator is either a forest of decision trees
+ * whose leaf class distributions are averaged or a binary logistic regression. Like the ML service it answers the
+ * predicted class and the probability of that class. Immutable, so one instance serves every thread.
+ */
+public final class LocalModel {
+    public static final String FORMAT = "medibots-model/1";
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final String MISSING = "MISSING";
+
+    private final String name;
+    private final String version;
+    private final int[] classes;
+    private final int width;
+    /** Column name to slot: numeric slots are 0..numeric-1, categorical ones follow. */
+    private final Map<String, Integer> columns = new HashMap<>();
+    private final int numeric;
+    private final double[] median;
+    private final double[] mean;
+    private final double[] scale;
+    private final int categorical;
+    private final int[] offset;
+    private final List<Map<String, Integer>> categories;
+    private final Tree[] trees;
+    private final double[] coef;
+    private final double intercept;
+
+    /** One tree as flat node arrays; a node whose left child is -1 is a leaf with {@code value} per class. */
+    private record Tree(int[] left, int[] right, int[] feature, double[] threshold, double[] value) {}
+
+    private LocalModel(JsonNode doc) {
+        if (!FORMAT.equals(doc.path("format").asText())) {
+            throw new IllegalArgumentException("Unsupported model format " + doc.path("format").asText());
+        }
+        name = doc.path("model").asText();
+        version = doc.path("version").asText(null);
+        classes = ints(doc.path("classes"));
+        if (classes.length < 2) throw new IllegalArgumentException("Model " + name + " has fewer than two classes");
+
+        JsonNode num = doc.path("numeric");
+        numeric = num.size();
+        median = new double[numeric];
+        mean = new double[numeric];
+        scale = new double[numeric];
+        for (int i = 0; i < numeric; i++) {
+            JsonNode c = num.get(i);
+            columns.put(c.path("name").asText(), i);
+            median[i] = c.path("median").asDouble();
+            mean[i] = c.path("mean").asDouble();
+            double s = c.path("scale").asDouble(1);
+            scale[i] = s != 0 ? s : 1;
+        }
+        JsonNode cat = doc.path("categorical");
+        categorical = cat.size();
+        offset = new int[categorical];
+        categories = new ArrayList<>(categorical);
+        int w = numeric;
+        for (int j = 0; j < categorical; j++) {
+            JsonNode c = cat.get(j);
+            columns.put(c.path("name").asText(), numeric + j);
+            offset[j] = w;
+            JsonNode values = c.path("categories");
+            Map<String, Integer> index = new HashMap<>(values.size() * 2);
+            for (int k = 0; k < values.size(); k++) index.put(values.get(k).asText(), k);
+            categories.add(index);
+            w += values.size();
+        }
+        width = w;
+
+        JsonNode estimator = doc.path("estimator");
+        switch (estimator.path("type").asText()) {
+            case "forest" -> {
+                JsonNode t = estimator.path("trees");
+                trees = new Tree[t.size()];
+                for (int i = 0; i < trees.length; i++) trees[i] = tree(t.get(i));
+                if (trees.length == 0) throw new IllegalArgumentException("Model " + name + " has no trees");
+                coef = null;
+                intercept = 0;
+            }
+            case "logistic" -> {
+                if (classes.length != 2) throw new IllegalArgumentException("Logistic model " + name + " is not binary");
+                trees = null;
+                coef = doubles(estimator.path("coef"));
+                intercept = estimator.path("intercept").asDouble();
+                if (coef.length != width) {
+                    throw new IllegalArgumentException("Model " + name + " has " + coef.length + " weights for " + width + " features");
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown estimator " + estimator.path("type").asText());
+        }
+    }
+
+    public static LocalModel of(JsonNode doc) {
+        return new LocalModel(doc);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /** Fingerprint of the .pkl the export was made from. */
+    public String version() {
+        return version;
+    }
+
+    public String estimator() {
+        return trees != null ? "forest(" + trees.length + ")" : "logistic";
+    }
+
+    /** Scores one feature object as sent to the ML service ({@code length} bytes of JSON from {@code offset}). */
+    public MlPredictionService.PredictionResult score(byte[] json, int offset, int length) throws IOException {
+        double[] num = new double[numeric];
+        Arrays.fill(num, Double.NaN);
+        String[] cat = new String[categorical];
+        try (JsonParser p = JSON.createParser(json, offset, length)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) throw new IOException("Feature row is not a JSON object");
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                Integer slot = columns.get(p.currentName());
+                JsonToken t = p.nextToken();
+                if (slot == null) {
+                    p.skipChildren();
+                } else if (slot < numeric) {
+                    num[slot] = number(p, t);
+                } else {
+                    cat[slot - numeric] = category(p, t);
+                }
+            }
+        }
+        return predict(transform(num, cat));
+    }
+
+    /** The row after imputation, scaling and one-hot encoding, in the column order the estimator was fitted on. */
+    private double[] transform(double[] num, String[] cat) {
+        double[] x = new double[width];
+        for (int i = 0; i < numeric; i++) {
+            double v = Double.isNaN(num[i]) ? median[i] : num[i];
+            x[i] = (v - mean[i]) / scale[i];
+        }
+        for (int j = 0; j < categorical; j++) {
+            Integer k = categories.get(j).get(cat[j] != null ? cat[j] : MISSING);
+            if (k != null) x[offset[j] + k] = 1;
+        }
+        return x;
+    }
+
+    private MlPredictionService.PredictionResult predict(double[] x) {
+        double[] proba = new double[classes.length];
+        if (trees != null) {
+            for (Tree t : trees) {
+                int node = 0;
+                while (t.left[node] != -1) {
+                    // sklearn compares features as float32 against double thresholds
+                    node = (float) x[t.feature[node]] <= t.threshold[node] ? t.left[node] : t.right[node];
+                }
+                int base = node * classes.length;
+                for (int c = 0; c < proba.length; c++) proba[c] += t.value[base + c];
+            }
+            for (int c = 0; c < proba.length; c++) proba[c] /= trees.length;
+        } else {
+            double z = intercept;
+            for (int i = 0; i < width; i++) z += coef[i] * x[i];
+            proba[1] = 1 / (1 + Math.exp(-z));
+            proba[0] = 1 - proba[1];
+        }
+        int best = 0;
+        for (int c = 1; c < proba.length; c++) if (proba[c] > proba[best]) best = c;
+        return new MlPredictionService.PredictionResult(classes[best], proba[best]);
+    }
+
+    /** Numbers, booleans (as 1 / 0) and numeric strings, as the ML service normalises them; anything else is missing. */
+    private static double number(JsonParser p, JsonToken t) throws IOException {
+        return switch (t) {
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> p.getDoubleValue();
+            case VALUE_TRUE -> 1;
+            case VALUE_FALSE -> 0;
+            case VALUE_STRING -> {
+                String s = p.getText().trim();
+                if ("true".equalsIgnoreCase(s)) yield 1;
+                if ("false".equalsIgnoreCase(s)) yield 0;
+                try {
+                    yield Double.parseDouble(s);
+                } catch (NumberFormatException e) {
+                    yield Double.NaN;
+                }
+            }
+            default -> {
+                p.skipChildren();
+                yield Double.NaN;
+            }
+        };
+    }
+
+    /** Category label as training saw it: pandas wrote booleans as "True" / "False", whole numbers without ".0". */
+    private static String category(JsonParser p, JsonToken t) throws IOException {
+        return switch (t) {
+            case VALUE_STRING -> p.getText();
+            case VALUE_TRUE -> "True";
+            case VALUE_FALSE -> "False";
+            case VALUE_NUMBER_INT -> p.getText();
+            case VALUE_NUMBER_FLOAT -> {
+                double d = p.getDoubleValue();
+                yield d == Math.rint(d) ? String.valueOf((long) d) : String.valueOf(d);
+            }
+            default -> {
+                p.skipChildren();
+                yield null;
+            }
+        };
+    }
+
+    private Tree tree(JsonNode t) {
+        int[] left = ints(t.path("left"));
+        int[] right = ints(t.path("right"));
+        int[] feature = ints(t.path("feature"));
+        double[] threshold = doubles(t.path("threshold"));
+        int nodes = left.length;
+        if (nodes == 0 || right.length != nodes || feature.length != nodes || threshold.length != nodes) {
+            throw new IllegalArgumentException("Model " + name + " has a malformed tree");
+        }
+        JsonNode v = t.path("value");
+        double[] value = new double[nodes * classes.length];
+        for (int n = 0; n < nodes; n++) {
+            if (left[n] == -1) {
+                JsonNode row = v.get(n);
+                for (int c = 0; c < classes.length; c++) value[n * classes.length + c] = row.get(c).asDouble();
+            } else if (feature[n] < 0 || feature[n] >= width) {
+                throw new IllegalArgumentException("Model " + name + " has a split outside its " + width + " features");
+            } else if (left[n] <= n || left[n] >= nodes || right[n] <= n || right[n] >= nodes) {
+                // sklearn numbers children after their parent; anything else could loop
+                throw new IllegalArgumentException("Model " + name + " has a malformed tree");
+            }
+        }
+        return new Tree(left, right, feature, threshold, value);
+    }
+
+    private static int[] ints(JsonNode a) {
+        int[] out = new int[a.size()];
+        for (int i = 0; i < out.length; i++) out[i] = a.get(i).asInt();
+        return out;
+    }
+
+    private static double[] doubles(JsonNode a) {
+        double[] out = new double[a.size()];
+        for (int i = 0; i < out.length; i++) out[i] = a.get(i).asDouble();
+        return out;
+    }
+}
@@ -0,0 +1,210 @@
+package com.medibots.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Scores the denial, payment-delay and no-show models in process from the exports ml-service/export.py writes to
+ * {@code app.ml.local.dir} ({@code denial.json}, {@code payment_delay.json}, {@code no_show.json}). The directory is
+ * polled every {@code reload-check-ms}; a changed file is parsed in the background and swapped in whole, a file that
+ * does not parse leaves the previous model in place. {@code mode} is off, shadow (the ML service still answers; each
+ * of its predictions is also scored here and the two are compared in {@code ml.local.shadow} metrics) or primary
+ * (predictions are scored here and the ML service is only called for a model that is not loaded or fails to score).
+ */
+@Service
+public class LocalModelScorer {
+    private static final Logger log = LoggerFactory.getLogger(LocalModelScorer.class);
+    private static final String[] MODELS = {"denial", "payment_delay", "no_show"};
+
+    public enum Mode { OFF, SHADOW, PRIMARY }
+
+    private final Mode mode;
+    private final Path dir;
+    private final MeterRegistry registry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    /** Keyed by endpoint path, /predict/payment-delay for payment_delay.json. */
+    private final Map<String, Slot> slots = new LinkedHashMap<>();
+
+    /** One model file and what was last loaded from it. */
+    private final class Slot {
+        final String name;
+        final Path file;
+        final Timer scoreTimer;
+        final Counter agreed;
+        final Counter disagreed;
+        final DistributionSummary delta;
+        final LongAdder errors = new LongAdder();
+        volatile LocalModel model;
+        volatile Instant loadedAt;
+        /** Modification time and size of the file last read, loaded or not; -1 when there was none. */
+        long stamp = -1;
+        long size = -1;
+        volatile double maxDelta;
+
+        Slot(String name) {
+            this.name = name;
+            this.file = dir.resolve(name + ".json");
+            this.scoreTimer = Timer.builder("ml.local.score").tag("model", name)
+                    .description("In-process model scoring").register(registry);
+            this.agreed = Counter.builder("ml.local.shadow").tags("model", name, "result", "agree").register(registry);
+            this.disagreed = Counter.builder("ml.local.shadow").tags("model", name, "result", "disagree").register(registry);
+            this.delta = DistributionSummary.builder("ml.local.shadow.delta").tag("model", name)
+                    .description("Absolute difference between the in-process and the ML service probability")
+                    .register(registry);
+        }
+    }
+
+    public LocalModelScorer(@Value("${app.ml.local.mode:off}") String mode,
+                            @Value("${app.ml.local.dir:../ml-service/model/export}") String dir,
+                            MeterRegistry registry) {
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.dir = Path.of(dir);
+        this.registry = registry;
+        if (this.mode != Mode.OFF) {
+            for (String name : MODELS) slots.put("/predict/" + name.replace('_', '-'), new Slot(name));
+        }
+    }
+
+    /** First load, so primary mode scores locally from the first request rather than after the first poll. */
+    @PostConstruct
+    public void load() {
+        reload();
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    /** Whether predictions for {@code path} (e.g. /predict/denial) should be scored here instead of remotely. */
+    public boolean primary(String path) {
+        return mode == Mode.PRIMARY && model(path) != null;
+    }
+
+    /** In-process prediction for {@code length} bytes of feature JSON; null when the model is not loaded or fails. */
+    public MlPredictionService.PredictionResult score(String path, byte[] json, int offset, int length) {
+        Slot slot = slot(path);
+        LocalModel model = slot != null ? slot.model : null;
+        if (model == null) return null;
+        long start = System.nanoTime();
+        try {
+            return model.score(json, offset, length);
+        } catch (Exception e) {
+            slot.errors.increment();
+            log.debug("Local {} model could not score: {}", slot.name, e.getMessage());
+            return null;
+        } finally {
+            slot.scoreTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** In shadow mode, scores the same payload here and records how far it is from the ML service's answer. */
+    public void shadow(String path, byte[] json, int offset, int length, MlPredictionService.PredictionResult remote) {
+        // a failed remote call comes back as (0, 0), which is not an answer to compare with
+        if (mode != Mode.SHADOW || remote.probability() == 0d) return;
+        MlPredictionService.PredictionResult local = score(path, json, offset, length);
+        if (local == null) return;
+        Slot slot = slot(path);
+        double d = Math.abs(local.probability() - remote.probability());
+        slot.delta.record(d);
+        if (d > slot.maxDelta) slot.maxDelta = d;
+        if (local.prediction() == remote.prediction()) {
+            slot.agreed.increment();
+        } else {
+            slot.disagreed.increment();
+            log.debug("Local {} model disagrees with the ML service: {} vs {}", slot.name, local, remote);
+        }
+    }
+
+    /** Loads any export that appeared or changed since the last check. */
+    @Scheduled(fixedDelayString = "${app.ml.local.reload-check-ms:10000}")
+    public void reload() {
+        for (Slot slot : slots.values()) {
+            try {
+                long stamp = Files.getLastModifiedTime(slot.file).toMillis();
+                long size = Files.size(slot.file);
+                if (stamp == slot.stamp && size == slot.size) continue;
+                slot.stamp = stamp;
+                slot.size = size;
+                LocalModel model = LocalModel.of(objectMapper.readTree(slot.file.toFile()));
+                if (!slot.name.equals(model.name())) {
+                    log.warn("Local model file {} holds model '{}'", slot.file, model.name());
+                }
+                LocalModel previous = slot.model;
+                slot.model = model;
+                slot.loadedAt = Instant.now();
+                slot.maxDelta = 0;
+                log.info("Local {} model loaded from {}: {}, version {} (was {})", slot.name, slot.file,
+                        model.estimator(), model.version(), previous != null ? previous.version() : "none");
+            } catch (NoSuchFileException e) {
+                if (slot.model != null) log.info("Local {} model unloaded, {} is gone", slot.name, slot.file);
+                slot.model = null;
+                slot.stamp = -1;
+                slot.size = -1;
+            } catch (Exception e) {
+                // keep serving the previous model; the next change to the file is tried again
+                log.warn("Local {} model not loaded from {}: {}", slot.name, slot.file, e.getMessage());
+            }
+        }
+    }
+
+    /** Mode, directory and per model: loaded version, scoring time and, in shadow mode, agreement with the service. */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new HashMap<>();
+        m.put("mode", mode.name().toLowerCase(Locale.ROOT));
+        m.put("dir", dir.toAbsolutePath().toString());
+        Map<String, Object> models = new LinkedHashMap<>();
+        for (Slot slot : slots.values()) {
+            LocalModel model = slot.model;
+            Map<String, Object> s = new HashMap<>();
+            s.put("loaded", model != null);
+            if (model != null) {
+                s.put("version", model.version());
+                s.put("estimator", model.estimator());
+                s.put("loaded_at", slot.loadedAt.toString());
+            }
+            s.put("scored", slot.scoreTimer.count());
+            s.put("mean_us", Math.round(slot.scoreTimer.mean(TimeUnit.NANOSECONDS) / 10) / 100.0);
+            s.put("errors", slot.errors.sum());
+            if (mode == Mode.SHADOW) {
+                long agreed = (long) slot.agreed.count();
+                long compared = agreed + (long) slot.disagreed.count();
+                s.put("compared", compared);
+                s.put("agreement_rate", compared > 0 ? Math.round(agreed * 1000.0 / compared) / 1000.0 : 0);
+                s.put("mean_abs_delta", Math.round(slot.delta.mean() * 10000) / 10000.0);
+                s.put("max_abs_delta", Math.round(slot.maxDelta * 10000) / 10000.0);
+            }
+            models.put(slot.name, s);
+        }
+        m.put("models", models);
+        return m;
+    }
+
+    private LocalModel model(String path) {
+        Slot slot = slot(path);
+        return slot != null ? slot.model : null;
+    }
+
+    private Slot slot(String path) {
+        return slots.get(path);
+    }
+}
@@ -0,0 +1,195 @@
+package com.medibots.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Circuit breaker for one ML endpoint over a sliding window of the last {@code windowSize} calls. Once the window
+ * holds {@code minimumCalls} results and the failure rate or the slow-call rate reaches its threshold, the circuit
+ * opens: {@link #tryAcquire()} refuses every call for {@code openMillis}, so callers go straight to their fallback.
+ * It then turns half-open and lets {@code probes} calls through one at a time; all of them succeeding closes it with a
+ * fresh window, any failure or slow call opens it again.
+ */
+public class MlCircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final Logger log = LoggerFactory.getLogger(MlCircuitBreaker.class);
+
+    private static final byte OK = 0;
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final String name;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long slowCallNanos;
+    private final int slowRateThreshold;
+    private final long openNanos;
+    private final int probes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final byte[] window;
+    private final LongAdder shortCircuited = new LongAdder();
+    private int next;
+    private int count;
+    private int failures;
+    private int slow;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean probeInFlight;
+    private int probeSuccesses;
+    private long transitions;
+
+    /** Rates are percentages of the calls in the window. */
+    public MlCircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold, long slowCallMillis,
+                            int slowRateThreshold, long openMillis, int probes) {
+        this.name = name;
+        this.window = new byte[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallMillis * 1_000_000L;
+        this.slowRateThreshold = slowRateThreshold;
+        this.openNanos = openMillis * 1_000_000L;
+        this.probes = Math.max(1, probes);
+    }
+
+    /**
+     * Whether a call may go out now. Every true must be followed by {@link #onResult} or, if the call is not made
+     * after all, {@link #release()}.
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                transition(State.HALF_OPEN);
+                probeSuccesses = 0;
+                probeInFlight = false;
+            }
+            if (state == State.CLOSED) return true;
+            if (state == State.HALF_OPEN && !probeInFlight) {
+                probeInFlight = true;
+                return true;
+            }
+            shortCircuited.increment();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Gives back a permit whose call was not made (e.g. the bulkhead was full). */
+    public void release() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) probeInFlight = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Records a finished call; {@code failed} is an error, timeout or 5xx (a 4xx is the service answering). */
+    public void onResult(boolean failed, long elapsedNanos) {
+        byte outcome = failed ? FAILED : elapsedNanos >= slowCallNanos ? SLOW : OK;
+        lock.lock();
+        try {
+            switch (state) {
+                case HALF_OPEN -> {
+                    probeInFlight = false;
+                    if (outcome != OK) {
+                        open();
+                    } else if (++probeSuccesses >= probes) {
+                        log.info("ML circuit {} closed after {} successful probes", name, probes);
+                        transition(State.CLOSED);
+                        resetWindow();
+                    }
+                }
+                case CLOSED -> {
+                    record(outcome);
+                    if (count >= minimumCalls && (failures * 100L >= (long) failureRateThreshold * count
+                            || slow * 100L >= (long) slowRateThreshold * count)) {
+                        open();
+                    }
+                }
+                // a call let through before the circuit opened: nothing to learn
+                case OPEN -> { }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State state() {
+        lock.lock();
+        try {
+            // report an expired open period as half-open even before the next call arrives
+            return state == State.OPEN && System.nanoTime() - openedAt >= openNanos ? State.HALF_OPEN : state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Calls refused while open (or while a half-open probe was out). */
+    public long shortCircuited() {
+        return shortCircuited.sum();
+    }
+
+    public Map<String, Object> snapshot() {
+        lock.lock();
+        try {
+            Map<String, Object> m = new HashMap<>();
+            State reported = state();
+            m.put("state", reported.name());
+            m.put("calls", count);
+            m.put("failure_rate_pct", count > 0 ? Math.round(failures * 1000.0 / count) / 10.0 : 0);
+            m.put("slow_rate_pct", count > 0 ? Math.round(slow * 1000.0 / count) / 10.0 : 0);
+            m.put("short_circuited", shortCircuited.sum());
+            m.put("transitions", transitions);
+            if (reported == State.OPEN) {
+                m.put("retry_in_ms", Math.max(0, (openNanos - (System.nanoTime() - openedAt)) / 1_000_000));
+            }
+            return m;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(byte outcome) {
+        if (count == window.length) {
+            byte evicted = window[next];
+            if (evicted == FAILED) failures--;
+            else if (evicted == SLOW) slow--;
+        } else {
+            count++;
+        }
+        window[next] = outcome;
+        next = (next + 1) % window.length;
+        if (outcome == FAILED) failures++;
+        else if (outcome == SLOW) slow++;
+    }
+
+    private void open() {
+        if (state == State.CLOSED) {
+            log.warn("ML circuit {} opened: {}/{} calls failed, {} slow; retrying in {} ms", name, failures, count, slow,
+                    openNanos / 1_000_000);
+        }
+        transition(State.OPEN);
+        openedAt = System.nanoTime();
+        probeInFlight = false;
+    }
+
+    private void transition(State to) {
+        if (state != to) transitions++;
+        state = to;
+    }
+
+    private void resetWindow() {
+        next = 0;
+        count = 0;
+        failures = 0;
+        slow = 0;
+    }
+}
@@ -0,0 +1,244 @@
+package com.medibots.service;
+
+import com.medibots.config.MlHttpProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * HTTP client for the ML service. Every call passes a bulkhead of {@code app.ml.http.max-in-flight} permits (a caller
+ * that cannot get one within {@code acquire-timeout-ms} fails fast instead of queueing behind a slow pod) and runs
+ * under its endpoint group's deadlines: {@code read-ms} until the response headers, {@code overall-ms} for the whole
+ * exchange, after which the request is cancelled; the group's {@code slow-call-ms} feeds the circuit breaker. Connections are kept alive and reused; at most max-in-flight are
+ * busy at a time and idle ones close after {@code keep-alive-ms}. Latency is recorded per path and outcome as
+ * {@code ml.client.requests} (histogram plus p50 / p95 / p99). Each path has an {@link MlCircuitBreaker}; while it is
+ * open calls fail immediately with {@link CircuitOpenException}, without touching the network or the bulkhead.
+ */
+@Component
+public class MlGateway {
+    /** Deadline groups; the path is the metric tag. */
+    public enum Endpoint { PREDICT, BATCH, INSIGHTS, STATS }
+
+    /** Failed call: non-2xx answer (status set), deadline exceeded, bulkhead full or I/O error (status 0). */
+    public static class MlCallException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+
+        MlCallException(String message, int status, Throwable cause) {
+            super(message, cause);
+            this.status = status;
+        }
+
+        public int status() { return status; }
+    }
+
+    /** Refused by an open circuit; nothing was sent. */
+    public static class CircuitOpenException extends MlCallException {
+        private static final long serialVersionUID = 1L;
+
+        CircuitOpenException(String path) {
+            super("ML circuit open for " + path, 0, null);
+        }
+    }
+
+    private static final String METRIC = "ml.client.requests";
+
+    private final String baseUrl;
+    private final MlHttpProperties props;
+    private final MeterRegistry registry;
+    private final HttpClient client;
+    private final Semaphore bulkhead;
+    private final Counter rejected;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, MlCircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public MlGateway(@Value("${app.ml.service-url:http://127.0.0.1:8000}") String baseUrl, MlHttpProperties props,
+                     MeterRegistry registry) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.props = props;
+        this.registry = registry;
+        // the JDK client reads its pool settings once, JVM-wide; set them unless the deployment already has
+        if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+            System.setProperty("jdk.httpclient.keepalive.timeout", String.valueOf(Math.max(1, props.getKeepAliveMs() / 1000)));
+        }
+        if (System.getProperty("jdk.httpclient.connectionPoolSize") == null) {
+            System.setProperty("jdk.httpclient.connectionPoolSize", String.valueOf(Math.max(1, props.getMaxInFlight())));
+        }
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(props.getConnectTimeoutMs()))
+                .build();
+        this.bulkhead = new Semaphore(Math.max(1, props.getMaxInFlight()));
+        this.rejected = Counter.builder("ml.client.rejected")
+                .description("ML calls refused because max-in-flight calls were already running").register(registry);
+        Gauge.builder("ml.client.in_flight", bulkhead, b -> Math.max(0, props.getMaxInFlight() - b.availablePermits()))
+                .register(registry);
+    }
+
+    /** POSTs {@code length} bytes of {@code body} as JSON; the response body on 2xx. */
+    public byte[] post(Endpoint endpoint, String path, byte[] body, int offset, int length) {
+        return exchange(endpoint, path, HttpRequest.newBuilder()
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body, offset, length)));
+    }
+
+    public byte[] get(Endpoint endpoint, String path) {
+        return exchange(endpoint, path, HttpRequest.newBuilder().GET());
+    }
+
+    private byte[] exchange(Endpoint endpoint, String path, HttpRequest.Builder request) {
+        MlHttpProperties.Deadline deadline = deadline(endpoint);
+        MlCircuitBreaker breaker = breaker(path, deadline);
+        if (breaker != null && !breaker.tryAcquire()) throw new CircuitOpenException(path);
+        try {
+            if (!bulkhead.tryAcquire(props.getAcquireTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                if (breaker != null) breaker.release();
+                rejected.increment();
+                throw new MlCallException("ML bulkhead full (" + props.getMaxInFlight() + " calls in flight), " + path, 0, null);
+            }
+        } catch (InterruptedException e) {
+            if (breaker != null) breaker.release();
+            Thread.currentThread().interrupt();
+            throw new MlCallException("Interrupted waiting for the ML bulkhead, " + path, 0, e);
+        }
+        long start = System.nanoTime();
+        String outcome = "error";
+        int status = 0;
+        CompletableFuture<HttpResponse<byte[]>> future = null;
+        try {
+            future = client.sendAsync(request.uri(URI.create(baseUrl + path))
+                    .timeout(Duration.ofMillis(deadline.getReadMs())).build(), HttpResponse.BodyHandlers.ofByteArray());
+            HttpResponse<byte[]> response = future.get(deadline.getOverallMs(), TimeUnit.MILLISECONDS);
+            status = response.statusCode();
+            if (status / 100 != 2) {
+                outcome = "status_" + status / 100 + "xx";
+                throw new MlCallException("ML " + path + " answered " + status, status, null);
+            }
+            outcome = "success";
+            return response.body();
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            outcome = "timeout";
+            throw new MlCallException("ML " + path + " exceeded " + deadline.getOverallMs() + " ms", 0, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof HttpTimeoutException) {
+                outcome = "timeout";
+                String what = cause instanceof HttpConnectTimeoutException
+                        ? "connect " + props.getConnectTimeoutMs() : "read " + deadline.getReadMs();
+                throw new MlCallException("ML " + path + " exceeded " + what + " ms", 0, cause);
+            }
+            throw new MlCallException("ML " + path + " failed: " + cause, 0, cause);
+        } catch (InterruptedException e) {
+            if (future != null) future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new MlCallException("Interrupted calling ML " + path, 0, e);
+        } finally {
+            bulkhead.release();
+            long elapsed = System.nanoTime() - start;
+            timer(path, outcome).record(elapsed, TimeUnit.NANOSECONDS);
+            // a 4xx is the service answering; an interrupted caller says nothing about the service
+            if (breaker != null) {
+                if (Thread.currentThread().isInterrupted()) breaker.release();
+                else breaker.onResult(!"success".equals(outcome) && (status == 0 || status >= 500), elapsed);
+            }
+        }
+    }
+
+    /** One breaker per path; a path is always called in the same endpoint group, whose slow-call-ms it uses. */
+    private MlCircuitBreaker breaker(String path, MlHttpProperties.Deadline deadline) {
+        MlHttpProperties.Circuit c = props.getCircuit();
+        if (!c.isEnabled()) return null;
+        return breakers.computeIfAbsent(path, p -> {
+            MlCircuitBreaker b = new MlCircuitBreaker(p, c.getWindowSize(), c.getMinimumCalls(), c.getFailureRateThreshold(),
+                    deadline.getSlowCallMs(), c.getSlowRateThreshold(), c.getOpenMs(), c.getHalfOpenProbes());
+            // 0 closed, 1 half-open, 2 open
+            Gauge.builder("ml.client.circuit.state", b, x -> switch (x.state()) {
+                case CLOSED -> 0;
+                case HALF_OPEN -> 1;
+                case OPEN -> 2;
+            }).tag("endpoint", p).register(registry);
+            FunctionCounter.builder("ml.client.short_circuited", b, MlCircuitBreaker::shortCircuited)
+                    .tag("endpoint", p).register(registry);
+            return b;
+        });
+    }
+
+    /** Circuit state per endpoint path, for the mlcircuits actuator endpoint. */
+    public Map<String, Object> circuits() {
+        Map<String, Object> m = new TreeMap<>();
+        breakers.forEach((path, b) -> m.put(path, b.snapshot()));
+        return m;
+    }
+
+    private MlHttpProperties.Deadline deadline(Endpoint endpoint) {
+        return switch (endpoint) {
+            case PREDICT -> props.getPredict();
+            case BATCH -> props.getBatch();
+            case INSIGHTS -> props.getInsights();
+            case STATS -> props.getStats();
+        };
+    }
+
+    private Timer timer(String path, String outcome) {
+        return timers.computeIfAbsent(path + ' ' + outcome, k -> Timer.builder(METRIC)
+                .description("Calls to the ML service")
+                .tags("endpoint", path, "outcome", outcome)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry));
+    }
+
+    /** Bulkhead state and per-endpoint latency (count, mean, max, p50 / p95 / p99 in ms) for the API. */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new HashMap<>();
+        m.put("max_in_flight", props.getMaxInFlight());
+        m.put("in_flight", Math.max(0, props.getMaxInFlight() - bulkhead.availablePermits()));
+        m.put("rejected", (long) rejected.count());
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        timers.forEach((key, timer) -> {
+            HistogramSnapshot s = timer.takeSnapshot();
+            Map<String, Object> e = new HashMap<>();
+            e.put("endpoint", timer.getId().getTag("endpoint"));
+            e.put("outcome", timer.getId().getTag("outcome"));
+            e.put("count", s.count());
+            e.put("mean_ms", round(s.mean(TimeUnit.MILLISECONDS)));
+            e.put("max_ms", round(s.max(TimeUnit.MILLISECONDS)));
+            for (ValueAtPercentile p : s.percentileValues()) {
+                e.put("p" + Math.round(p.percentile() * 100) + "_ms", round(p.value(TimeUnit.MILLISECONDS)));
+            }
+            endpoints.add(e);
+        });
+        m.put("endpoints", endpoints);
+        return m;
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 100) / 100.0;
+    }
+}
@@ -1,175 +1,442 @@
 package com.medibots.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
 
 /**
  * Client for the FastAPI ML prediction service.
- * Calls /predict/denial, /predict/payment-delay, /predict/no-show and returns prediction + probability.
+ * Calls /predict/denial, /predict/payment-delay, /predict/no-show and returns prediction + probability;
+ * the *Batch variants use the matching /batch endpoints for bulk paths such as rescoring.
+ * Inputs are typed {@link FeatureVector}s written straight into the request body; successful results are cached by
+ * a digest of those bytes until the TTL runs out or the service reports a new model version. Concurrent single
+ * calls with the same digest share one request ({@link SingleFlight}). HTTP goes through {@link MlGateway} (pooled
+ * connections, per-endpoint deadlines, bulkhead, circuit breaker). With {@code app.ml.local.mode} primary the three
+ * models are scored in process by {@link LocalModelScorer} instead; in shadow mode every answer from the service is
+ * compared with the local score. The /stats/* answers, which only change when the models are retrained, are held in a
+ * {@link RefreshAheadCache} and reloaded in the background.
  */
 @Service
 public class MlPredictionService {
     private static final Logger log = LoggerFactory.getLogger(MlPredictionService.class);
-    private final RestTemplate restTemplate = new RestTemplate();
+    private static final PredictionResult FAILED = new PredictionResult(0, 0d);
+    private static final Map<String, Object> STATS_FALLBACK = Map.of("acceptance_rate", 0.75, "denial_rate", 0.25,
+            "total_claims", 400);
+    private static final String[] STATS_PATHS = {"/stats/claims", "/stats/invoices", "/stats/appointments"};
+    private static final Map<String, Object> UNAVAILABLE_INSIGHTS = Map.of("prediction", 0, "probability", 0.5,
+            "acceptance_rate_pct", 50.0, "denial_rate_pct", 50.0, "historical_stats", Map.of(),
+            "insights", "Unable to load prediction. Please try again.");
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    @Value("${app.ml.service-url:http://127.0.0.1:8000}")
-    private String mlBaseUrl;
+    private final MlGateway gateway;
+    private final LocalModelScorer local;
+    private final int batchSize;
+    private final PredictionCache<PredictionResult> predictionCache;
+    private final PredictionCache<Map<String, Object>> insightsCache;
+    private final SingleFlight<PredictionResult> predictionFlights;
+    private final SingleFlight<Map<String, Object>> insightsFlights;
+    private final RefreshAheadCache<Map<String, Object>> statsCache;
+    private volatile String modelVersion;
+
+    public MlPredictionService(MlGateway gateway,
+                               LocalModelScorer local,
+                               @Value("${app.ml.batch-size:200}") int batchSize,
+                               @Value("${app.ml.cache.max-size:10000}") int cacheSize,
+                               @Value("${app.ml.cache.ttl-ms:3600000}") long cacheTtlMs,
+                               @Value("${app.ml.coalesce:true}") boolean coalesce,
+                               @Value("${app.ml.stats.ttl-ms:600000}") long statsTtlMs,
+                               @Value("${app.ml.stats.refresh-ahead-ms:120000}") long statsRefreshAheadMs,
+                               @Value("${app.ml.stats.retry-ms:30000}") long statsRetryMs) {
+        this.gateway = gateway;
+        this.local = local;
+        this.batchSize = Math.max(1, batchSize);
+        this.predictionCache = new PredictionCache<>(cacheSize, cacheTtlMs);
+        this.insightsCache = new PredictionCache<>(cacheSize, cacheTtlMs);
+        this.predictionFlights = coalesce ? new SingleFlight<>() : null;
+        this.insightsFlights = coalesce ? new SingleFlight<>() : null;
+        this.statsCache = new RefreshAheadCache<>(this::loadStats, statsTtlMs, statsRefreshAheadMs, statsRetryMs,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ml-stats-refresh-", 0).factory()));
+    }
 
     public record PredictionResult(int prediction, double probability) {}
 
     public PredictionResult predictDenial(Map<String, Object> features) {
-        Map<String, Object> payload = buildClaimPayload(features);
-        PredictionResult result = call("/predict/denial", payload);
-        if (result.probability() == 0d && result.prediction() == 0) {
-            return denialFallback(features, payload);
+        return predictDenial(ClaimFeatureVector.from(features));
+    }
+
+    public PredictionResult predictDenial(ClaimFeatureVector features) {
+        PredictionResult result = call("/predict/denial", features);
+        if (failed(result)) {
+            return denialFallback(features);
         }
         return result;
     }
 
+    /**
+     * {@link #predictDenial} without the amount-based fallback, for background scoring that retries instead: a call
+     * the service did not answer (error, timeout, full bulkhead, open circuit) comes back as (0, 0).
+     */
+    public PredictionResult scoreDenial(ClaimFeatureVector features) {
+        return call("/predict/denial", features);
+    }
+
+    /** Whether {@code result} is the (0, 0) that stands for a prediction the ML service did not answer. */
+    public static boolean failed(PredictionResult result) {
+        return result.equals(FAILED);
+    }
+
     public PredictionResult predictPaymentDelay(Map<String, Object> features) {
-        return call("/predict/payment-delay", buildInvoicePayload(features));
+        return call("/predict/payment-delay", InvoiceFeatureVector.from(features));
     }
 
     public PredictionResult predictNoShow(Map<String, Object> features) {
-        return call("/predict/no-show", buildAppointmentPayload(features));
+        return call("/predict/no-show", AppointmentFeatureVector.from(features));
     }
 
-    private PredictionResult call(String path, Map<String, Object> body) {
+    /** Records per batch request; batch callers can use it to size the slices they score concurrently. */
+    public int batchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Batch variant of {@link #predictDenial}: one POST per {@code app.ml.batch-size} records, results in input order.
+     * Records the service could not score get the same amount-based fallback as the single call.
+     */
+    public List<PredictionResult> predictDenialBatch(List<ClaimFeatureVector> features) {
+        List<PredictionResult> results = callBatch("/predict/denial", features);
+        for (int i = 0; i < results.size(); i++) {
+            PredictionResult r = results.get(i);
+            if (failed(r)) results.set(i, denialFallback(features.get(i)));
+        }
+        return results;
+    }
+
+    /** {@link #predictDenialBatch} without the fallback: records the service did not score stay (0, 0). */
+    public List<PredictionResult> scoreDenialBatch(List<ClaimFeatureVector> features) {
+        return callBatch("/predict/denial", features);
+    }
+
+    public List<PredictionResult> predictPaymentDelayBatch(List<InvoiceFeatureVector> features) {
+        return callBatch("/predict/payment-delay", features);
+    }
+
+    public List<PredictionResult> predictNoShowBatch(List<AppointmentFeatureVector> features) {
+        return callBatch("/predict/no-show", features);
+    }
+
+    /**
+     * Answers what it can from the cache, then POSTs the misses to {@code path + "/batch"} in slices of
+     * {@link #batchSize()}. Each record is written once into the slice's request body and its cache key is taken
+     * from those bytes; a hit, or a record the local model scored, is cut back out of the buffer. A slice that fails
+     * yields (0, 0) per record, like {@link #call}; an ML service without the batch endpoints (404) is called per
+     * record.
+     */
+    private List<PredictionResult> callBatch(String path, List<? extends FeatureVector> features) {
+        List<PredictionResult> out = new ArrayList<>(Collections.nCopies(features.size(), FAILED));
+        long generation = predictionCache.generation();
+        boolean scoreLocally = local.primary(path);
+        BatchBody body = null;
+        try {
+            for (int i = 0; i < features.size(); i++) {
+                if (body == null) body = new BatchBody(batchSize());
+                FeatureJson.Buffer buf = body.buf;
+                int mark = buf.size();
+                if (body.count > 0) buf.write(',');
+                int start = buf.size();
+                features.get(i).writeTo(body.g);
+                body.g.flush();
+                if (scoreLocally) {
+                    PredictionResult scored = local.score(path, buf.array(), start, buf.size() - start);
+                    if (scored != null) {
+                        out.set(i, scored);
+                        buf.truncate(mark);
+                        continue;
+                    }
+                }
+                PredictionCache.Key key = cacheKey(predictionCache, path, buf, start, buf.size() - start);
+                PredictionResult cached = key != null ? predictionCache.get(key) : null;
+                if (cached != null) {
+                    out.set(i, cached);
+                    buf.truncate(mark);
+                    continue;
+                }
+                body.add(i, start, buf.size() - start, key);
+                if (body.count == batchSize()) {
+                    sendBatch(path, body, out, generation);
+                    body = null;
+                }
+            }
+            if (body != null && body.count > 0) sendBatch(path, body, out, generation);
+        } catch (IOException e) {
+            log.warn("ML batch payload for {} could not be written: {}", path, e.getMessage());
+        }
+        return out;
+    }
+
+    private void sendBatch(String path, BatchBody body, List<PredictionResult> out, long generation) throws IOException {
+        body.g.close();
+        body.buf.write(']');
+        List<PredictionResult> results = postBatch(path, body);
+        for (int j = 0; j < body.count; j++) {
+            PredictionResult r = results.get(j);
+            out.set(body.index[j], r);
+            if (body.keys[j] != null && !r.equals(FAILED)) predictionCache.put(body.keys[j], r, generation);
+        }
+    }
+
+    private List<PredictionResult> postBatch(String path, BatchBody body) {
         try {
-            String url = mlBaseUrl.endsWith("/") ? mlBaseUrl + path.substring(1) : mlBaseUrl + path;
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<String> entity = new HttpEntity<>(objectMapper.writeValueAsString(body), headers);
-            ResponseEntity<String> res = restTemplate.exchange(url, HttpMethod.POST, entity, String.class);
-            if (res.getStatusCode().is2xxSuccessful() && res.getBody() != null) {
-                JsonNode node = objectMapper.readTree(res.getBody());
-                int pred = node.has("prediction") ? node.get("prediction").asInt() : 0;
-                double prob = node.has("probability") ? node.get("probability").asDouble() : 0d;
-                return new PredictionResult(pred, prob);
+            JsonNode predictions = postJson(MlGateway.Endpoint.BATCH, path + "/batch", body.buf, 0, body.buf.size())
+                    .path("predictions");
+            if (predictions.size() == body.count) {
+                List<PredictionResult> out = new ArrayList<>(body.count);
+                for (int j = 0; j < body.count; j++) {
+                    PredictionResult r = toResult(predictions.get(j));
+                    local.shadow(path, body.buf.array(), body.start[j], body.length[j], r);
+                    out.add(r);
+                }
+                return out;
             }
+            log.warn("ML batch {} returned {} predictions for {} records", path, predictions.size(), body.count);
+        } catch (MlGateway.MlCallException e) {
+            if (e.status() == 404) {
+                log.warn("ML batch endpoint {}/batch not available, scoring {} records one by one", path, body.count);
+                List<PredictionResult> out = new ArrayList<>(body.count);
+                for (int j = 0; j < body.count; j++) out.add(send(path, body.buf, body.start[j], body.length[j]));
+                return out;
+            }
+            logFailure("batch prediction", path, e);
         } catch (Exception e) {
+            log.warn("ML batch prediction failed for {}: {}", path, e.getMessage());
+        }
+        return new ArrayList<>(Collections.nCopies(body.count, FAILED));
+    }
+
+    /** One /batch request body being written: a JSON array of cache misses and where each record sits in it. */
+    private static final class BatchBody {
+        final FeatureJson.Buffer buf;
+        final JsonGenerator g;
+        final int[] index;
+        final int[] start;
+        final int[] length;
+        final PredictionCache.Key[] keys;
+        int count;
+
+        BatchBody(int capacity) throws IOException {
+            buf = new FeatureJson.Buffer(capacity * 768);
+            g = FeatureJson.generator(buf);
+            index = new int[capacity];
+            start = new int[capacity];
+            length = new int[capacity];
+            keys = new PredictionCache.Key[capacity];
+            buf.write('[');
+        }
+
+        void add(int i, int from, int len, PredictionCache.Key key) {
+            index[count] = i;
+            start[count] = from;
+            length[count] = len;
+            keys[count] = key;
+            count++;
+        }
+    }
+
+    /**
+     * Single prediction, scored locally in primary mode; otherwise through the cache, where a miss joins an identical
+     * call already in flight or makes one. Failures return (0, 0) (to every caller sharing the call) and are not
+     * cached.
+     */
+    private PredictionResult call(String path, FeatureVector features) {
+        FeatureJson.Buffer body;
+        try {
+            body = FeatureJson.write(features);
+        } catch (IOException e) {
             log.warn("ML prediction failed for {}: {}", path, e.getMessage());
+            return FAILED;
         }
-        return new PredictionResult(0, 0d);
+        if (local.primary(path)) {
+            PredictionResult scored = local.score(path, body.array(), 0, body.size());
+            if (scored != null) return scored;
+        }
+        PredictionCache.Key key = payloadKey(path, body, 0, body.size());
+        if (key == null) return send(path, body, 0, body.size());
+        PredictionResult cached = predictionCache.get(key);
+        if (cached != null) return cached;
+        if (predictionFlights == null) return sendAndCache(key, path, body);
+        return predictionFlights.execute(key, () -> sendAndCache(key, path, body));
     }
 
-    /** When ML fails, use amount-based denial risk so High Risk Items and AI Activity can populate */
-    private PredictionResult denialFallback(Map<String, Object> features, Map<String, Object> payload) {
-        double amount = toDouble(features.get("amount"), payload.get("claim_amount"), 5000.0);
-        boolean docComplete = Boolean.TRUE.equals(payload.get("documentation_complete"));
-        boolean preauthObtained = Boolean.TRUE.equals(payload.get("preauthorization_obtained"));
+    private PredictionResult sendAndCache(PredictionCache.Key key, String path, FeatureJson.Buffer body) {
+        long generation = predictionCache.generation();
+        PredictionResult result = send(path, body, 0, body.size());
+        if (!result.equals(FAILED)) predictionCache.put(key, result, generation);
+        return result;
+    }
 
-        double denialProb;
-        if (amount > 200_000) denialProb = 0.82;
-        else if (amount > 100_000) denialProb = 0.75;
-        else if (amount > 50_000) denialProb = 0.72;
-        else if (amount > 20_000) denialProb = 0.55;
-        else if (amount < 5_000) denialProb = 0.18;
-        else denialProb = 0.42;
+    private PredictionResult send(String path, FeatureJson.Buffer body, int offset, int length) {
+        try {
+            JsonNode node = postJson(MlGateway.Endpoint.PREDICT, path, body, offset, length);
+            if (node.isObject()) {
+                PredictionResult result = toResult(node);
+                local.shadow(path, body.array(), offset, length, result);
+                return result;
+            }
+        } catch (Exception e) {
+            logFailure("prediction", path, e);
+        }
+        return FAILED;
+    }
 
-        if (!docComplete) denialProb += 0.08;
-        if (!preauthObtained) denialProb += 0.05;
-        denialProb = Math.min(0.95, Math.max(0.1, denialProb));
+    private static PredictionResult toResult(JsonNode node) {
+        int pred = node.has("prediction") ? node.get("prediction").asInt() : 0;
+        double prob = node.has("probability") ? node.get("probability").asDouble() : 0d;
+        return new PredictionResult(pred, prob);
+    }
 
-        return new PredictionResult(denialProb >= 0.5 ? 1 : 0, denialProb);
+    /** POSTs {@code length} bytes of {@code body} as JSON, sent straight from the buffer without a copy. */
+    private JsonNode postJson(MlGateway.Endpoint endpoint, String path, FeatureJson.Buffer body, int offset, int length)
+            throws IOException {
+        byte[] response = gateway.post(endpoint, path, body.array(), offset, length);
+        return response.length > 0 ? objectMapper.readTree(response) : objectMapper.missingNode();
     }
 
-    private Map<String, Object> buildClaimPayload(Map<String, Object> features) {
-        Map<String, Object> m = new HashMap<>();
-        put(m, "claim_amount", features.get("amount"));
-        put(m, "coverage_limit", features.get("coverage_limit"));
-        put(m, "deductible_amount", features.get("deductible_amount"));
-        put(m, "insurance_provider", features.get("insurance_provider"));
-        put(m, "policy_type", features.get("policy_type"));
-        put(m, "preauthorization_required", features.get("preauthorization_required"));
-        put(m, "preauthorization_obtained", features.get("preauthorization_obtained"));
-        put(m, "primary_icd_code", features.get("primary_icd_code"));
-        put(m, "secondary_icd_code", features.get("secondary_icd_code"));
-        put(m, "cpt_code", features.get("cpt_code"));
-        put(m, "procedure_category", features.get("procedure_category"));
-        put(m, "medical_necessity_score", features.get("medical_necessity_score"));
-        put(m, "prior_denial_count", features.get("prior_denial_count"));
-        put(m, "resubmission_count", features.get("resubmission_count"));
-        put(m, "days_to_submission", features.get("days_to_submission"));
-        put(m, "documentation_complete", features.get("documentation_complete"));
-        put(m, "claim_type", features.get("claim_type"));
-        put(m, "patient_age", features.get("patient_age"));
-        put(m, "patient_gender", features.get("patient_gender"));
-        put(m, "chronic_condition_flag", features.get("chronic_condition_flag"));
-        put(m, "doctor_specialization", features.get("doctor_specialization"));
-        put(m, "hospital_tier", features.get("hospital_tier"));
-        put(m, "hospital_claim_success_rate", features.get("hospital_claim_success_rate"));
-        if (!m.containsKey("claim_amount")) m.put("claim_amount", features.get("amount") != null ? features.get("amount") : 5000);
-        fillDefaults(m, "primary_icd_code", "J06.9", "secondary_icd_code", "", "cpt_code", "99213",
-            "procedure_category", "Outpatient", "claim_type", "OUTPATIENT", "policy_type", "PPO",
-            "insurance_provider", "Unknown", "patient_gender", "MALE", "hospital_tier", "TIER2",
-            "coverage_limit", 50000, "deductible_amount", 500, "prior_denial_count", 0, "resubmission_count", 0,
-            "days_to_submission", 30, "medical_necessity_score", 70, "documentation_complete", true,
-            "preauthorization_required", false, "chronic_condition_flag", false, "patient_age", 40,
-            "hospital_claim_success_rate", 0.8);
-        return m;
+    /** {@link #payloadKey}, or null when the cache is off. */
+    private static PredictionCache.Key cacheKey(PredictionCache<?> cache, String path, FeatureJson.Buffer body,
+                                                int offset, int length) {
+        return cache.enabled() ? payloadKey(path, body, offset, length) : null;
+    }
+
+    /**
+     * SHA-256 over path and payload bytes, truncated to 128 bits. Feature vectors always serialize their fields in
+     * the same order, so equal payloads give equal keys.
+     */
+    private static PredictionCache.Key payloadKey(String path, FeatureJson.Buffer body, int offset, int length) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(path.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+            md.update(body.array(), offset, length);
+            ByteBuffer digest = ByteBuffer.wrap(md.digest());
+            return new PredictionCache.Key(digest.getLong(), digest.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
     }
 
-    private Map<String, Object> buildInvoicePayload(Map<String, Object> features) {
+    /**
+     * Polls the ML service's model fingerprint; when it changes (retrained or replaced model) both caches are
+     * dropped. Services without /models/version just keep the TTL.
+     */
+    @Scheduled(fixedDelayString = "${app.ml.model-version-check-ms:60000}")
+    public void checkModelVersion() {
+        if (!predictionCache.enabled()) return;
+        try {
+            String version = objectMapper.readTree(gateway.get(MlGateway.Endpoint.STATS, "/models/version"))
+                    .path("version").asText(null);
+            if (version == null) return;
+            String previous = modelVersion;
+            modelVersion = version;
+            if (previous != null && !previous.equals(version)) {
+                predictionCache.clear();
+                insightsCache.clear();
+                // retraining rewrites the CSVs the stats come from
+                statsCache.refreshAll();
+                log.info("ML model version changed {} -> {}, prediction caches cleared", previous, version);
+            }
+        } catch (Exception e) {
+            log.debug("ML model version check failed: {}", e.getMessage());
+        }
+    }
+
+    /** Hit / miss / eviction counters and sizes of the prediction and insights caches, and the age of the stats. */
+    public Map<String, Object> cacheStats() {
         Map<String, Object> m = new HashMap<>();
-        put(m, "total_amount", features.get("total_amount"));
-        put(m, "days_to_payment", features.get("days_to_payment"));
-        put(m, "payer_type", features.get("payer_type"));
-        put(m, "invoice_category", features.get("invoice_category"));
-        put(m, "reminder_count", features.get("reminder_count"));
-        put(m, "installment_plan", features.get("installment_plan"));
-        put(m, "historical_avg_payment_delay", features.get("historical_avg_payment_delay"));
-        put(m, "patient_age", features.get("patient_age"));
-        put(m, "patient_gender", features.get("patient_gender"));
-        put(m, "previous_late_payments", features.get("previous_late_payments"));
-        put(m, "payment_status", features.get("payment_status"));
-        fillDefaults(m, "days_to_payment", 0, "payer_type", "SELF", "invoice_category", "CONSULTATION",
-            "reminder_count", 0, "installment_plan", false, "historical_avg_payment_delay", 14,
-            "patient_age", 40, "patient_gender", "MALE", "previous_late_payments", 0, "payment_status", "UNPAID");
+        m.put("model_version", modelVersion);
+        m.put("predictions", stats(predictionCache, predictionFlights));
+        m.put("insights", stats(insightsCache, insightsFlights));
+        m.put("stats", statsCache.stats());
         return m;
     }
 
-    private Map<String, Object> buildAppointmentPayload(Map<String, Object> features) {
+    private static Map<String, Object> stats(PredictionCache<?> cache, SingleFlight<?> flights) {
+        long hits = cache.hits();
+        long misses = cache.misses();
         Map<String, Object> m = new HashMap<>();
-        put(m, "booking_lead_time_days", features.get("booking_lead_time_days"));
-        put(m, "appointment_type", features.get("appointment_type"));
-        put(m, "time_slot", features.get("time_slot"));
-        put(m, "weekday", features.get("weekday"));
-        put(m, "previous_no_show_count", features.get("previous_no_show_count"));
-        put(m, "reminder_count", features.get("reminder_count"));
-        put(m, "sms_reminder_sent", features.get("sms_reminder_sent"));
-        put(m, "distance_from_hospital_km", features.get("distance_from_hospital_km"));
-        put(m, "patient_age", features.get("patient_age"));
-        put(m, "patient_gender", features.get("patient_gender"));
-        put(m, "consultation_fee", features.get("consultation_fee"));
-        put(m, "previous_late_payments", features.get("previous_late_payments"));
-        fillDefaults(m, "booking_lead_time_days", 7, "appointment_type", "CONSULTATION", "time_slot", "10:00",
-            "weekday", "Monday", "previous_no_show_count", 0, "reminder_count", 1, "sms_reminder_sent", true,
-            "distance_from_hospital_km", 10, "patient_age", 40, "patient_gender", "MALE",
-            "consultation_fee", 300, "previous_late_payments", 0);
+        m.put("enabled", cache.enabled());
+        m.put("size", cache.size());
+        m.put("hits", hits);
+        m.put("misses", misses);
+        m.put("evictions", cache.evictions());
+        m.put("hit_rate", hits + misses > 0 ? Math.round(hits * 1000.0 / (hits + misses)) / 1000.0 : 0);
+        if (flights != null) {
+            m.put("calls", flights.calls());
+            m.put("coalesced", flights.coalesced());
+            m.put("in_flight", flights.inFlight());
+        }
         return m;
     }
 
-    private static void put(Map<String, Object> m, String key, Object val) {
-        if (val != null) m.put(key, val);
+    public PredictionCache<PredictionResult> predictionCache() {
+        return predictionCache;
     }
 
-    @SuppressWarnings("unchecked")
-    private static void fillDefaults(Map<String, Object> m, Object... kv) {
-        for (int i = 0; i < kv.length; i += 2) {
-            String k = (String) kv[i];
-            if (!m.containsKey(k)) m.put(k, kv[i + 1]);
-        }
+    public PredictionCache<Map<String, Object>> insightsCache() {
+        return insightsCache;
+    }
+
+    /** Null when app.ml.coalesce is off. */
+    public SingleFlight<PredictionResult> predictionFlights() {
+        return predictionFlights;
+    }
+
+    public SingleFlight<Map<String, Object>> insightsFlights() {
+        return insightsFlights;
+    }
+
+    /** An open circuit was logged when it tripped; repeating it for every refused call would flood the log. */
+    private static void logFailure(String what, String path, Exception e) {
+        if (e instanceof MlGateway.CircuitOpenException) log.debug("ML {} skipped for {}: {}", what, path, e.getMessage());
+        else log.warn("ML {} failed for {}: {}", what, path, e.getMessage());
+    }
+
+    /** When ML fails, use amount-based denial risk so High Risk Items and AI Activity can populate */
+    private PredictionResult denialFallback(ClaimFeatureVector features) {
+        double amount = features.claimAmount();
+        boolean docComplete = features.documentationComplete();
+        boolean preauthObtained = Boolean.TRUE.equals(features.preauthorizationObtained());
+
+        double denialProb;
+        if (amount > 200_000) denialProb = 0.82;
+        else if (amount > 100_000) denialProb = 0.75;
+        else if (amount > 50_000) denialProb = 0.72;
+        else if (amount > 20_000) denialProb = 0.55;
+        else if (amount < 5_000) denialProb = 0.18;
+        else denialProb = 0.42;
+
+        if (!docComplete) denialProb += 0.08;
+        if (!preauthObtained) denialProb += 0.05;
+        denialProb = Math.min(0.95, Math.max(0.1, denialProb));
+
+        return new PredictionResult(denialProb >= 0.5 ? 1 : 0, denialProb);
     }
 
     /** Fetch stats from ML service (claims_400.csv, etc.) */
@@ -185,67 +452,95 @@ public class MlPredictionService {
         return get("/stats/appointments");
     }
 
+    /** Last stats the service returned for {@code path}; the fixed fallback only until the first load succeeds. */
     private Map<String, Object> get(String path) {
+        Map<String, Object> stats = statsCache.get(path);
+        return stats != null ? stats : STATS_FALLBACK;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> loadStats(String path) throws IOException {
         try {
-            String url = mlBaseUrl.endsWith("/") ? mlBaseUrl + path.substring(1) : mlBaseUrl + path;
-            ResponseEntity<String> res = restTemplate.getForEntity(url, String.class);
-            if (res.getStatusCode().is2xxSuccessful() && res.getBody() != null) {
-                return objectMapper.readValue(res.getBody(), Map.class);
-            }
-        } catch (Exception e) {
-            log.warn("ML stats failed for {}: {}", path, e.getMessage());
+            return Collections.unmodifiableMap(objectMapper.readValue(gateway.get(MlGateway.Endpoint.STATS, path), Map.class));
+        } catch (IOException | RuntimeException e) {
+            logFailure("stats", path, e);
+            throw e;
         }
-        return Map.of("acceptance_rate", 0.75, "denial_rate", 0.25, "total_claims", 400);
+    }
+
+    /** Loads the stats in the background at startup, so the first page view does not wait for the ML service. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmStats() {
+        for (String path : STATS_PATHS) statsCache.prefetch(path);
+    }
+
+    /** Reloads stats nearing expiry (or still missing) even when nobody is reading them. */
+    @Scheduled(fixedDelayString = "${app.ml.stats.retry-ms:30000}", initialDelayString = "${app.ml.stats.retry-ms:30000}")
+    public void refreshStats() {
+        statsCache.refreshDue();
     }
 
     /** Predict with Grok insights (claims, invoices, appointments) */
-    @SuppressWarnings("unchecked")
     public Map<String, Object> predictClaimWithInsights(Map<String, Object> features) {
-        Map<String, Object> payload = buildClaimPayload(features);
-        if (features.containsKey("patient_name")) payload.put("patient_name", features.get("patient_name"));
-        if (features.containsKey("patientName")) payload.put("patient_name", features.get("patientName"));
-        return post("/predict-with-insights/claim", payload, features);
+        ClaimFeatureVector payload = ClaimFeatureVector.from(features);
+        Object patientName = features.containsKey("patientName") ? features.get("patientName") : features.get("patient_name");
+        if (patientName != null) payload = payload.withPatientName(patientName.toString());
+        Map<String, Object> result = post("/predict-with-insights/claim", payload);
+        return result != null ? result : buildClaimFallback(features, payload);
     }
 
-    @SuppressWarnings("unchecked")
     public Map<String, Object> predictInvoiceWithInsights(Map<String, Object> features) {
-        return post("/predict-with-insights/invoice", buildInvoicePayload(features), null);
+        Map<String, Object> result = post("/predict-with-insights/invoice", InvoiceFeatureVector.from(features));
+        return result != null ? result : UNAVAILABLE_INSIGHTS;
     }
 
-    @SuppressWarnings("unchecked")
     public Map<String, Object> predictAppointmentWithInsights(Map<String, Object> features) {
-        return post("/predict-with-insights/appointment", buildAppointmentPayload(features), null);
+        Map<String, Object> result = post("/predict-with-insights/appointment", AppointmentFeatureVector.from(features));
+        return result != null ? result : UNAVAILABLE_INSIGHTS;
     }
 
-    private Map<String, Object> post(String path, Map<String, Object> body, Map<String, Object> originalFeatures) {
+    /**
+     * Insights prediction through the cache, coalesced like {@link #call}; null when the service fails, so callers
+     * apply their local fallback (which is never cached).
+     */
+    private Map<String, Object> post(String path, FeatureVector features) {
+        FeatureJson.Buffer body;
         try {
-            String url = mlBaseUrl.endsWith("/") ? mlBaseUrl + path.substring(1) : mlBaseUrl + path;
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<String> entity = new HttpEntity<>(objectMapper.writeValueAsString(body), headers);
-            ResponseEntity<String> res = restTemplate.exchange(url, HttpMethod.POST, entity, String.class);
-            if (res.getStatusCode().is2xxSuccessful() && res.getBody() != null) {
-                return objectMapper.readValue(res.getBody(), Map.class);
+            body = FeatureJson.write(features);
+        } catch (IOException e) {
+            logFailure("predict-with-insights", path, e);
+            return null;
+        }
+        PredictionCache.Key key = payloadKey(path, body, 0, body.size());
+        Map<String, Object> cached = key != null ? insightsCache.get(key) : null;
+        if (cached != null) return cached;
+        if (key == null || insightsFlights == null) return postAndCache(key, path, body);
+        return insightsFlights.execute(key, () -> postAndCache(key, path, body));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> postAndCache(PredictionCache.Key key, String path, FeatureJson.Buffer body) {
+        try {
+            long generation = insightsCache.generation();
+            JsonNode node = postJson(MlGateway.Endpoint.INSIGHTS, path, body, 0, body.size());
+            if (node.isObject()) {
+                Map<String, Object> result = Collections.unmodifiableMap(objectMapper.convertValue(node, Map.class));
+                if (key != null) insightsCache.put(key, result, generation);
+                return result;
             }
         } catch (Exception e) {
-            log.warn("ML predict-with-insights failed for {}: {}", path, e.getMessage());
+            logFailure("predict-with-insights", path, e);
         }
-        Map<String, Object> fallbackInput = originalFeatures != null ? originalFeatures : body;
-        return buildClaimFallback(fallbackInput, body, path);
+        return null;
     }
 
     /** When ML service is unavailable, return amount-based dynamic acceptance/denial + contextual insights */
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> buildClaimFallback(Map<String, Object> fallbackInput, Map<String, Object> body, String path) {
-        if (!path.contains("claim")) {
-            return Map.of("prediction", 0, "probability", 0.5, "acceptance_rate_pct", 50.0, "denial_rate_pct", 50.0,
-                "historical_stats", Map.of(), "insights", "Unable to load prediction. Please try again.");
-        }
-        double amount = toDouble(fallbackInput.get("amount"), body.get("claim_amount"), 5000.0);
-        String patientName = stringVal(fallbackInput.get("patient_name"), fallbackInput.get("patientName"), body.get("patient_name"), "Patient");
-        String insurance = stringVal(fallbackInput.get("insurance_provider"), body.get("insurance_provider"), "Unknown");
-        boolean docComplete = Boolean.TRUE.equals(body.get("documentation_complete")) || Boolean.TRUE.equals(fallbackInput.get("documentation_complete"));
-        boolean preauthObtained = Boolean.TRUE.equals(body.get("preauthorization_obtained")) || Boolean.TRUE.equals(fallbackInput.get("preauthorization_obtained"));
+    private Map<String, Object> buildClaimFallback(Map<String, Object> features, ClaimFeatureVector payload) {
+        double amount = toDouble(features.get("amount"), payload.claimAmount(), 5000.0);
+        String patientName = stringVal(features.get("patient_name"), features.get("patientName"), payload.patientName(), "Patient");
+        String insurance = stringVal(features.get("insurance_provider"), payload.insuranceProvider(), "Unknown");
+        boolean docComplete = payload.documentationComplete() || Boolean.TRUE.equals(features.get("documentation_complete"));
+        boolean preauthObtained = Boolean.TRUE.equals(payload.preauthorizationObtained()) || Boolean.TRUE.equals(features.get("preauthorization_obtained"));
 
         // Amount-based heuristic: higher claims historically have higher denial rates
         double baseAcceptance = 0.75;
@@ -0,0 +1,111 @@
+package com.medibots.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded LRU cache of ML results keyed by a payload digest. Entries expire {@code ttlMillis} after being written;
+ * once {@code maxSize} is reached the least recently used entry is dropped. A max size of 0 disables caching.
+ * {@link #clear()} bumps a generation number; writers pass the generation they read before calling the model, so a
+ * result computed against a model that was replaced meanwhile is not stored. A plain lock rather than synchronized,
+ * so scoring on virtual threads does not pin its carrier.
+ */
+public class PredictionCache<V> {
+    /** 128 bits of a SHA-256 over the endpoint path and canonical payload JSON. */
+    public record Key(long hi, long lo) {}
+
+    private record Entry<V>(V value, long expiresAt) {}
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, Entry<V>> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long generation;
+
+    public PredictionCache(int maxSize, long ttlMillis) {
+        this.maxSize = Math.max(0, maxSize);
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry<V>> eldest) {
+                if (size() <= PredictionCache.this.maxSize) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    public boolean enabled() {
+        return maxSize > 0;
+    }
+
+    /** Cached value, or null on a miss (absent or expired). */
+    public V get(Key key) {
+        if (maxSize == 0) return null;
+        lock.lock();
+        try {
+            Entry<V> e = entries.get(key);
+            if (e != null && e.expiresAt() - System.nanoTime() > 0) {
+                hits.increment();
+                return e.value();
+            }
+            if (e != null) {
+                entries.remove(key);
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Current generation, to be passed to {@link #put} with a value computed after this call. */
+    public long generation() {
+        lock.lock();
+        try {
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(Key key, V value, long expectedGeneration) {
+        if (maxSize == 0) return;
+        lock.lock();
+        try {
+            if (generation == expectedGeneration) entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Drops every entry and starts a new generation. */
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            generation++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long hits() { return hits.sum(); }
+    public long misses() { return misses.sum(); }
+    public long evictions() { return evictions.sum(); }
+}
@@ -0,0 +1,158 @@
+package com.medibots.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the last good value per key and reloads it in the background before it expires. A read returns the held
+ * value at once; once it is older than {@code ttl - refreshAhead} the read (or {@link #refreshDue()}) starts one
+ * background reload, and the value is replaced only when that succeeds. A failed reload keeps the old value, which
+ * is then served past its TTL (counted as stale), and is retried after {@code retry}. Only the first load of a key
+ * runs on the caller's thread; concurrent first readers wait for it, and after a failed first load readers get null
+ * until the retry time instead of each calling the loader.
+ */
+public class RefreshAheadCache<V> {
+    /** Loads the current value; an exception or null is a failed load. */
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load(String key) throws Exception;
+    }
+
+    private static final class Entry<V> {
+        final ReentrantLock firstLoad = new ReentrantLock();
+        final AtomicBoolean refreshing = new AtomicBoolean();
+        volatile V value;
+        volatile long loadedAt;
+        volatile long retryAt;
+        volatile String lastError;
+    }
+
+    private final Loader<V> loader;
+    private final long ttlNanos;
+    private final long refreshAfterNanos;
+    private final long retryNanos;
+    private final Executor executor;
+    private final ConcurrentHashMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public RefreshAheadCache(Loader<V> loader, long ttlMillis, long refreshAheadMillis, long retryMillis,
+                             Executor executor) {
+        this.loader = loader;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.refreshAfterNanos = Math.max(0, ttlMillis - refreshAheadMillis) * 1_000_000L;
+        this.retryNanos = retryMillis * 1_000_000L;
+        this.executor = executor;
+    }
+
+    /** Last good value for {@code key}; null only while no load of it has succeeded yet. */
+    public V get(String key) {
+        Entry<V> e = entries.computeIfAbsent(key, k -> new Entry<>());
+        V v = e.value;
+        if (v == null) return firstLoad(key, e);
+        long age = System.nanoTime() - e.loadedAt;
+        if (age >= ttlNanos) staleHits.increment();
+        else hits.increment();
+        if (age >= refreshAfterNanos) refreshAsync(key, e);
+        return v;
+    }
+
+    /** Starts a background load of {@code key} (e.g. to warm it up), unless one is already running. */
+    public void prefetch(String key) {
+        refreshAsync(key, entries.computeIfAbsent(key, k -> new Entry<>()));
+    }
+
+    /** Reloads every key that is due, whether or not it is being read; for a periodic sweep. */
+    public void refreshDue() {
+        long now = System.nanoTime();
+        entries.forEach((key, e) -> {
+            if (e.value == null || now - e.loadedAt >= refreshAfterNanos) refreshAsync(key, e);
+        });
+    }
+
+    /** Reloads every key in the background now, e.g. when the source is known to have changed. */
+    public void refreshAll() {
+        entries.forEach((key, e) -> {
+            e.retryAt = 0;
+            refreshAsync(key, e);
+        });
+    }
+
+    private V firstLoad(String key, Entry<V> e) {
+        e.firstLoad.lock();
+        try {
+            if (e.value == null && retryDue(e)) load(key, e);
+            return e.value;
+        } finally {
+            e.firstLoad.unlock();
+        }
+    }
+
+    private void refreshAsync(String key, Entry<V> e) {
+        if (!retryDue(e) || !e.refreshing.compareAndSet(false, true)) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    load(key, e);
+                } finally {
+                    e.refreshing.set(false);
+                }
+            });
+        } catch (RuntimeException rejected) {
+            e.refreshing.set(false);
+        }
+    }
+
+    /** retryAt 0 means no failed load is waiting out its retry delay. */
+    private static boolean retryDue(Entry<?> e) {
+        long retryAt = e.retryAt;
+        return retryAt == 0 || System.nanoTime() - retryAt >= 0;
+    }
+
+    private void load(String key, Entry<V> e) {
+        loads.increment();
+        try {
+            V v = loader.load(key);
+            if (v == null) throw new IllegalStateException("no value");
+            e.value = v;
+            e.loadedAt = System.nanoTime();
+            e.retryAt = 0;
+            e.lastError = null;
+        } catch (Exception ex) {
+            failures.increment();
+            e.retryAt = System.nanoTime() + retryNanos;
+            e.lastError = ex.getMessage();
+        }
+    }
+
+    /** Read and load counters, plus the age and last error of each key. */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new HashMap<>();
+        m.put("hits", hits.sum());
+        m.put("stale_hits", staleHits.sum());
+        m.put("loads", loads.sum());
+        m.put("failures", failures.sum());
+        Map<String, Object> keys = new HashMap<>();
+        long now = System.nanoTime();
+        entries.forEach((key, e) -> {
+            Map<String, Object> k = new HashMap<>();
+            k.put("loaded", e.value != null);
+            if (e.value != null) {
+                long age = now - e.loadedAt;
+                k.put("age_ms", age / 1_000_000);
+                k.put("stale", age >= ttlNanos);
+            }
+            if (e.lastError != null) k.put("last_error", e.lastError);
+            keys.put(key, k);
+        });
+        m.put("keys", keys);
+        return m;
+    }
+}
@@ -0,0 +1,288 @@
+package com.medibots.service;
+
+import com.medibots.entity.Claim;
+import com.medibots.entity.Ids;
+import com.medibots.entity.RescoreJob;
+import com.medibots.event.ClaimChangedEvent;
+import com.medibots.repository.ClaimRepository;
+import com.medibots.repository.RescoreJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Background re-scoring of every claim against the denial model. Claims are read newest first in keyset chunks,
+ * scored as ML batch requests with a bounded number in flight, and each chunk's ai_risk_score / claim_features
+ * writes are JDBC batches committed together with the job's cursor. A restart or a resume therefore continues right
+ * after the last committed chunk; a cancel discards at most the chunk in flight. The claim update bumps the claim's
+ * version, so a JPA writer still holding the row from before the rescore fails its optimistic check instead of
+ * writing the old score back. Claims created after a job started are not revisited (they are scored on create).
+ */
+@Service
+public class RescoreJobService {
+    private static final Logger log = LoggerFactory.getLogger(RescoreJobService.class);
+    private static final List<String> RESUMABLE = List.of(RescoreJob.CANCELLED, RescoreJob.FAILED);
+    private static final String UPDATE_CLAIM = "update claims set ai_risk_score = ?, updated_at = ?, version = version + 1 where id = ?";
+    private static final String UPSERT_FEATURES = "insert into claim_features "
+            + "(id, claim_id, risk_score_normalized, ml_prediction, ml_probability, created_at, updated_at) "
+            + "values (?, ?, ?, ?, ?, ?, ?) on duplicate key update "
+            + "risk_score_normalized = values(risk_score_normalized), ml_prediction = values(ml_prediction), "
+            + "ml_probability = values(ml_probability), updated_at = values(updated_at)";
+
+    private final ClaimRepository claimRepo;
+    private final RescoreJobRepository jobRepo;
+    private final MlPredictionService mlService;
+    private final ApplicationEventPublisher publisher;
+    private final TransactionTemplate tx;
+    private final JdbcTemplate jdbc;
+    private final int chunkSize;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("rescore-job").daemon().factory());
+    private final ExecutorService mlPool;
+    /** Jobs with a runner queued or executing in this JVM. */
+    private final Set<String> active = ConcurrentHashMap.newKeySet();
+    private final Set<String> cancelRequested = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.rescore.resume-on-startup:true}")
+    private boolean resumeOnStartup;
+
+    public record Started(RescoreJob job, boolean created) {}
+
+    private record Scored(Claim claim, MlPredictionService.PredictionResult prediction, BigDecimal riskScore) {
+        boolean riskChanged() {
+            return claim.getAiRiskScore() == null || claim.getAiRiskScore().compareTo(riskScore) != 0;
+        }
+    }
+
+    public RescoreJobService(ClaimRepository claimRepo, RescoreJobRepository jobRepo, MlPredictionService mlService,
+                             ApplicationEventPublisher publisher, TransactionTemplate tx, DataSource dataSource,
+                             @Value("${app.rescore.chunk-size:1000}") int chunkSize,
+                             @Value("${app.rescore.parallelism:8}") int parallelism) {
+        this.claimRepo = claimRepo;
+        this.jobRepo = jobRepo;
+        this.mlService = mlService;
+        this.publisher = publisher;
+        this.tx = tx;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.mlPool = Executors.newFixedThreadPool(Math.max(1, parallelism),
+                Thread.ofPlatform().name("rescore-ml-", 0).daemon().factory());
+    }
+
+    /** Starts a new job, or returns the one already running ({@code created = false}). */
+    public synchronized Started start(String userId) {
+        List<RescoreJob> running = jobRepo.findByStatus(RescoreJob.RUNNING);
+        if (!running.isEmpty()) return new Started(running.get(0), false);
+        RescoreJob job = new RescoreJob();
+        job.setStartedBy(userId);
+        job.setTotalClaims(claimRepo.count());
+        job = jobRepo.save(job);
+        submit(job.getId());
+        return new Started(job, true);
+    }
+
+    public Optional<RescoreJob> find(String jobId) {
+        return jobRepo.findById(jobId);
+    }
+
+    public List<RescoreJob> recent() {
+        return jobRepo.findTop20ByOrderByCreatedAtDesc();
+    }
+
+    /** Marks a running job cancelled; its runner stops before the next chunk and rolls back the one in flight. */
+    public boolean cancel(String jobId) {
+        Instant now = Instant.now();
+        Integer n = tx.execute(s -> jobRepo.transition(jobId, List.of(RescoreJob.RUNNING), RescoreJob.CANCELLED, null, now, now));
+        if (n == null || n == 0) return false;
+        if (active.contains(jobId)) cancelRequested.add(jobId);
+        return true;
+    }
+
+    /**
+     * Restarts a cancelled or failed job from its last committed chunk. A job still marked RUNNING with no runner
+     * in this JVM (e.g. startup resume disabled) is picked up as well.
+     */
+    public boolean resume(String jobId) {
+        Integer n = tx.execute(s -> jobRepo.transition(jobId, RESUMABLE, RescoreJob.RUNNING, null, null, Instant.now()));
+        if (n != null && n > 0) {
+            cancelRequested.remove(jobId);
+            submit(jobId);
+            return true;
+        }
+        return jobRepo.findById(jobId).filter(RescoreJob::isRunning).map(j -> submit(jobId)).orElse(false);
+    }
+
+    /** Jobs left RUNNING by a shutdown continue where they stopped. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        if (!resumeOnStartup) return;
+        try {
+            for (RescoreJob job : jobRepo.findByStatus(RescoreJob.RUNNING)) {
+                log.info("Resuming rescore job {} at {}/{}", job.getId(), job.getProcessed(), job.getTotalClaims());
+                submit(job.getId());
+            }
+        } catch (Exception e) {
+            log.warn("Rescore job resume failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+        mlPool.shutdownNow();
+    }
+
+    private boolean submit(String jobId) {
+        if (!active.add(jobId)) return false;
+        runner.execute(() -> {
+            try {
+                run(jobId);
+            } finally {
+                active.remove(jobId);
+                cancelRequested.remove(jobId);
+            }
+        });
+        return true;
+    }
+
+    private void run(String jobId) {
+        RescoreJob job = jobRepo.findById(jobId).orElse(null);
+        if (job == null || !job.isRunning()) return;
+        Instant cursorCreatedAt = job.getCursorCreatedAt();
+        String cursorId = job.getCursorId();
+        long processed = job.getProcessed();
+        try {
+            while (!cancelRequested.contains(jobId)) {
+                List<Claim> chunk = claimRepo.findPage(null, null, null, null, null, cursorCreatedAt, cursorId,
+                        PageRequest.of(0, chunkSize));
+                if (chunk.isEmpty()) {
+                    Instant now = Instant.now();
+                    tx.execute(s -> jobRepo.transition(jobId, List.of(RescoreJob.RUNNING), RescoreJob.COMPLETED, null, now, now));
+                    log.info("Rescore job {} completed: {} claims", jobId, processed);
+                    return;
+                }
+                Claim last = chunk.get(chunk.size() - 1);
+                if (last.getCreatedAt() == null) throw new IllegalStateException("Claim " + last.getId() + " has no created_at");
+                List<Scored> scored = score(chunk);
+                if (!commit(jobId, scored, last, chunk.size(), chunk.size() - scored.size(), processed)) {
+                    log.info("Rescore job {} stopped at {} claims (cancelled or taken over)", jobId, processed);
+                    return;
+                }
+                processed += chunk.size();
+                cursorCreatedAt = last.getCreatedAt();
+                cursorId = last.getId();
+                publish(scored);
+            }
+        } catch (InterruptedException e) {
+            // shutdown: the job stays RUNNING and resumes from its cursor on the next start
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Rescore job {} failed: {}", jobId, e.getMessage());
+            Instant now = Instant.now();
+            tx.execute(s -> jobRepo.transition(jobId, List.of(RescoreJob.RUNNING), RescoreJob.FAILED,
+                    String.valueOf(e.getMessage()), now, now));
+        }
+    }
+
+    /**
+     * Scores the chunk as batch requests of {@link MlPredictionService#batchSize()} claims, run concurrently on the
+     * ML pool. Claims the service did not score, or whose batch call throws, are skipped and counted as failed, so an
+     * ML outage leaves the stored scores alone instead of overwriting them with a heuristic.
+     */
+    private List<Scored> score(List<Claim> chunk) throws InterruptedException {
+        int size = mlService.batchSize();
+        List<List<Claim>> slices = new ArrayList<>();
+        List<Future<List<MlPredictionService.PredictionResult>>> futures = new ArrayList<>();
+        for (int from = 0; from < chunk.size(); from += size) {
+            List<Claim> slice = chunk.subList(from, Math.min(chunk.size(), from + size));
+            slices.add(slice);
+            futures.add(mlPool.submit(() -> mlService.scoreDenialBatch(
+                    slice.stream().map(ClaimFeatureVector::of).toList())));
+        }
+        List<Scored> out = new ArrayList<>(chunk.size());
+        try {
+            for (int i = 0; i < slices.size(); i++) {
+                try {
+                    List<MlPredictionService.PredictionResult> results = futures.get(i).get();
+                    for (int j = 0; j < results.size(); j++) {
+                        MlPredictionService.PredictionResult p = results.get(j);
+                        if (MlPredictionService.failed(p)) continue;
+                        out.add(new Scored(slices.get(i).get(j), p,
+                                BigDecimal.valueOf(p.probability() * 100).setScale(2, RoundingMode.HALF_UP)));
+                    }
+                } catch (ExecutionException e) {
+                    log.debug("Rescore of {} claims failed: {}", slices.get(i).size(), e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            for (Future<?> f : futures) f.cancel(true);
+            throw e;
+        }
+        return out;
+    }
+
+    /** Writes one chunk and advances the cursor in a single transaction; false when the job may no longer advance. */
+    private boolean commit(String jobId, List<Scored> scored, Claim last, int visited, int failed, long expectedProcessed) {
+        Boolean ok = tx.execute(s -> {
+            Timestamp now = Timestamp.from(Instant.now());
+            List<Scored> changed = scored.stream().filter(Scored::riskChanged).toList();
+            if (!changed.isEmpty()) {
+                jdbc.batchUpdate(UPDATE_CLAIM, changed, changed.size(), (ps, r) -> {
+                    ps.setBigDecimal(1, r.riskScore());
+                    ps.setTimestamp(2, now);
+                    ps.setBytes(3, Ids.toBytes(r.claim().getId()));
+                });
+            }
+            if (!scored.isEmpty()) {
+                jdbc.batchUpdate(UPSERT_FEATURES, scored, scored.size(), (ps, r) -> {
+                    BigDecimal probability = BigDecimal.valueOf(r.prediction().probability()).setScale(4, RoundingMode.HALF_UP);
+                    ps.setString(1, Ids.newId());
+                    ps.setBytes(2, Ids.toBytes(r.claim().getId()));
+                    ps.setBigDecimal(3, probability);
+                    ps.setInt(4, r.prediction().prediction());
+                    ps.setBigDecimal(5, probability);
+                    ps.setTimestamp(6, now);
+                    ps.setTimestamp(7, now);
+                });
+            }
+            if (jobRepo.advance(jobId, last.getCreatedAt(), last.getId(), visited, failed, expectedProcessed, now.toInstant()) == 0) {
+                s.setRollbackOnly();
+                return false;
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(ok);
+    }
+
+    /** The batch writes bypass JPA, so changed scores are announced explicitly (the claim cube tracks ai_risk_score). */
+    private void publish(List<Scored> scored) {
+        for (Scored r : scored) {
+            Claim.Snapshot before = r.claim().persisted();
+            if (before == null || !r.riskChanged()) continue;
+            publisher.publishEvent(new ClaimChangedEvent(before, before.withAiRiskScore(r.riskScore())));
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.medibots.service;
+
+import com.medibots.entity.Claim;
+import com.medibots.entity.ClaimDailyRollup;
+import com.medibots.entity.Invoice;
+import com.medibots.event.ClaimChangedEvent;
+import com.medibots.event.InvoiceChangedEvent;
+import com.medibots.repository.ClaimDailyRollupRepository;
+import com.medibots.repository.RevenueDailyRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Daily (UTC) rollups of claims by hospital x payer x status x procedure category, and of PAID revenue by hospital.
+ * Claim / invoice change events are applied as +/- deltas after commit; a nightly compaction drops empty buckets
+ * and re-derives the most recent closed days from the source tables to correct any drift.
+ */
+@Service
+public class RollupService {
+    private static final Logger log = LoggerFactory.getLogger(RollupService.class);
+    private static final Instant BEGINNING = Instant.EPOCH;
+    /** What {@link #claimBreakdown} can break claims down by. */
+    public static final Set<String> DIMENSIONS = Set.of("payer", "status", "procedure_category", "hospital");
+    private static final Instant END = LocalDate.of(9999, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant();
+
+    private final ClaimDailyRollupRepository claimRollupRepo;
+    private final RevenueDailyRollupRepository revenueRollupRepo;
+    private final TransactionTemplate tx;
+
+    @Value("${app.rollups.reconcile-days:2}")
+    private int reconcileDays;
+
+    public RollupService(ClaimDailyRollupRepository claimRollupRepo, RevenueDailyRollupRepository revenueRollupRepo,
+                         TransactionTemplate tx) {
+        this.claimRollupRepo = claimRollupRepo;
+        this.revenueRollupRepo = revenueRollupRepo;
+        this.tx = tx;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onClaimChanged(ClaimChangedEvent e) {
+        Claim.Snapshot b = e.before();
+        Claim.Snapshot a = e.after();
+        if (b != null && a != null && sameClaimBucket(b, a) && amount(b.amount()).compareTo(amount(a.amount())) == 0) return;
+        if (b != null && b.submittedAt() != null) applyClaim(b, -1);
+        if (a != null && a.submittedAt() != null) applyClaim(a, 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onInvoiceChanged(InvoiceChangedEvent e) {
+        Invoice.Snapshot b = e.before();
+        Invoice.Snapshot a = e.after();
+        boolean wasPaid = isPaid(b);
+        boolean nowPaid = isPaid(a);
+        if (wasPaid && nowPaid && day(b.createdAt()).equals(day(a.createdAt()))
+                && hospital(b.hospitalId()).equals(hospital(a.hospitalId()))
+                && amount(b.totalAmount()).compareTo(amount(a.totalAmount())) == 0) return;
+        if (wasPaid) revenueRollupRepo.applyDelta(day(b.createdAt()), hospital(b.hospitalId()), -1, amount(b.totalAmount()).negate());
+        if (nowPaid) revenueRollupRepo.applyDelta(day(a.createdAt()), hospital(a.hospitalId()), 1, amount(a.totalAmount()));
+    }
+
+    /** Per-day claim counts and amounts for an inclusive date range; null filters match everything. */
+    @Transactional(readOnly = true)
+    public List<ClaimDailyRollupRepository.DayTotals> claimSeries(LocalDate from, LocalDate to, String hospitalId,
+                                                                  String provider, String status, String category) {
+        return claimRollupRepo.sumByDay(from, to, hospitalId, provider, status, category);
+    }
+
+    /** Claim totals over an inclusive date range broken down by payer, status, category or hospital. */
+    @Transactional(readOnly = true)
+    public List<ClaimDailyRollupRepository.DimensionTotals> claimBreakdown(String dimension, LocalDate from, LocalDate to, String hospitalId) {
+        return switch (dimension) {
+            case "payer" -> claimRollupRepo.sumByProvider(from, to, hospitalId);
+            case "status" -> claimRollupRepo.sumByStatus(from, to, hospitalId);
+            case "procedure_category" -> claimRollupRepo.sumByCategory(from, to, hospitalId);
+            case "hospital" -> claimRollupRepo.sumByHospital(from, to);
+            default -> throw new IllegalArgumentException("Unsupported dimension: " + dimension);
+        };
+    }
+
+    @Transactional(readOnly = true)
+    public List<RevenueDailyRollupRepository.DayTotals> revenueSeries(LocalDate from, LocalDate to, String hospitalId) {
+        return revenueRollupRepo.sumByDay(from, to, hospitalId);
+    }
+
+    /** Drops every bucket and re-derives all of them from claims and invoices. */
+    @Transactional
+    public Map<String, Object> rebuild() {
+        claimRollupRepo.deleteAllInBatch();
+        revenueRollupRepo.deleteAllInBatch();
+        int claimBuckets = claimRollupRepo.insertFromClaims(BEGINNING, END);
+        int revenueBuckets = revenueRollupRepo.insertFromInvoices(BEGINNING, END);
+        log.info("Rebuilt rollups: {} claim buckets, {} revenue buckets", claimBuckets, revenueBuckets);
+        Map<String, Object> m = new HashMap<>();
+        m.put("claim_buckets", claimBuckets);
+        m.put("revenue_buckets", revenueBuckets);
+        return m;
+    }
+
+    /**
+     * Removes buckets whose count dropped to zero (status moves leave them behind) and re-derives the
+     * last {@code app.rollups.reconcile-days} closed days from source. Today is left to the incremental path.
+     */
+    @Scheduled(cron = "${app.rollups.compaction-cron:0 30 2 * * *}", zone = "UTC")
+    @Transactional
+    public Map<String, Object> compact() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate from = today.minusDays(Math.max(0, reconcileDays));
+        int emptyClaim = claimRollupRepo.deleteEmpty();
+        int emptyRevenue = revenueRollupRepo.deleteEmpty();
+        claimRollupRepo.deleteRange(from, today);
+        revenueRollupRepo.deleteRange(from, today);
+        Instant start = from.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant end = today.atStartOfDay(ZoneOffset.UTC).toInstant();
+        int claimBuckets = claimRollupRepo.insertFromClaims(start, end);
+        int revenueBuckets = revenueRollupRepo.insertFromInvoices(start, end);
+        log.info("Compacted rollups: removed {} empty buckets, reconciled {} days", emptyClaim + emptyRevenue, reconcileDays);
+        Map<String, Object> m = new HashMap<>();
+        m.put("removed_empty", emptyClaim + emptyRevenue);
+        m.put("reconciled_from", from.toString());
+        m.put("claim_buckets", claimBuckets);
+        m.put("revenue_buckets", revenueBuckets);
+        return m;
+    }
+
+    /** First start after upgrade: populate the rollups once from existing data. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        try {
+            if (claimRollupRepo.count() == 0 && revenueRollupRepo.count() == 0) tx.executeWithoutResult(s -> rebuild());
+        } catch (Exception e) {
+            log.warn("Rollup initialisation failed: {}", e.getMessage());
+        }
+    }
+
+    private void applyClaim(Claim.Snapshot s, long sign) {
+        claimRollupRepo.applyDelta(day(s.submittedAt()), hospital(s.hospitalId()), orUnknown(s.insuranceProvider()),
+                s.status(), orUnknown(s.procedureCategory()), sign, sign < 0 ? amount(s.amount()).negate() : amount(s.amount()));
+    }
+
+    private static boolean sameClaimBucket(Claim.Snapshot b, Claim.Snapshot a) {
+        return Objects.equals(b.submittedAt() != null ? day(b.submittedAt()) : null, a.submittedAt() != null ? day(a.submittedAt()) : null)
+                && hospital(b.hospitalId()).equals(hospital(a.hospitalId()))
+                && orUnknown(b.insuranceProvider()).equals(orUnknown(a.insuranceProvider()))
+                && Objects.equals(b.status(), a.status())
+                && orUnknown(b.procedureCategory()).equals(orUnknown(a.procedureCategory()));
+    }
+
+    private static boolean isPaid(Invoice.Snapshot s) {
+        return s != null && "PAID".equals(s.paymentStatus()) && s.createdAt() != null;
+    }
+
+    private static LocalDate day(Instant t) {
+        return LocalDate.ofInstant(t, ZoneOffset.UTC);
+    }
+
+    private static String hospital(String hospitalId) {
+        return hospitalId != null && !hospitalId.isBlank() ? hospitalId : ClaimDailyRollup.UNASSIGNED;
+    }
+
+    private static String orUnknown(String s) {
+        return s != null && !s.isBlank() ? s : ClaimDailyRollup.UNKNOWN;
+    }
+
+    private static BigDecimal amount(BigDecimal v) {
+        return v != null ? v : BigDecimal.ZERO;
+    }
+}
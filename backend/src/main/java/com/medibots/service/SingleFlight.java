@@ -0,0 +1,62 @@
+package com.medibots.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical ML calls into one. The first caller for a key runs the call; callers arriving with
+ * the same key while it is running wait for it and get the same result (or exception). The key is dropped before the
+ * result is published, so only calls that overlapped share it; anyone arriving afterwards starts a new call, and
+ * reuse beyond that is left to {@link PredictionCache} with its TTL and model generation. Results must be immutable.
+ */
+public class SingleFlight<V> {
+    private final ConcurrentHashMap<PredictionCache.Key, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /** Result of {@code call} for {@code key}, shared with any caller that asks for the same key meanwhile. */
+    public V execute(PredictionCache.Key key, Supplier<V> call) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            try {
+                // bounded by the leader's own deadline in MlGateway
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException r) throw r;
+                if (e.getCause() instanceof Error err) throw err;
+                throw e;
+            }
+        }
+        calls.increment();
+        V result;
+        try {
+            result = call.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(key, mine);
+        mine.complete(result);
+        return result;
+    }
+
+    /** Calls actually made. */
+    public long calls() {
+        return calls.sum();
+    }
+
+    /** Callers that shared another caller's result instead of making their own call. */
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,56 @@
+package com.medibots.service;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Splits a time range at the server zone's offset changes, so UTC timestamps can be bucketed by server-zone day or
+ * month in SQL: each span is grouped with CONVERT_TZ(column, '+00:00', offset).
+ */
+final class ZoneSpans {
+    /** A stretch of time with one UTC offset, as CONVERT_TZ takes it ("+05:30"); null ends are open. */
+    record Span(Instant from, Instant to, String offset) {}
+
+    private ZoneSpans() {}
+
+    /**
+     * Splits [from, to) at the server zone's offset changes. A zone with a fixed offset gives one span. Otherwise open
+     * ends are closed with {@code range}, the first and last time in the data, so only the transitions the data
+     * actually spans are used; no data gives no spans.
+     */
+    static List<Span> of(Instant from, Instant to, Supplier<Instant[]> range) {
+        ZoneRules rules = ZoneId.systemDefault().getRules();
+        if (rules.isFixedOffset()) return List.of(new Span(from, to, offset(rules.getOffset(Instant.EPOCH))));
+        Instant start = from;
+        Instant end = to;
+        if (start == null || end == null) {
+            Instant[] r = range.get();
+            if (r[0] == null) return List.of();
+            if (start == null) start = r[0];
+            if (end == null) end = r[1].plusSeconds(1);
+        }
+        List<Span> out = new ArrayList<>();
+        Instant spanFrom = from;
+        ZoneOffset offset = rules.getOffset(start);
+        for (ZoneOffsetTransition t = rules.nextTransition(start); t != null && t.getInstant().isBefore(end);
+             t = rules.nextTransition(t.getInstant())) {
+            out.add(new Span(spanFrom, t.getInstant(), offset(offset)));
+            spanFrom = t.getInstant();
+            offset = t.getOffsetAfter();
+        }
+        out.add(new Span(spanFrom, to, offset(offset)));
+        return out;
+    }
+
+    /** "+05:30"; CONVERT_TZ does not take the "Z" ZoneOffset uses for UTC. */
+    private static String offset(ZoneOffset o) {
+        int minutes = o.getTotalSeconds() / 60;
+        return String.format("%s%02d:%02d", minutes < 0 ? "-" : "+", Math.abs(minutes) / 60, Math.abs(minutes) % 60);
+    }
+}
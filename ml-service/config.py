@@ -13,3 +13,6 @@ NO_SHOW_MODEL_PATH = MODEL_DIR + "no_show_model.pkl"
 DENIAL_PREPROCESSOR_PATH = MODEL_DIR + "denial_preprocessor.pkl"
 PAYMENT_PREPROCESSOR_PATH = MODEL_DIR + "payment_preprocessor.pkl"
 NO_SHOW_PREPROCESSOR_PATH = MODEL_DIR + "no_show_preprocessor.pkl"
+
+# portable JSON copies of the models for the backend's in-process scorer (export.py)
+EXPORT_DIR = MODEL_DIR + "export/"
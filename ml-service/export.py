@@ -0,0 +1,110 @@
+# export.py
+
+"""
+Writes each trained pipeline as portable JSON for the backend's in-process scorer (LocalModel.java):
+the imputer / scaler statistics of the numeric columns, the one-hot categories of the categorical columns
+and the estimator itself (every tree of a random forest as flat node arrays, or logistic regression weights).
+Feature indexes in the trees refer to the transformed row: numeric columns first, then the one-hot columns.
+Files are written to a temporary name and renamed, so a backend polling the directory never reads half a file.
+"""
+
+import json
+import os
+
+import joblib
+import numpy as np
+from sklearn.ensemble import ExtraTreesClassifier, RandomForestClassifier
+from sklearn.linear_model import LogisticRegression
+from sklearn.tree import DecisionTreeClassifier
+
+from config import *
+from predict import model_version
+
+FORMAT = "medibots-model/1"
+
+
+def _numeric(transformer, columns):
+    imputer = transformer.named_steps["imputer"]
+    scaler = transformer.named_steps["scaler"]
+    return [
+        {
+            "name": col,
+            "median": float(imputer.statistics_[i]),
+            "mean": float(scaler.mean_[i]),
+            "scale": float(scaler.scale_[i]),
+        }
+        for i, col in enumerate(columns)
+    ]
+
+
+def _categorical(transformer, columns):
+    encoder = transformer.named_steps["encoder"]
+    return [
+        {"name": col, "categories": [str(c) for c in encoder.categories_[i]]}
+        for i, col in enumerate(columns)
+    ]
+
+
+def _tree(tree):
+    t = tree.tree_
+    value = t.value[:, 0, :].astype(float)
+    totals = value.sum(axis=1, keepdims=True)
+    value = np.divide(value, totals, out=np.zeros_like(value), where=totals > 0)
+    return {
+        "left": t.children_left.tolist(),
+        "right": t.children_right.tolist(),
+        "feature": t.feature.tolist(),
+        "threshold": t.threshold.tolist(),
+        "value": value.tolist(),
+    }
+
+
+def _estimator(model):
+    if isinstance(model, (RandomForestClassifier, ExtraTreesClassifier)):
+        return {"type": "forest", "trees": [_tree(t) for t in model.estimators_]}
+    if isinstance(model, DecisionTreeClassifier):
+        return {"type": "forest", "trees": [_tree(model)]}
+    if isinstance(model, LogisticRegression) and len(model.classes_) == 2:
+        return {"type": "logistic", "coef": model.coef_[0].tolist(), "intercept": float(model.intercept_[0])}
+    raise ValueError(f"Cannot export {type(model).__name__}")
+
+
+def export_model(model_path, name, out_dir=EXPORT_DIR):
+    pipeline = joblib.load(model_path)
+    preprocessor = pipeline.named_steps["preprocessor"]
+    model = pipeline.named_steps["model"]
+
+    numeric, categorical = [], []
+    for kind, transformer, columns in preprocessor.transformers_:
+        if kind == "num":
+            numeric = _numeric(transformer, list(columns))
+        elif kind == "cat":
+            categorical = _categorical(transformer, list(columns))
+
+    doc = {
+        "format": FORMAT,
+        "model": name,
+        "version": model_version([model_path]),
+        "classes": [int(c) for c in model.classes_],
+        "numeric": numeric,
+        "categorical": categorical,
+        "estimator": _estimator(model),
+    }
+
+    os.makedirs(out_dir, exist_ok=True)
+    path = os.path.join(out_dir, name + ".json")
+    tmp = path + ".tmp"
+    with open(tmp, "w") as f:
+        json.dump(doc, f, separators=(",", ":"))
+    os.replace(tmp, path)
+    print(f"Exported {model_path} -> {path}")
+
+
+def export_all():
+    export_model(DENIAL_MODEL_PATH, "denial")
+    export_model(PAYMENT_MODEL_PATH, "payment_delay")
+    export_model(NO_SHOW_MODEL_PATH, "no_show")
+
+
+if __name__ == "__main__":
+    export_all()
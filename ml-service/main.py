@@ -2,7 +2,7 @@
 
 from fastapi import FastAPI
 from fastapi.middleware.cors import CORSMiddleware
-from predict import predict
+from predict import predict, predict_batch, model_version
 from stats import get_claims_stats, get_invoices_stats, get_appointments_stats
 from insights import get_claim_insights, get_invoice_insights, get_appointment_insights
 from config import (
@@ -30,6 +30,27 @@ def predict_no_show(data: dict):
     return predict(data, NO_SHOW_MODEL_PATH)
 
 
+# Batch variants: a JSON array of feature objects in, {"predictions": [...]} out in the same order.
+@app.post("/predict/denial/batch")
+def predict_denial_batch(data: list[dict]):
+    return {"predictions": predict_batch(data, DENIAL_MODEL_PATH)}
+
+
+@app.post("/predict/payment-delay/batch")
+def predict_payment_batch(data: list[dict]):
+    return {"predictions": predict_batch(data, PAYMENT_MODEL_PATH)}
+
+
+@app.post("/predict/no-show/batch")
+def predict_no_show_batch(data: list[dict]):
+    return {"predictions": predict_batch(data, NO_SHOW_MODEL_PATH)}
+
+
+@app.get("/models/version")
+def models_version():
+    return {"version": model_version([DENIAL_MODEL_PATH, PAYMENT_MODEL_PATH, NO_SHOW_MODEL_PATH])}
+
+
 @app.get("/stats/claims")
 def stats_claims():
     return get_claims_stats()
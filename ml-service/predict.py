@@ -1,5 +1,8 @@
 # predict.py
 
+import hashlib
+import os
+
 import joblib
 import pandas as pd
 
@@ -25,3 +28,29 @@ def predict(data, model_path):
         "prediction": int(prediction),
         "probability": probability,
     }
+
+
+def predict_batch(rows, model_path):
+    """Scores a list of feature dicts with one model load and one DataFrame; results keep the input order."""
+    if not rows:
+        return []
+    model = joblib.load(model_path)
+    df = pd.DataFrame([{k: _normalize_value(v) for k, v in row.items()} for row in rows])
+    predictions = model.predict(df)
+    probabilities = model.predict_proba(df).max(axis=1)
+    return [
+        {"prediction": int(p), "probability": float(q)}
+        for p, q in zip(predictions, probabilities)
+    ]
+
+
+def model_version(model_paths):
+    """Short fingerprint of the model files (mtime + size); changes whenever a model is retrained or replaced."""
+    parts = []
+    for path in model_paths:
+        try:
+            st = os.stat(path)
+            parts.append(f"{path}:{st.st_mtime_ns}:{st.st_size}")
+        except OSError:
+            parts.append(f"{path}:missing")
+    return hashlib.sha1("|".join(parts).encode()).hexdigest()[:16]
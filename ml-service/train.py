@@ -56,4 +56,7 @@ if __name__ == "__main__":
     train_model(APPOINTMENTS_PATH, "no_show_flag",
                 NO_SHOW_MODEL_PATH, NO_SHOW_PREPROCESSOR_PATH)
 
-    print("All models trained successfully.")
\ No newline at end of file
+    print("All models trained successfully.")
+
+    from export import export_all
+    export_all()
\ No newline at end of file